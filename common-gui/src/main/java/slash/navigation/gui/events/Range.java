@@ -22,6 +22,7 @@ package slash.navigation.gui.events;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import static slash.common.io.Transfer.toArray;
@@ -41,6 +42,14 @@ public class Range {
         return result;
     }
 
+    public static BitSet asBitSet(int[] indices) {
+        BitSet result = new BitSet();
+        for (int index : indices) {
+            result.set(index);
+        }
+        return result;
+    }
+
     public static List<List<Integer>> asContinuousMonotonicallyIncreasingRanges(int[] indices) {
         return asContinuousMonotonicallyIncreasingRanges(indices, Integer.MAX_VALUE);
     }
@@ -22,6 +22,8 @@ package slash.navigation.gui.events;
 
 import org.junit.Test;
 
+import java.util.BitSet;
+
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static slash.common.TestCase.assertIntArrayEquals;
@@ -52,6 +54,16 @@ public class RangeTest {
         assertEquals(asList(asList(7, 6, 5), asList(3, 2), asList(0)), Range.asContinuousMonotonicallyDecreasingRanges(new int[]{3, 6, 0, 7, 5, 2}));
     }
 
+    @Test
+    public void testAsBitSet() {
+        assertEquals(new BitSet(), Range.asBitSet(new int[]{}));
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2);
+        expected.set(3);
+        assertEquals(expected, Range.asBitSet(new int[]{3, 0, 2}));
+    }
+
     @Test
     public void testAllButEveryNthAndFirstAndLast() {
         assertIntArrayEquals(new int[]{}, Range.allButEveryNthAndFirstAndLast(0, 1));
@@ -29,6 +29,9 @@ import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.parseDouble;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.common.CoordinatesParser.parseCoordinates;
+import static slash.navigation.common.CoordinatesParser.parseExtensionCoordinates;
+import static slash.navigation.common.CoordinatesParser.toDouble;
 
 /**
  * A basic position for common navigation usage
@@ -39,7 +42,6 @@ import static slash.common.io.Transfer.trim;
 public class BasicPosition {
     private static final String NUMBER = "[[-|+]|\\d|\\.|E]";
     private static final Pattern POSITION_PATTERN = Pattern.compile("(\\s*" + NUMBER + "*\\s*),(\\s*" + NUMBER + "*\\s*)(,\\s*" + NUMBER + "+\\s*)?\\s*");
-    private static final Pattern EXTENSION_POSITION_PATTERN = Pattern.compile("\\s*(" + NUMBER + "+)\\s+(" + NUMBER + "+)\\s+(" + NUMBER + "+)\\s*");
 
     private Double longitude, latitude, elevation;
     private String location;
@@ -84,25 +86,19 @@ public class BasicPosition {
         return new BasicPosition(parseDouble(longitude), parseDouble(latitude), parseDouble(elevation), trim(comment));
     }
 
-    public static List<BasicPosition> parsePositions(String listOfCoordinates) {
-        List<BasicPosition> result = new ArrayList<BasicPosition>();
-        Matcher matcher = POSITION_PATTERN.matcher(listOfCoordinates);
-        while (matcher.find()) {
-            result.add(parsePosition(matcher.group(0), null));
-        }
+    private static List<BasicPosition> asPositions(double[] coordinates) {
+        List<BasicPosition> result = new ArrayList<BasicPosition>(coordinates.length / 3);
+        for (int i = 0; i + 2 < coordinates.length; i += 3)
+            result.add(new BasicPosition(toDouble(coordinates[i]), toDouble(coordinates[i + 1]), toDouble(coordinates[i + 2]), null));
         return result;
     }
 
+    public static List<BasicPosition> parsePositions(String listOfCoordinates) {
+        return asPositions(parseCoordinates(listOfCoordinates));
+    }
+
     public static List<BasicPosition> parseExtensionPositions(String listOfCoordinates) {
-        List<BasicPosition> result = new ArrayList<BasicPosition>();
-        Matcher matcher = EXTENSION_POSITION_PATTERN.matcher(listOfCoordinates);
-        while (matcher.find()) {
-            String longitude = matcher.group(1);
-            String latitude = matcher.group(2);
-            String elevation = matcher.group(3);
-            result.add(new BasicPosition(parseDouble(longitude), parseDouble(latitude), parseDouble(elevation), null));
-        }
-        return result;
+        return asPositions(parseExtensionCoordinates(listOfCoordinates));
     }
 
     public boolean equals(Object o) {
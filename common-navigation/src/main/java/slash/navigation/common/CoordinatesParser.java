@@ -0,0 +1,244 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.lang.System.arraycopy;
+
+/**
+ * Parses coordinates like the ones of KML without regular expressions
+ * into a primitive buffer of longitude, latitude and elevation triples.
+ * <p/>
+ * Missing values and malformed numbers are represented as {@link Double#NaN}, so
+ * that a single malformed number doesn't prevent reading the other coordinates.
+ *
+ * @author Christian Pesch
+ */
+
+public class CoordinatesParser {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAXIMUM_FAST_DIGITS = 15;
+
+    private double[] buffer = new double[3 * 16];
+    private int count = 0;
+
+    private void add(double longitude, double latitude, double elevation) {
+        if (count + 3 > buffer.length) {
+            double[] grown = new double[buffer.length * 2];
+            arraycopy(buffer, 0, grown, 0, count);
+            buffer = grown;
+        }
+        buffer[count++] = longitude;
+        buffer[count++] = latitude;
+        buffer[count++] = elevation;
+    }
+
+    private double[] toArray() {
+        double[] result = new double[count];
+        arraycopy(buffer, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Parses tuples of <code>longitude,latitude[,elevation]</code> which are separated
+     * by whitespace. Whitespace around the commas is allowed.
+     *
+     * @param coordinates the characters to parse
+     * @return the longitude, latitude and elevation of each tuple
+     */
+    public static double[] parseCoordinates(CharSequence coordinates) {
+        CoordinatesParser parser = new CoordinatesParser();
+        double[] tuple = new double[3];
+        int field = -1;
+        boolean afterComma = false, afterWhitespace = false;
+
+        int length = coordinates.length();
+        int index = 0;
+        while (index < length) {
+            char c = coordinates.charAt(index);
+            if (c == ',') {
+                if (field == -1) {
+                    // a tuple starting with a comma has no longitude
+                    tuple[0] = tuple[1] = tuple[2] = NaN;
+                    field = 0;
+                }
+                if (field == 2) {
+                    parser.add(tuple[0], tuple[1], tuple[2]);
+                    tuple[0] = tuple[1] = tuple[2] = NaN;
+                    field = 0;
+                }
+                field++;
+                afterComma = true;
+                afterWhitespace = false;
+                index++;
+
+            } else if (isNumberCharacter(c)) {
+                int end = endOfNumber(coordinates, index, length);
+                if (field != -1 && !afterComma && afterWhitespace) {
+                    if (field > 0)
+                        parser.add(tuple[0], tuple[1], tuple[2]);
+                    field = -1;
+                }
+                if (field == -1) {
+                    tuple[0] = tuple[1] = tuple[2] = NaN;
+                    field = 0;
+                }
+                tuple[field] = parseDouble(coordinates, index, end);
+                afterComma = false;
+                afterWhitespace = false;
+                index = end;
+
+            } else {
+                afterWhitespace = true;
+                index++;
+            }
+        }
+        if (field > 0)
+            parser.add(tuple[0], tuple[1], tuple[2]);
+        return parser.toArray();
+    }
+
+    /**
+     * Parses triples of <code>longitude latitude elevation</code> which are separated
+     * by whitespace like the ones of <code>gx:coord</code>.
+     *
+     * @param coordinates the characters to parse
+     * @return the longitude, latitude and elevation of each triple
+     */
+    public static double[] parseExtensionCoordinates(CharSequence coordinates) {
+        CoordinatesParser parser = new CoordinatesParser();
+        double[] tuple = new double[3];
+        int field = 0;
+
+        int length = coordinates.length();
+        int index = 0;
+        while (index < length) {
+            char c = coordinates.charAt(index);
+            if (isNumberCharacter(c)) {
+                int end = endOfNumber(coordinates, index, length);
+                tuple[field++] = parseDouble(coordinates, index, end);
+                if (field == 3) {
+                    parser.add(tuple[0], tuple[1], tuple[2]);
+                    field = 0;
+                }
+                index = end;
+            } else
+                index++;
+        }
+        return parser.toArray();
+    }
+
+    public static Double toDouble(double value) {
+        return isNaN(value) ? null : value;
+    }
+
+    private static boolean isNumberCharacter(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'E' || c == 'e';
+    }
+
+    private static int endOfNumber(CharSequence coordinates, int index, int length) {
+        int end = index + 1;
+        while (end < length && isNumberCharacter(coordinates.charAt(end)))
+            end++;
+        return end;
+    }
+
+    static double parseDouble(CharSequence coordinates, int start, int end) {
+        int index = start;
+        boolean negative = false;
+        char c = coordinates.charAt(index);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            index++;
+        }
+
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean hasDot = false, hasDigits = false;
+        while (index < end) {
+            c = coordinates.charAt(index);
+            if (c >= '0' && c <= '9') {
+                hasDigits = true;
+                // leading zeros do not count as significant digits
+                if (mantissa != 0 || c != '0')
+                    digits++;
+                if (digits > MAXIMUM_FAST_DIGITS)
+                    return parseDoubleSlow(coordinates, start, end);
+                mantissa = mantissa * 10 + (c - '0');
+                if (hasDot)
+                    fractionDigits++;
+            } else if (c == '.' && !hasDot)
+                hasDot = true;
+            else
+                break;
+            index++;
+        }
+        if (!hasDigits)
+            return parseDoubleSlow(coordinates, start, end);
+
+        int exponent = -fractionDigits;
+        if (index < end) {
+            c = coordinates.charAt(index);
+            if (c != 'E' && c != 'e')
+                return parseDoubleSlow(coordinates, start, end);
+            index++;
+            boolean negativeExponent = false;
+            if (index < end && (coordinates.charAt(index) == '-' || coordinates.charAt(index) == '+')) {
+                negativeExponent = coordinates.charAt(index) == '-';
+                index++;
+            }
+            if (index == end || end - index > 3)
+                return parseDoubleSlow(coordinates, start, end);
+            int value = 0;
+            while (index < end) {
+                c = coordinates.charAt(index++);
+                if (c < '0' || c > '9')
+                    return parseDoubleSlow(coordinates, start, end);
+                value = value * 10 + (c - '0');
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        // both the mantissa and the power of ten are exact, so there is only one rounding
+        double result;
+        if (exponent == 0)
+            result = mantissa;
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+            result = mantissa / POWERS_OF_TEN[-exponent];
+        else if (exponent > 0 && exponent < POWERS_OF_TEN.length)
+            result = mantissa * POWERS_OF_TEN[exponent];
+        else
+            return parseDoubleSlow(coordinates, start, end);
+        return negative ? -result : result;
+    }
+
+    private static double parseDoubleSlow(CharSequence coordinates, int start, int end) {
+        try {
+            return Double.parseDouble(coordinates.subSequence(start, end).toString());
+        } catch (NumberFormatException e) {
+            return NaN;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.Double.NaN;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.common.CoordinatesParser.parseCoordinates;
+import static slash.navigation.common.CoordinatesParser.parseDouble;
+import static slash.navigation.common.CoordinatesParser.parseExtensionCoordinates;
+
+public class CoordinatesParserTest {
+
+    @Test
+    public void testParseCoordinates() {
+        double[] expected = {1.1, 2.0, 3.0, 4.0, 5.0, 6.6, 7.0, 8.8, 9.0};
+        assertArrayEquals(expected, parseCoordinates("1.1,2,3 4,5,6.6 7,8.8,9"), 0.0);
+        assertArrayEquals(expected, parseCoordinates("\n\t1.1,2,3\n\t4,5,6.6\n\t7,8.8,9\n"), 0.0);
+        assertArrayEquals(expected, parseCoordinates(" 1.1 , 2 , 3  4, 5, 6.6 7 ,8.8 ,9 "), 0.0);
+    }
+
+    @Test
+    public void testParseCoordinatesWithoutElevation() {
+        double[] expected = {1.1, 2.0, NaN, 4.0, 5.0, NaN, 7.0, 8.8, NaN};
+        assertArrayEquals(expected, parseCoordinates("1.1,2 4,5 7,8.8"), 0.0);
+    }
+
+    @Test
+    public void testParseCoordinatesWithMissingValues() {
+        assertArrayEquals(new double[]{NaN, NaN, 0.0}, parseCoordinates(",,0"), 0.0);
+        assertArrayEquals(new double[]{1.0, NaN, 3.0}, parseCoordinates("1,,3"), 0.0);
+        assertArrayEquals(new double[]{2.0, 3.0, NaN}, parseCoordinates("1 2,3"), 0.0);
+        assertEquals(0, parseCoordinates("").length);
+        assertEquals(0, parseCoordinates("1").length);
+    }
+
+    @Test
+    public void testParseScientificCoordinates() {
+        assertArrayEquals(new double[]{0.00001, -0.000002, 0.0000003}, parseCoordinates("0.1E-4,-0.2E-5,0.3E-6"), 0.0);
+        assertArrayEquals(new double[]{0.2, 3000.0, 4.0}, parseCoordinates("+0.2,3e3,4.0e0"), 0.0);
+    }
+
+    @Test
+    public void testParseExtensionCoordinates() {
+        double[] expected = {1.1, 2.2, 3.3, 4.4, 5.5, 6.6};
+        assertArrayEquals(expected, parseExtensionCoordinates("1.1 2.2 3.3 4.4 5.5 6.6 7.7"), 0.0);
+    }
+
+    @Test
+    public void testParseDoubleLikeJava() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            double value = (random.nextDouble() - 0.5) * 360.0;
+            String string = Double.toString(value);
+            assertEquals(string, Double.parseDouble(string), parseDouble(string, 0, string.length()), 0.0);
+            string = String.format("%.7f", value).replace(',', '.');
+            assertEquals(string, Double.parseDouble(string), parseDouble(string, 0, string.length()), 0.0);
+        }
+        String string = "151.23933225281812345";
+        assertEquals(Double.parseDouble(string), parseDouble(string, 0, string.length()), 0.0);
+    }
+
+    @Test
+    public void testParseMalformedNumbers() {
+        assertArrayEquals(new double[]{NaN, 3.0, NaN}, parseCoordinates("1-2,3"), 0.0);
+        assertArrayEquals(new double[]{1.0, NaN, 2.0, 4.0, 5.0, NaN}, parseCoordinates("1,3..5,2 4,5"), 0.0);
+        assertArrayEquals(new double[]{11.6, NaN, NaN, 11.7, 48.2, NaN}, parseCoordinates("11.6,48.1E 11.7,48.2"), 0.0);
+        assertArrayEquals(new double[]{1.0, 2.0, 3.0}, parseCoordinates("0 - 11.6 1,2,3"), 0.0);
+        assertArrayEquals(new double[]{1.1, NaN, 3.3, 4.4, 5.5, 6.6}, parseExtensionCoordinates("1.1 2..2 3.3 4.4 5.5 6.6"), 0.0);
+    }
+}
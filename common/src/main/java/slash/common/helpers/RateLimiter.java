@@ -0,0 +1,87 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.helpers;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A token bucket that limits the rate of requests to a service and may be used by many threads.
+ * <p/>
+ * Permits accumulate while the bucket is idle up to a maximum burst. If the service
+ * signals that it is overloaded, requests can be suspended with {@link #backOff(long)}.
+ *
+ * @author Christian Pesch
+ */
+
+public class RateLimiter {
+    private final long intervalNanos;
+    private final double maximumPermits;
+    private double storedPermits = 0.0;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond, int maximumBurst) {
+        if (permitsPerSecond <= 0.0)
+            throw new IllegalArgumentException("Permits per second " + permitsPerSecond + " must be positive");
+        if (maximumBurst < 1)
+            throw new IllegalArgumentException("Maximum burst " + maximumBurst + " is too small");
+        this.intervalNanos = (long) (1000000000L / permitsPerSecond);
+        this.maximumPermits = maximumBurst;
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        if (now > nextFreeNanos) {
+            storedPermits = min(maximumPermits, storedPermits + (double) (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+        long waitNanos = nextFreeNanos - now;
+        if (storedPermits >= 1.0)
+            storedPermits -= 1.0;
+        else
+            nextFreeNanos += intervalNanos;
+        return waitNanos;
+    }
+
+    /**
+     * Blocks until a permit is available.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0)
+            NANOSECONDS.sleep(waitNanos);
+    }
+
+    /**
+     * Grants no permits for the given time, for example when a service reports that
+     * its quota has been exceeded.
+     *
+     * @param milliseconds the time to wait before the next permit is granted
+     */
+    public synchronized void backOff(long milliseconds) {
+        nextFreeNanos = max(nextFreeNanos, System.nanoTime() + MILLISECONDS.toNanos(milliseconds));
+        storedPermits = 0.0;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.logging.Logger;
+
+import static java.io.File.createTempFile;
+import static slash.common.io.Files.toFile;
+
+/**
+ * A source of bytes which may be opened more than once, e.g. to let several parsers
+ * try the same content without buffering all of it on the heap.
+ *
+ * Files are reopened, small streams are kept in memory and large streams are
+ * spooled to a temporary file which is deleted when the source is disposed.
+ *
+ * @author Christian Pesch
+ */
+
+public abstract class InputStreamSource {
+    private static final Logger log = Logger.getLogger(InputStreamSource.class.getName());
+    private static final int MEMORY_THRESHOLD = 256 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public abstract InputStream open() throws IOException;
+
+    public abstract long getSize();
+
+    public void dispose() {
+    }
+
+    public static InputStreamSource fromFile(File file) {
+        return new FileSource(file);
+    }
+
+    public static InputStreamSource fromBytes(byte[] bytes) {
+        return new ByteArraySource(bytes);
+    }
+
+    public static InputStreamSource fromInputStream(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            memory.write(buffer, 0, count);
+            if (memory.size() > MEMORY_THRESHOLD)
+                return spool(memory, buffer, inputStream);
+        }
+        return fromBytes(memory.toByteArray());
+    }
+
+    public static InputStreamSource fromUrl(URL url) throws IOException {
+        File file = toFile(url);
+        if (file != null)
+            return fromFile(file);
+
+        InputStream inputStream = url.openStream();
+        try {
+            return fromInputStream(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static InputStreamSource spool(ByteArrayOutputStream memory, byte[] buffer, InputStream inputStream) throws IOException {
+        File file = createTempFile("routeconverter", ".spool");
+        file.deleteOnExit();
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            memory.writeTo(outputStream);
+            int count;
+            while ((count = inputStream.read(buffer)) != -1)
+                outputStream.write(buffer, 0, count);
+        } finally {
+            outputStream.close();
+        }
+        log.fine("Spooled stream to " + file + " with " + file.length() + " bytes");
+        return new SpooledFileSource(file);
+    }
+
+    private static class FileSource extends InputStreamSource {
+        protected final File file;
+
+        private FileSource(File file) {
+            this.file = file;
+        }
+
+        public InputStream open() throws IOException {
+            return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        }
+
+        public long getSize() {
+            return file.length();
+        }
+
+        public String toString() {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static class SpooledFileSource extends FileSource {
+        private SpooledFileSource(File file) {
+            super(file);
+        }
+
+        public void dispose() {
+            if (file.exists() && !file.delete())
+                log.warning("Cannot delete spool file " + file);
+        }
+    }
+
+    private static class ByteArraySource extends InputStreamSource {
+        private final byte[] bytes;
+
+        private ByteArraySource(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public InputStream open() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        public long getSize() {
+            return bytes.length;
+        }
+
+        public String toString() {
+            return bytes.length + " bytes";
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.helpers;
+
+import org.junit.Test;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+    private long measureMillis(RateLimiter limiter, int count) throws InterruptedException {
+        long start = nanoTime();
+        for (int i = 0; i < count; i++)
+            limiter.acquire();
+        return NANOSECONDS.toMillis(nanoTime() - start);
+    }
+
+    @Test
+    public void testLimitsRate() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(100.0, 1);
+        long millis = measureMillis(limiter, 21);
+        assertTrue("took " + millis, millis >= 190);
+    }
+
+    @Test
+    public void testAllowsBurstAfterIdle() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20.0, 5);
+        Thread.sleep(300);
+        long millis = measureMillis(limiter, 5);
+        assertTrue("took " + millis, millis < 100);
+    }
+
+    @Test
+    public void testBackOff() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1000.0, 10);
+        Thread.sleep(50);
+        limiter.backOff(200);
+        long millis = measureMillis(limiter, 1);
+        assertTrue("took " + millis, millis >= 190);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new RateLimiter(0.0, 1);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static slash.common.io.InputOutput.readBytes;
+import static slash.common.io.InputStreamSource.fromInputStream;
+
+public class InputStreamSourceTest {
+    private byte[] createBytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) i;
+        return bytes;
+    }
+
+    private void checkReopen(byte[] bytes) throws IOException {
+        InputStreamSource source = fromInputStream(new ByteArrayInputStream(bytes));
+        try {
+            assertEquals(bytes.length, source.getSize());
+            for (int i = 0; i < 3; i++) {
+                InputStream inputStream = source.open();
+                byte[] read = readBytes(inputStream);
+                assertEquals(bytes.length, read.length);
+                for (int j = 0; j < bytes.length; j++)
+                    assertEquals(bytes[j], read[j]);
+            }
+        } finally {
+            source.dispose();
+        }
+    }
+
+    @Test
+    public void testReopenSmallStream() throws IOException {
+        checkReopen(createBytes(1024));
+    }
+
+    @Test
+    public void testReopenEmptyStream() throws IOException {
+        checkReopen(createBytes(0));
+    }
+
+    @Test
+    public void testReopenSpooledStream() throws IOException {
+        checkReopen(createBytes(1024 * 1024 + 17));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.Math.toDegrees;
+import static java.lang.Math.toRadians;
+import static org.junit.Assert.assertEquals;
+import static slash.common.util.DistanceAlgorithm.Adaptive;
+import static slash.common.util.DistanceAlgorithm.Haversine;
+import static slash.common.util.DistanceAlgorithm.Vincenty;
+
+public class DistanceAlgorithmTest {
+    private void assertDistances(double maximumSegment, double delta, double relativeDelta, DistanceAlgorithm algorithm) {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double latitude1 = -85.0 + 170.0 * random.nextDouble();
+            double longitude1 = -180.0 + 360.0 * random.nextDouble();
+            double azimuth = 2 * Math.PI * random.nextDouble();
+            double segment = maximumSegment * random.nextDouble();
+            double latitude2 = latitude1 + toDegrees(segment * cos(azimuth) / 6371000.0);
+            double longitude2 = longitude1 + toDegrees(segment * sin(azimuth) / (6371000.0 * cos(toRadians(latitude1))));
+
+            double expected = Vincenty.calculateDistance(longitude1, latitude1, longitude2, latitude2);
+            double actual = algorithm.calculateDistance(longitude1, latitude1, longitude2, latitude2);
+            assertEquals(expected, actual, delta + expected * relativeDelta);
+        }
+    }
+
+    @Test
+    public void testAdaptiveForShortSegments() {
+        assertDistances(5000.0, 0.005, 0.0, Adaptive);
+    }
+
+    @Test
+    public void testAdaptiveForLongSegments() {
+        assertDistances(500000.0, 0.005, 0.0, Adaptive);
+    }
+
+    @Test
+    public void testHaversine() {
+        assertDistances(500000.0, 0.0, 0.006, Haversine);
+    }
+
+    @Test
+    public void testAcrossDateLine() {
+        assertEquals(Vincenty.calculateDistance(179.99, 10.0, -179.99, 10.0),
+                Adaptive.calculateDistance(179.99, 10.0, -179.99, 10.0), 0.005);
+    }
+
+    @Test
+    public void testSamePosition() {
+        assertEquals(0.0, Adaptive.calculateDistance(10.0, 50.0, 10.0, 50.0), 0.0);
+        assertEquals(0.0, Haversine.calculateDistance(10.0, 50.0, 10.0, 50.0), 0.0);
+    }
+}
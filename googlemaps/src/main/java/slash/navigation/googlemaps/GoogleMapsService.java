@@ -20,6 +20,7 @@
 
 package slash.navigation.googlemaps;
 
+import slash.common.helpers.RateLimiter;
 import slash.navigation.common.BasicPosition;
 import slash.navigation.googlemaps.elevation.ElevationResponse;
 import slash.navigation.googlemaps.geocode.GeocodeResponse;
@@ -28,8 +29,10 @@ import slash.navigation.rest.exception.ServiceUnavailableException;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -50,6 +53,21 @@ public class GoogleMapsService {
     private static final String GOOGLE_MAPS_API_URL_PREFERENCE = "googleMapsApiUrl";
     private static final String OK = "OK";
     private static final String OVER_QUERY_LIMIT = "OVER_QUERY_LIMIT";
+    static final int MAXIMUM_LOCATIONS_PER_REQUEST = 512;
+    static final int MAXIMUM_URL_LENGTH = 2048;
+    private static final String ENCODED_LOCATIONS_PREFIX = "locations=enc:";
+    private static final long OVER_QUERY_LIMIT_BACK_OFF_MILLIS = 1000;
+    private RateLimiter elevationRateLimiter;
+
+    /**
+     * Limits the rate of the batched elevation requests, for example to share
+     * the rate of requests to Google Maps with other operations.
+     *
+     * @param elevationRateLimiter the rate limiter or null for no limit
+     */
+    public void setElevationRateLimiter(RateLimiter elevationRateLimiter) {
+        this.elevationRateLimiter = elevationRateLimiter;
+    }
 
     private static String getGoogleMapsApiUrl(String api, String payload) {
         String language = Locale.getDefault().getLanguage();
@@ -146,7 +164,114 @@ public class GoogleMapsService {
     }
 
     public Double getElevationFor(double longitude, double latitude) throws IOException {
-        String url = getElevationUrl("locations=" + latitude + "," + longitude); // TODO could be up to 512 locations
+        List<Double> elevations = getElevationsFor("locations=" + latitude + "," + longitude);
+        return elevations != null && elevations.size() > 0 ? elevations.get(0) : null;
+    }
+
+    /**
+     * Retrieves the elevations for the given positions with as few requests as
+     * possible: the locations are sent as encoded polylines with up to
+     * {@link #MAXIMUM_LOCATIONS_PER_REQUEST} locations per request and within
+     * {@link #MAXIMUM_URL_LENGTH}.
+     *
+     * @param positions the positions to retrieve the elevations for
+     * @return a list with the elevation for each of the positions or null if
+     *         no elevation is available for the position
+     * @throws IOException if a request fails
+     */
+    public List<Double> getElevationsFor(List<BasicPosition> positions) throws IOException {
+        List<Double> result = new ArrayList<Double>(positions.size());
+        for (List<BasicPosition> batch : partitionForElevation(positions)) {
+            List<Double> elevations = getRateLimitedElevationsFor(ENCODED_LOCATIONS_PREFIX + encodeUri(encodePolyline(batch)));
+            if (elevations != null && elevations.size() == batch.size())
+                result.addAll(elevations);
+            else
+                result.addAll(Collections.<Double>nCopies(batch.size(), null));
+        }
+        return result;
+    }
+
+    static List<List<BasicPosition>> partitionForElevation(List<BasicPosition> positions) {
+        int maximumPayloadLength = MAXIMUM_URL_LENGTH - getElevationUrl(ENCODED_LOCATIONS_PREFIX).length();
+        List<List<BasicPosition>> result = new ArrayList<List<BasicPosition>>();
+        int fromIndex = 0, payloadLength = 0;
+        long previousLatitude = 0, previousLongitude = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            BasicPosition position = positions.get(i);
+            long latitude = toPolylineValue(position.getLatitude());
+            long longitude = toPolylineValue(position.getLongitude());
+            boolean first = i == fromIndex;
+            StringBuilder buffer = new StringBuilder();
+            encodePolylineValue(first ? latitude : latitude - previousLatitude, buffer);
+            encodePolylineValue(first ? longitude : longitude - previousLongitude, buffer);
+            int length = encodeUri(buffer.toString()).length();
+
+            if (!first && (i - fromIndex >= MAXIMUM_LOCATIONS_PER_REQUEST || payloadLength + length > maximumPayloadLength)) {
+                result.add(positions.subList(fromIndex, i));
+                fromIndex = i;
+                // the first location of a polyline is encoded absolute instead of relative
+                buffer.setLength(0);
+                encodePolylineValue(latitude, buffer);
+                encodePolylineValue(longitude, buffer);
+                length = encodeUri(buffer.toString()).length();
+                payloadLength = 0;
+            }
+            payloadLength += length;
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        if (fromIndex < positions.size())
+            result.add(positions.subList(fromIndex, positions.size()));
+        return result;
+    }
+
+    static String encodePolyline(List<BasicPosition> positions) {
+        StringBuilder buffer = new StringBuilder();
+        long previousLatitude = 0, previousLongitude = 0;
+        for (BasicPosition position : positions) {
+            long latitude = toPolylineValue(position.getLatitude());
+            long longitude = toPolylineValue(position.getLongitude());
+            encodePolylineValue(latitude - previousLatitude, buffer);
+            encodePolylineValue(longitude - previousLongitude, buffer);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        return buffer.toString();
+    }
+
+    private static long toPolylineValue(double value) {
+        return Math.round(value * 1e5);
+    }
+
+    private static void encodePolylineValue(long value, StringBuilder buffer) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            buffer.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        buffer.append((char) (shifted + 63));
+    }
+
+    private List<Double> getRateLimitedElevationsFor(String payload) throws IOException {
+        RateLimiter rateLimiter = elevationRateLimiter;
+        if (rateLimiter == null)
+            return getElevationsFor(payload);
+
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while waiting for elevation request");
+        }
+        try {
+            return getElevationsFor(payload);
+        } catch (ServiceUnavailableException e) {
+            rateLimiter.backOff(OVER_QUERY_LIMIT_BACK_OFF_MILLIS);
+            throw e;
+        }
+    }
+
+    private List<Double> getElevationsFor(String payload) throws IOException {
+        String url = getElevationUrl(payload);
         Get get = get(url);
         String result = get.execute();
         if (get.isSuccessful())
@@ -154,10 +279,8 @@ public class GoogleMapsService {
                 ElevationResponse elevationResponse = GoogleMapsUtil.unmarshalElevation(result);
                 if (elevationResponse != null) {
                     String status = elevationResponse.getStatus();
-                    if (status.equals(OK)) {
-                        List<Double> elevations = extractElevations(elevationResponse.getResult());
-                        return elevations != null && elevations.size() > 0 ? elevations.get(0) : null;
-                    }
+                    if (status.equals(OK))
+                        return extractElevations(elevationResponse.getResult());
                     if (status.equals(OVER_QUERY_LIMIT))
                         throw new ServiceUnavailableException("maps.googleapis.com", url);
                 }
@@ -79,4 +79,18 @@ public class GoogleMapsServiceIT {
         assertEquals(-105.0, service.getElevationFor(-68.0, -56.1), 0.5);
         assertEquals(-2893.809082, service.getElevationFor(-68.0, -57.0), 0.5);
     }
+
+    @Test
+    public void getElevationsFor() throws IOException {
+        List<Double> elevations = service.getElevationsFor(Arrays.asList(
+                new BasicPosition(11.2, 59.0, null, null),
+                new BasicPosition(11.2, 60.0, null, null),
+                new BasicPosition(11.2, 61.0, null, null),
+                new BasicPosition(-68.0, -57.0, null, null)));
+        assertEquals(4, elevations.size());
+        assertEquals(39.3, elevations.get(0), 0.5);
+        assertEquals(185.6, elevations.get(1), 0.5);
+        assertEquals(650.1, elevations.get(2), 0.5);
+        assertEquals(-2893.809082, elevations.get(3), 0.5);
+    }
 }
\ No newline at end of file
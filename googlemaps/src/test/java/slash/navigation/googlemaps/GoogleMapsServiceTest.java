@@ -20,8 +20,20 @@
 package slash.navigation.googlemaps;
 
 import org.junit.Test;
+import slash.navigation.common.BasicPosition;
 
 import javax.xml.bind.JAXBException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.navigation.googlemaps.GoogleMapsService.MAXIMUM_LOCATIONS_PER_REQUEST;
+import static slash.navigation.googlemaps.GoogleMapsService.MAXIMUM_URL_LENGTH;
+import static slash.navigation.googlemaps.GoogleMapsService.encodePolyline;
+import static slash.navigation.googlemaps.GoogleMapsService.partitionForElevation;
+import static slash.common.io.Transfer.encodeUri;
 
 public class GoogleMapsServiceTest {
     private final GoogleMapsService service = new GoogleMapsService();
@@ -87,4 +99,44 @@ public class GoogleMapsServiceTest {
         assertEquals("8638 Goldingen, Switzerland", service.extractClosestLocation(kml));
         */
     }
+
+    @Test
+    public void testEncodePolyline() {
+        List<BasicPosition> positions = Arrays.asList(
+                new BasicPosition(-120.2, 38.5, null, null),
+                new BasicPosition(-120.95, 40.7, null, null),
+                new BasicPosition(-126.453, 43.252, null, null));
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", encodePolyline(positions));
+    }
+
+    @Test
+    public void testPartitionForElevationLimitsLocations() {
+        List<BasicPosition> positions = new ArrayList<BasicPosition>();
+        for (int i = 0; i < 2 * MAXIMUM_LOCATIONS_PER_REQUEST + 1; i++)
+            positions.add(new BasicPosition(10.0 + i * 0.00001, 50.0 + i * 0.00001, null, null));
+
+        List<List<BasicPosition>> partitions = partitionForElevation(positions);
+        assertEquals(3, partitions.size());
+        assertEquals(MAXIMUM_LOCATIONS_PER_REQUEST, partitions.get(0).size());
+        assertEquals(MAXIMUM_LOCATIONS_PER_REQUEST, partitions.get(1).size());
+        assertEquals(1, partitions.get(2).size());
+    }
+
+    @Test
+    public void testPartitionForElevationLimitsUrlLength() {
+        List<BasicPosition> positions = new ArrayList<BasicPosition>();
+        for (int i = 0; i < 10000; i++)
+            positions.add(new BasicPosition(-180.0 + i * 0.0357, 80.0 - i * 0.0161 * (i % 2 == 0 ? 1 : -1), null, null));
+
+        List<List<BasicPosition>> partitions = partitionForElevation(positions);
+        assertTrue(partitions.size() > 10000 / MAXIMUM_LOCATIONS_PER_REQUEST);
+        int count = 0;
+        for (List<BasicPosition> partition : partitions) {
+            assertTrue(partition.size() <= MAXIMUM_LOCATIONS_PER_REQUEST);
+            assertEquals(positions.get(count), partition.get(0));
+            assertTrue(encodeUri(encodePolyline(partition)).length() < MAXIMUM_URL_LENGTH);
+            count += partition.size();
+        }
+        assertEquals(positions.size(), count);
+    }
 }
@@ -39,17 +39,25 @@ import java.io.Writer;
 import static slash.navigation.jaxb.JaxbUtils.newContext;
 import static slash.navigation.jaxb.JaxbUtils.newMarshaller;
 import static slash.navigation.jaxb.JaxbUtils.newUnmarshaller;
+import static slash.navigation.jaxb.JaxbUtils.preloadContext;
 
 public class GpxUtil {
-    private static final String GPX_10_NAMESPACE_URI = "http://www.topografix.com/GPX/1/0";
-    private static final String GPX_11_NAMESPACE_URI = "http://www.topografix.com/GPX/1/1";
+    public static final String GPX_10_NAMESPACE_URI = "http://www.topografix.com/GPX/1/0";
+    public static final String GPX_11_NAMESPACE_URI = "http://www.topografix.com/GPX/1/1";
     private static final String GARMIN_EXTENSIONS_3_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/GpxExtensions/v3";
     private static final String GARMIN_WAYPOINT_EXTENSIONS_1_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/WaypointExtension/v1";
     private static final String GARMIN_TRACKPOINT_EXTENSIONS_1_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrackPointExtension/v1";
     private static final String ROUTECATALOG_EXTENSIONS_1_NAMESPACE_URI = "http://www.routeconverter.de/xmlschemas/RouteCatalogExtensions/1.0";
-    private static final String TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI = "http://trekbuddy.net/2009/01/gpx/nmea";
+    public static final String TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI = "http://trekbuddy.net/2009/01/gpx/nmea";
     private static final String XML_SCHEMA_INSTANCE_NAMESPACE_URI = "http://www.w3.org/2001/XMLSchema-instance";
 
+    public static void preloadContexts() {
+        preloadContext(slash.navigation.gpx.binding11.ObjectFactory.class,
+                slash.navigation.gpx.garmin3.ObjectFactory.class,
+                slash.navigation.gpx.routecatalog10.ObjectFactory.class);
+        preloadContext(slash.navigation.gpx.binding10.ObjectFactory.class);
+    }
+
     public static Unmarshaller newUnmarshaller10() {
         return newUnmarshaller(newContext(slash.navigation.gpx.binding10.ObjectFactory.class));
     }
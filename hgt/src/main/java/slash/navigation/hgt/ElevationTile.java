@@ -20,20 +20,119 @@
 
 package slash.navigation.hgt;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.lang.Math.min;
+import static java.lang.Math.round;
+import static java.lang.Math.sqrt;
 
 /**
  * A tile with elevation data.
+ * <p/>
+ * The resolution is derived from the number of samples: 1201 x 1201 samples for
+ * 3 arc seconds (SRTM3) and 3601 x 3601 samples for 1 arc second (SRTM1).
+ * Optionally, a pyramid of overviews is kept that halves the resolution per level.
  *
  * @author Robert "robekas", Christian Pesch
  */
 
 public class ElevationTile {
-    private RandomAccessFile elevationFile;
+    private final short[] elevations;
+    private final int intervals;
+    private ElevationTile[] overviews = new ElevationTile[0];
+
+    public ElevationTile(short[] elevations) {
+        this.elevations = elevations;
+        this.intervals = getIntervals(elevations.length);
+        if (intervals < 1)
+            throw new IllegalArgumentException("Invalid number " + elevations.length + " of elevation samples");
+    }
+
+    public ElevationTile(File file) throws IOException {
+        this(read(file));
+    }
+
+    private static int getIntervals(long sampleCount) {
+        int samples = (int) round(sqrt(sampleCount));
+        return (long) samples * samples == sampleCount ? samples - 1 : -1;
+    }
+
+    /**
+     * Returns the number of intervals per line and column, i.e. 1200 for SRTM3 and 3600 for SRTM1.
+     *
+     * @return the number of intervals per line and column
+     */
+    public int getIntervals() {
+        return intervals;
+    }
+
+    public long getByteCount() {
+        long byteCount = elevations.length * 2L;
+        for (ElevationTile overview : overviews)
+            byteCount += overview.getByteCount();
+        return byteCount;
+    }
+
+    public int getOverviewCount() {
+        return overviews.length;
+    }
 
-    public ElevationTile(RandomAccessFile elevationFile) {
-        this.elevationFile = elevationFile;
+    /**
+     * Precomputes overviews which halve the resolution from level to level
+     * as long as the number of intervals is even.
+     *
+     * @param maximumLevel the maximum number of overviews to compute
+     */
+    public void createOverviews(int maximumLevel) {
+        int levels = 0;
+        for (int level = intervals; level % 2 == 0 && levels < maximumLevel; level /= 2)
+            levels++;
+
+        ElevationTile[] result = new ElevationTile[levels];
+        ElevationTile previous = this;
+        for (int i = 0; i < levels; i++) {
+            previous = previous.createOverview();
+            result[i] = previous;
+        }
+        overviews = result;
+    }
+
+    private ElevationTile createOverview() {
+        int samples = intervals + 1;
+        int overviewSamples = intervals / 2 + 1;
+        short[] overview = new short[overviewSamples * overviewSamples];
+        // keep every second sample so that the grid stays aligned to the tile borders
+        for (int row = 0; row < overviewSamples; row++)
+            for (int column = 0; column < overviewSamples; column++)
+                overview[row * overviewSamples + column] = elevations[row * 2 * samples + column * 2];
+        return new ElevationTile(overview);
+    }
+
+    private static short[] read(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            // decode the whole tile at once instead of seeking four times per lookup
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            if (size % 2 != 0 || size > Integer.MAX_VALUE || getIntervals(size / 2) < 1)
+                throw new IOException("Invalid size " + size + " of HGT file " + file);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1)
+                    throw new IOException("Unexpected end of HGT file " + file);
+            }
+            buffer.flip();
+            // HGT files contain big endian 16-bit values which is the default byte order of the buffer
+            short[] elevations = new short[(int) (size / 2)];
+            buffer.asShortBuffer().get(elevations);
+            return elevations;
+        } finally {
+            randomAccessFile.close();
+        }
     }
 
     /**
@@ -41,7 +140,7 @@ public class ElevationTile {
      * theorem on intersecting lines (Strahlensatz).
      *
      * @param dHeight12 the delta height/elevation of two sub tile positions
-     * @param dLength12 the length of an sub tile interval (1 / 1200)
+     * @param dLength12 the length of an sub tile interval (1 / intervals)
      * @param dDiff     the distance of the real point from the sub tile position
      * @return the delta elevation (relative to sub tile position)
      */
@@ -49,16 +148,13 @@ public class ElevationTile {
         return (dHeight12 * dDiff) / dLength12;
     }
 
-    public Double getElevationFor(Double longitude, Double latitude) throws IOException {
-        if (elevationFile == null)
-            return null;
-
+    public Double getElevationFor(double longitude, double latitude) {
         double dElevation;
         double dLon = longitude;
         double dLat = latitude;
         int nLon = (int) dLon;                    // Cut off the decimal places
         int nLat = (int) dLat;                    // Cut off the decimal places
-        int nAS = 1200;                           // 1200 Intervals (means 1201 positions per line and column)
+        int nAS = intervals;                      // e.g. 1200 Intervals (means 1201 positions per line and column)
 
         if (dLon < 0) {                                        // If it's west longitude (negative value)
             nLon = (nLon - 1) * -1;                            // Make a positive number (left edge)
@@ -91,20 +187,16 @@ public class ElevationTile {
         int pos;                                                    // The index of the elevation into the hgt file
 
         pos = (((nAS - nLatIndex) - 1) * (nAS + 1)) + nLonIndex;    // The index for the left top elevation
-        elevationFile.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dLeftTop = elevationFile.readShort();                       // Now read the left top elevation from hgt file
+        dLeftTop = elevations[pos];                                 // Now read the left top elevation from the tile
 
         pos = ((nAS - nLatIndex) * (nAS + 1)) + nLonIndex;          // The index for the left bottom elevation
-        elevationFile.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dLeftBottom = elevationFile.readShort();                    // Now read the left bottom elevation from hgt file
+        dLeftBottom = elevations[pos];                              // Now read the left bottom elevation from the tile
 
         pos = (((nAS - nLatIndex) - 1) * (nAS + 1)) + nLonIndex + 1;// The index for the right top elevation
-        elevationFile.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dRightTop = elevationFile.readShort();                      // Now read the right top elevation from hgt file
+        dRightTop = elevations[pos];                                // Now read the right top elevation from the tile
 
         pos = ((nAS - nLatIndex) * (nAS + 1)) + nLonIndex + 1;      // The index for the right bottom elevation
-        elevationFile.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dRightBottom = elevationFile.readShort();                   // Now read the right bottom top elevation from hgt file
+        dRightBottom = elevations[pos];                             // Now read the right bottom top elevation from the tile
 
         if ((dLeftTop < 0) ||                                       // If one of the elevation values
                 (dLeftBottom < 0) ||                                // we read from
@@ -130,4 +222,19 @@ public class ElevationTile {
 
         return dElevation + 0.5;   // Do a rounding of the calculated elevation
     }
+
+    /**
+     * Calculate the elevation from the overview with the given level,
+     * where level 0 is the full resolution of the tile.
+     *
+     * @param longitude the longitude of the position
+     * @param latitude  the latitude of the position
+     * @param level     the level of the overview, levels beyond the computed ones use the coarsest overview
+     * @return the elevation or null if it cannot be interpolated
+     */
+    public Double getElevationFor(double longitude, double latitude, int level) {
+        int available = min(level, overviews.length);
+        ElevationTile tile = available > 0 ? overviews[available - 1] : this;
+        return tile.getElevationFor(longitude, latitude);
+    }
 }
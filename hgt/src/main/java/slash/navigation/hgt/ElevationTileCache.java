@@ -0,0 +1,189 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.hgt;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A bounded cache of {@link ElevationTile}s that may be used by many threads.
+ * <p/>
+ * Lookups of cached tiles do not lock. A tile is loaded only once even if it is requested
+ * concurrently. If more tiles or bytes than allowed are cached, the least recently used
+ * tiles are evicted.
+ *
+ * @author Christian Pesch
+ */
+
+public class ElevationTileCache {
+    private static final Logger log = Logger.getLogger(ElevationTileCache.class.getName());
+
+    private final ConcurrentMap<Integer, Entry> entries = new ConcurrentHashMap<Integer, Entry>();
+    private final int maximumTileCount;
+    private final long maximumByteCount;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public ElevationTileCache(int maximumTileCount, long maximumByteCount) {
+        if (maximumTileCount < 1)
+            throw new IllegalArgumentException("Maximum tile count " + maximumTileCount + " is too small");
+        this.maximumTileCount = maximumTileCount;
+        this.maximumByteCount = maximumByteCount;
+    }
+
+    /**
+     * Returns the tile for the given key and loads it with the given loader if it is not cached.
+     * Tiles for which the loader returns <code>null</code> are not cached.
+     *
+     * @param key    the key of the tile
+     * @param loader loads the tile if it is not cached
+     * @return the tile for the given key or <code>null</code> if the loader found no tile
+     * @throws IOException if the tile cannot be loaded
+     */
+    public ElevationTile get(Integer key, Callable<ElevationTile> loader) throws IOException {
+        Entry entry = entries.get(key);
+        boolean loaded = false;
+        if (entry == null) {
+            Entry created = new Entry(new FutureTask<ElevationTile>(loader));
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+                loaded = true;
+                missCount.incrementAndGet();
+                created.task.run();
+            }
+        }
+        if (!loaded)
+            hitCount.incrementAndGet();
+        entry.lastAccess = clock.incrementAndGet();
+
+        ElevationTile tile;
+        try {
+            tile = entry.task.get();
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while loading tile " + key);
+        } catch (ExecutionException e) {
+            entries.remove(key, entry);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw new IOException("Cannot load tile " + key + ": " + cause, cause);
+        }
+
+        if (tile == null) {
+            entries.remove(key, entry);
+        } else if (loaded) {
+            byteCount.addAndGet(tile.getByteCount());
+            evict(key);
+        }
+        return tile;
+    }
+
+    private synchronized void evict(Integer keep) {
+        while (entries.size() > maximumTileCount || byteCount.get() > maximumByteCount) {
+            Integer eldestKey = null;
+            Entry eldest = null;
+            for (Map.Entry<Integer, Entry> entry : entries.entrySet()) {
+                Entry candidate = entry.getValue();
+                // only tiles which are completely loaded may be evicted
+                if (entry.getKey().equals(keep) || !candidate.task.isDone())
+                    continue;
+                if (eldest == null || candidate.lastAccess < eldest.lastAccess) {
+                    eldestKey = entry.getKey();
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null)
+                break;
+
+            if (entries.remove(eldestKey, eldest)) {
+                ElevationTile tile = eldest.getTile();
+                if (tile != null)
+                    byteCount.addAndGet(-tile.getByteCount());
+                evictionCount.incrementAndGet();
+                log.fine("Evicted elevation tile " + eldestKey);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        for (Map.Entry<Integer, Entry> entry : entries.entrySet()) {
+            Entry candidate = entry.getValue();
+            if (candidate.task.isDone() && entries.remove(entry.getKey(), candidate)) {
+                ElevationTile tile = candidate.getTile();
+                if (tile != null)
+                    byteCount.addAndGet(-tile.getByteCount());
+            }
+        }
+    }
+
+    public int getTileCount() {
+        return entries.size();
+    }
+
+    public long getByteCount() {
+        return byteCount.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[tiles=" + getTileCount() + ", bytes=" + getByteCount() +
+                ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private static class Entry {
+        private final FutureTask<ElevationTile> task;
+        private volatile long lastAccess;
+
+        private Entry(FutureTask<ElevationTile> task) {
+            this.task = task;
+        }
+
+        private ElevationTile getTile() {
+            try {
+                return task.get();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
@@ -48,9 +48,9 @@ public class HgtFileDownloader {
     private static Logger log = Logger.getLogger(HgtFileDownloader.class.getName());
     private static final Preferences preferences = Preferences.userNodeForPackage(HgtFiles.class);
     private static final String HGT_FILES_URL_PREFERENCE = "hgtFilesUrl";
+    private static final String HGT_FILES_DIRECTORIES_PREFERENCE = "hgtFilesDirectories";
     private static final String HGT_FILES_URL_FAILURES = "hgtFilesUrl.failures";
-    private static final List<String> CONTINENTS = Arrays.
-            asList("Eurasia", "North_America", "Australia", "South_America", "Africa", "Islands");
+    private static final String CONTINENTS = "Eurasia,North_America,Australia,South_America,Africa,Islands";
 
     private HgtFileCache fileCache;
     private Set<String> downloadFailures = new HashSet<String>();
@@ -64,6 +64,11 @@ public class HgtFileDownloader {
         return preferences.get(HGT_FILES_URL_PREFERENCE, "http://dds.cr.usgs.gov/srtm/version2_1/SRTM3/");
     }
 
+    private static List<String> getHgtFilesDirectories() {
+        // SRTM1 mirrors organize their files in regions instead of continents
+        return Arrays.asList(preferences.get(HGT_FILES_DIRECTORIES_PREFERENCE, CONTINENTS).split(","));
+    }
+
     @SuppressWarnings({"unchecked"})
     private synchronized void initialize() {
         try {
@@ -129,8 +134,8 @@ public class HgtFileDownloader {
     public File download(String key) {
         File file = null;
 
-        for (String continent : CONTINENTS) {
-            String url = String.format("%s%s/%s.zip", getHgtFilesUrl(), continent, key);
+        for (String directory : getHgtFilesDirectories()) {
+            String url = String.format("%s%s/%s.zip", getHgtFilesUrl(), directory.trim(), key);
             if (!hasDownloadAlreadyFailed(url)) {
                 try {
                     InputStream inputStream = downloadFromUrl(url);
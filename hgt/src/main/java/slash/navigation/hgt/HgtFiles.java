@@ -22,11 +22,11 @@ package slash.navigation.hgt;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.prefs.Preferences;
 
 import static java.lang.String.format;
+import static java.util.Arrays.sort;
 
 /**
  * Encapsulates access to HGT files.
@@ -35,13 +35,27 @@ import static java.lang.String.format;
  */
 
 public class HgtFiles {
-    private Map<Integer, ElevationTile> tileCache = new HashMap<Integer, ElevationTile>();
-    private HgtFileCache fileCache = new HgtFileCache();
-    private Map<String, RandomAccessFile> randomAccessFileCache = new HashMap<String, RandomAccessFile>();
-    private HgtFileDownloader downloader;
+    private static final Preferences preferences = Preferences.userNodeForPackage(HgtFiles.class);
+    private static final String MAXIMUM_CACHED_TILES_PREFERENCE = "maximumCachedTiles";
+    private static final String MAXIMUM_CACHED_BYTES_PREFERENCE = "maximumCachedTileBytes";
+    private static final String ELEVATION_TILE_OVERVIEWS_PREFERENCE = "elevationTileOverviews";
+
+    private final ElevationTileCache tileCache;
+    private final HgtFileCache fileCache = new HgtFileCache();
+    private final HgtFileDownloader downloader;
 
     public HgtFiles() {
-        downloader = new HgtFileDownloader(fileCache);
+        this(new ElevationTileCache(preferences.getInt(MAXIMUM_CACHED_TILES_PREFERENCE, 32),
+                preferences.getLong(MAXIMUM_CACHED_BYTES_PREFERENCE, 128 * 1024 * 1024)));
+    }
+
+    public HgtFiles(ElevationTileCache tileCache) {
+        this.tileCache = tileCache;
+        this.downloader = new HgtFileDownloader(fileCache);
+    }
+
+    public ElevationTileCache getTileCache() {
+        return tileCache;
     }
 
     Integer createTileKey(double longitude, double latitude) {
@@ -59,15 +73,10 @@ public class HgtFiles {
                 (longitude < 0) ? ((longitudeAsInteger - 1) * -1) : longitudeAsInteger);
     }
 
-    public Double getElevationFor(double longitude, double latitude) throws IOException {
-        Integer tileKey = createTileKey(longitude, latitude);
-        ElevationTile tile = tileCache.get(tileKey);
-        if (tile == null) {
-
-            String fileKey = createFileKey(longitude, latitude);
-            RandomAccessFile randomAccessFile = randomAccessFileCache.get(fileKey);
-            if (randomAccessFile == null) {
-
+    private ElevationTile getTile(Integer tileKey, double longitude, double latitude) throws IOException {
+        final String fileKey = createFileKey(longitude, latitude);
+        return tileCache.get(tileKey, new Callable<ElevationTile>() {
+            public ElevationTile call() throws IOException {
                 File file = fileCache.get(fileKey);
                 if (file == null) {
                     file = downloader.download(fileKey);
@@ -75,25 +84,52 @@ public class HgtFiles {
                         return null;
                     fileCache.put(fileKey, file);
                 }
-
-                randomAccessFile = new RandomAccessFile(file, "r");
-                randomAccessFileCache.put(fileKey, randomAccessFile);
+                ElevationTile tile = new ElevationTile(file);
+                int overviews = preferences.getInt(ELEVATION_TILE_OVERVIEWS_PREFERENCE, 0);
+                if (overviews > 0)
+                    tile.createOverviews(overviews);
+                return tile;
             }
+        });
+    }
+
+    public Double getElevationFor(double longitude, double latitude) throws IOException {
+        ElevationTile tile = getTile(createTileKey(longitude, latitude), longitude, latitude);
+        return tile != null ? tile.getElevationFor(longitude, latitude) : null;
+    }
 
-            tile = new ElevationTile(randomAccessFile);
-            tileCache.put(tileKey, tile);
+    public Double getElevationFor(double longitude, double latitude, int level) throws IOException {
+        ElevationTile tile = getTile(createTileKey(longitude, latitude), longitude, latitude);
+        return tile != null ? tile.getElevationFor(longitude, latitude, level) : null;
+    }
+
+    public Double[] getElevationsFor(double[] longitudes, double[] latitudes) throws IOException {
+        if (longitudes.length != latitudes.length)
+            throw new IllegalArgumentException("Got " + longitudes.length + " longitudes but " + latitudes.length + " latitudes");
+
+        // sort the queries by tile key and index so that every tile is looked up once
+        long[] queries = new long[longitudes.length];
+        for (int i = 0; i < queries.length; i++)
+            queries[i] = ((long) createTileKey(longitudes[i], latitudes[i]) << 32) | i;
+        sort(queries);
+
+        Double[] elevations = new Double[longitudes.length];
+        ElevationTile tile = null;
+        long previousTileKey = -1;
+        for (long query : queries) {
+            int tileKey = (int) (query >>> 32);
+            int index = (int) query;
+            if (tileKey != previousTileKey) {
+                tile = getTile(tileKey, longitudes[index], latitudes[index]);
+                previousTileKey = tileKey;
+            }
+            if (tile != null)
+                elevations[index] = tile.getElevationFor(longitudes[index], latitudes[index]);
         }
-        return tile.getElevationFor(longitude, latitude);
+        return elevations;
     }
 
     public void dispose() {
-        for (RandomAccessFile randomAccessFile : randomAccessFileCache.values())
-            try {
-                randomAccessFile.close();
-            } catch (IOException e) {
-                throw new IllegalArgumentException("Cannot close random access file" + randomAccessFile);
-            }
-        randomAccessFileCache.clear();
         tileCache.clear();
     }
 }
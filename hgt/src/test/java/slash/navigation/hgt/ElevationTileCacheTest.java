@@ -0,0 +1,126 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.hgt;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ElevationTileCacheTest {
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private Callable<ElevationTile> loader(final int samples) {
+        return new Callable<ElevationTile>() {
+            public ElevationTile call() {
+                loadCount.incrementAndGet();
+                return samples > 0 ? new ElevationTile(new short[samples * samples]) : null;
+            }
+        };
+    }
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        ElevationTileCache cache = new ElevationTileCache(10, 1000);
+        ElevationTile tile = cache.get(1, loader(3));
+        assertSame(tile, cache.get(1, loader(3)));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(18, cache.getByteCount());
+    }
+
+    @Test
+    public void testMissingTilesAreNotCached() throws IOException {
+        ElevationTileCache cache = new ElevationTileCache(10, 1000);
+        assertNull(cache.get(1, loader(0)));
+        assertNull(cache.get(1, loader(0)));
+        assertEquals(2, loadCount.get());
+        assertEquals(0, cache.getTileCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByCount() throws IOException {
+        ElevationTileCache cache = new ElevationTileCache(2, 1000);
+        ElevationTile first = cache.get(1, loader(3));
+        cache.get(2, loader(3));
+        assertSame(first, cache.get(1, loader(3)));
+        cache.get(3, loader(3));
+        assertEquals(2, cache.getTileCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(first, cache.get(1, loader(3)));
+        assertEquals(3, loadCount.get());
+        cache.get(2, loader(3));
+        assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void testEvictsByBytes() throws IOException {
+        ElevationTileCache cache = new ElevationTileCache(10, 50);
+        cache.get(1, loader(3));
+        cache.get(2, loader(3));
+        cache.get(3, loader(3));
+        assertEquals(2, cache.getTileCount());
+        assertEquals(36, cache.getByteCount());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.clear();
+        assertEquals(0, cache.getTileCount());
+        assertEquals(0, cache.getByteCount());
+    }
+
+    @Test
+    public void testLoadsOnceForConcurrentRequests() throws Exception {
+        final ElevationTileCache cache = new ElevationTileCache(10, 1000);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = newFixedThreadPool(8);
+        try {
+            List<Future<ElevationTile>> futures = new ArrayList<Future<ElevationTile>>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(new Callable<ElevationTile>() {
+                    public ElevationTile call() throws Exception {
+                        start.await();
+                        return cache.get(1, loader(3));
+                    }
+                }));
+            }
+            start.countDown();
+            ElevationTile tile = futures.get(0).get();
+            for (Future<ElevationTile> future : futures)
+                assertSame(tile, future.get());
+            assertEquals(1, loadCount.get());
+            assertEquals(31, cache.getHitCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.hgt;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ElevationTileTest {
+    private static final int SAMPLES = 1201;
+    private static final int SRTM1_SAMPLES = 3601;
+
+    private short[] createElevations(int samples) {
+        short[] elevations = new short[samples * samples];
+        for (int row = 0; row < samples; row++)
+            for (int column = 0; column < samples; column++)
+                // rows run from north to south, columns from west to east
+                elevations[row * samples + column] = (short) (column + (samples - 1 - row));
+        return elevations;
+    }
+
+    private short[] createElevations() {
+        return createElevations(SAMPLES);
+    }
+
+    @Test
+    public void testElevationFor() {
+        ElevationTile tile = new ElevationTile(createElevations());
+        assertEquals(0, tile.getElevationFor(11.0, 59.0).intValue());
+        assertEquals(600, tile.getElevationFor(11.5, 59.0).intValue());
+        assertEquals(1200, tile.getElevationFor(11.5, 59.5).intValue());
+    }
+
+    @Test
+    public void testSrtm1ElevationFor() {
+        ElevationTile tile = new ElevationTile(createElevations(SRTM1_SAMPLES));
+        assertEquals(3600, tile.getIntervals());
+        assertEquals(0, tile.getElevationFor(11.0, 59.0).intValue());
+        assertEquals(1800, tile.getElevationFor(11.5, 59.0).intValue());
+        assertEquals(3600, tile.getElevationFor(11.5, 59.5).intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSampleCount() {
+        new ElevationTile(new short[SAMPLES * SAMPLES - 1]);
+    }
+
+    @Test
+    public void testOverviews() {
+        ElevationTile tile = new ElevationTile(createElevations());
+        assertEquals(0, tile.getOverviewCount());
+        long byteCount = tile.getByteCount();
+
+        tile.createOverviews(Integer.MAX_VALUE);
+        // 1200 -> 600 -> 300 -> 150 -> 75 intervals
+        assertEquals(4, tile.getOverviewCount());
+        assertEquals(byteCount + (601 * 601 + 301 * 301 + 151 * 151 + 76 * 76) * 2, tile.getByteCount());
+
+        // the synthetic tile is a plane which every level reproduces
+        for (int level = 0; level <= 4; level++) {
+            assertEquals(0, tile.getElevationFor(11.0, 59.0, level).intValue());
+            assertEquals(1200, tile.getElevationFor(11.5, 59.5, level).intValue());
+        }
+        assertEquals(tile.getElevationFor(11.3, 59.7, 4), tile.getElevationFor(11.3, 59.7, 10));
+    }
+
+    @Test
+    public void testOverviewSkipsOddSamples() {
+        short[] elevations = createElevations();
+        // a spike at the sample in the second row from the bottom and the second column
+        elevations[(SAMPLES - 2) * SAMPLES + 1] = 10000;
+        ElevationTile tile = new ElevationTile(elevations);
+        tile.createOverviews(1);
+
+        double longitude = 11.0 + 1.0 / 1200;
+        double latitude = 59.0 + 1.0 / 1200;
+        assertEquals(true, tile.getElevationFor(longitude, latitude, 0) > 5000);
+        assertEquals(2, tile.getElevationFor(longitude, latitude, 1).intValue());
+    }
+
+    @Test
+    public void testLimitedOverviews() {
+        ElevationTile tile = new ElevationTile(createElevations());
+        tile.createOverviews(2);
+        assertEquals(2, tile.getOverviewCount());
+    }
+
+    @Test
+    public void testInvalidElevation() {
+        short[] elevations = createElevations();
+        elevations[(SAMPLES - 1) * SAMPLES] = -32768;
+        ElevationTile tile = new ElevationTile(elevations);
+        assertNull(tile.getElevationFor(11.0, 59.0));
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        short[] elevations = createElevations();
+        ByteBuffer buffer = ByteBuffer.allocate(elevations.length * 2);
+        buffer.asShortBuffer().put(elevations);
+        File file = createTempFile("elevation", ".hgt");
+        try {
+            FileOutputStream outputStream = new FileOutputStream(file);
+            try {
+                outputStream.write(buffer.array());
+            } finally {
+                outputStream.close();
+            }
+
+            ElevationTile tile = new ElevationTile(file);
+            assertEquals(1200, tile.getElevationFor(11.5, 59.5).intValue());
+        } finally {
+            assertEquals(true, file.delete());
+        }
+    }
+}
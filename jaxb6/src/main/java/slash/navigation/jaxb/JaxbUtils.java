@@ -24,18 +24,34 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static javax.xml.bind.Marshaller.JAXB_ENCODING;
 import static javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT;
+import static javax.xml.bind.Marshaller.JAXB_FRAGMENT;
 
 /**
  * Provides JAXB helpers.
+ * <p/>
+ * Contexts are created once per set of classes and shared between threads. Since
+ * marshallers are not thread-safe, they are reused per thread. Unmarshallers are
+ * created for every call since they keep a reference to the last unmarshalled
+ * document which would otherwise stay in memory for the life of the thread.
  *
  * @author Christian Pesch
  */
@@ -46,38 +62,98 @@ public class JaxbUtils {
     private static final String JAXB_IMPL_NAMESPACE_PREFIX_MAPPER = "com.sun.xml.internal.bind.namespacePrefixMapper".intern();
     public static final String JAXB_IMPL_HEADER = "com.sun.xml.internal.bind.xmlHeaders".intern();
 
-    private static Map<List<Class<?>>, JAXBContext> classesToContext = new HashMap<List<Class<?>>, JAXBContext>();
-    private static boolean cacheContexts = false;
+    private static final ConcurrentMap<List<Class<?>>, FutureTask<JAXBContext>> classesToContext =
+            new ConcurrentHashMap<List<Class<?>>, FutureTask<JAXBContext>>();
+    private static final ThreadLocal<Map<List<Object>, Marshaller>> marshallers = new ThreadLocal<Map<List<Object>, Marshaller>>() {
+        protected Map<List<Object>, Marshaller> initialValue() {
+            return new HashMap<List<Object>, Marshaller>();
+        }
+    };
+    private static final ExecutorService preloader = newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "JAXBContextPreloader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
 
+    /**
+     * @deprecated contexts are always cached
+     */
+    @Deprecated
     public static void setCacheContexts(boolean cacheContexts) {
-        JaxbUtils.cacheContexts = cacheContexts;
     }
 
-    public static JAXBContext newContext(Class<?>... classes) {
+    public static JAXBContext newContext(final Class<?>... classes) {
         List<Class<?>> key = Arrays.asList(classes);
-        JAXBContext context = classesToContext.get(key);
-        if (context == null) {
-            try {
-                context = JAXBContext.newInstance(classes);
-                if (cacheContexts)
-                    classesToContext.put(key, context);
-            } catch (JAXBException e) {
-                throw new RuntimeException(e);
+        FutureTask<JAXBContext> future = classesToContext.get(key);
+        if (future == null) {
+            FutureTask<JAXBContext> created = new FutureTask<JAXBContext>(new Callable<JAXBContext>() {
+                public JAXBContext call() throws JAXBException {
+                    return JAXBContext.newInstance(classes);
+                }
+            });
+            // creating a context takes long, so concurrent requests wait for the first one
+            future = classesToContext.putIfAbsent(key, created);
+            if (future == null) {
+                future = created;
+                created.run();
             }
         }
-        return context;
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            classesToContext.remove(key, future);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Creates the context for the given classes in the background so that
+     * the first reading or writing doesn't have to wait for it.
+     *
+     * @param classes the classes to create a context for
+     */
+    public static void preloadContext(final Class<?>... classes) {
+        preloader.execute(new Runnable() {
+            public void run() {
+                try {
+                    newContext(classes);
+                } catch (RuntimeException e) {
+                    log.warning("Could not preload context for " + Arrays.toString(classes) + ": " + e.getMessage());
+                }
+            }
+        });
     }
 
     public static Marshaller newMarshaller(JAXBContext context, String... uriToPrefix) {
+        List<Object> key = new ArrayList<Object>(uriToPrefix.length + 1);
+        key.add(context);
+        key.addAll(Arrays.asList(uriToPrefix));
+        Map<List<Object>, Marshaller> threadMarshallers = marshallers.get();
+        Marshaller result = threadMarshallers.get(key);
+
         try {
-            Marshaller result = context.createMarshaller();
-            result.setProperty(JAXB_FORMATTED_OUTPUT, preferences.getBoolean("prettyPrintXml", true));
-            try {
-                result.setProperty(JAXB_IMPL_NAMESPACE_PREFIX_MAPPER, new NamespacePrefixMapperImpl(map(uriToPrefix)));
-            } catch (Throwable t) {
-                t.printStackTrace();
-                log.severe("Could not set namespace prefix mapper: " + t.getMessage());
+            if (result == null) {
+                result = context.createMarshaller();
+                try {
+                    result.setProperty(JAXB_IMPL_NAMESPACE_PREFIX_MAPPER, new NamespacePrefixMapperImpl(map(uriToPrefix)));
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                    log.severe("Could not set namespace prefix mapper: " + t.getMessage());
+                }
+                threadMarshallers.put(key, result);
+            } else {
+                // reset the standard properties callers may have modified
+                result.setProperty(JAXB_ENCODING, "UTF-8");
+                result.setProperty(JAXB_FRAGMENT, false);
             }
+            result.setProperty(JAXB_FORMATTED_OUTPUT, preferences.getBoolean("prettyPrintXml", true));
             return result;
         } catch (JAXBException e) {
             throw new RuntimeException(e);
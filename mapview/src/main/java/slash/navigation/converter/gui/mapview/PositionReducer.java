@@ -37,7 +37,6 @@ import static java.lang.System.currentTimeMillis;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.base.Positions.contains;
-import static slash.navigation.base.Positions.getSignificantPositions;
 import static slash.navigation.base.Positions.northEast;
 import static slash.navigation.base.Positions.southWest;
 
@@ -74,6 +73,7 @@ class PositionReducer {
     private static final int MAXIMUM_ZOOM_FOR_SIGNIFICANCE_CALCULATION = THRESHOLD_PER_ZOOM.length;
 
     private final Callback callback;
+    private final SignificanceHierarchy significanceHierarchy = new SignificanceHierarchy();
     private final Map<Integer, List<NavigationPosition>> reducedPositions = new HashMap<Integer, List<NavigationPosition>>(THRESHOLD_PER_ZOOM.length);
     private NavigationPosition visibleNorthEast, visibleSouthWest;
 
@@ -168,6 +168,10 @@ class PositionReducer {
         List<NavigationPosition> result = filterPositionsWithoutCoordinates(positions);
         int maximumPositionCount = getMaximumPositionCount(characteristics);
 
+        // determine significant result for routes and tracks for this zoom level
+        if (!characteristics.equals(Waypoints))
+            result = filterSignificantPositions(result, zoom);
+
         // reduce the number of result to those that are visible for tracks and waypoint lists
         if (result.size() > maximumPositionCount && !characteristics.equals(Route)) {
             double visiblePositionAreaFactor = preferences.getDouble("visiblePositionAreaFactor", 3.0);
@@ -180,15 +184,6 @@ class PositionReducer {
             visibleSouthWest = null;
         }
 
-        // reduce the number of result by selecting every Nth to limit significance computation time
-        int maximumSignificantPositionCount = preferences.getInt("maximumSignificantPositionCount", 50000);
-        if (result.size() > maximumSignificantPositionCount)
-            result = filterEveryNthPosition(result, maximumSignificantPositionCount);
-
-        // determine significant result for routes and tracks for this zoom level
-        if (!characteristics.equals(Waypoints))
-            result = filterSignificantPositions(result, zoom);
-
         // reduce the number of result to ensure browser stability
         if (result.size() > maximumPositionCount)
             result = filterEveryNthPosition(result, maximumPositionCount);
@@ -218,15 +213,13 @@ class PositionReducer {
         List<NavigationPosition> result = new ArrayList<NavigationPosition>();
         if (zoom < MAXIMUM_ZOOM_FOR_SIGNIFICANCE_CALCULATION) {
             double threshold = THRESHOLD_PER_ZOOM[zoom];
-            int[] significantPositions = getSignificantPositions(positions, threshold);
-            for (int significantPosition : significantPositions) {
-                result.add(positions.get(significantPosition));
-            }
+            significanceHierarchy.update(positions);
+            result.addAll(significanceHierarchy.getSignificantPositions(threshold));
             log.info(format("zoom %d smaller than %d: for threshold %f use %d significant positions",
-                    zoom, MAXIMUM_ZOOM_FOR_SIGNIFICANCE_CALCULATION, threshold, significantPositions.length));
+                    zoom, MAXIMUM_ZOOM_FOR_SIGNIFICANCE_CALCULATION, threshold, result.size()));
         } else {
             // on all zoom about MAXIMUM_ZOOM_FOR_SIGNIFICANCE_CALCULATION
-            // use all positions since the calculation is too expensive
+            // use all positions since almost all of them are significant
             result.addAll(positions);
             log.info("zoom " + zoom + " large: use all " + positions.size() + " positions");
         }
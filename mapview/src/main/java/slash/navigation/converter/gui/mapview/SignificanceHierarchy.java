@@ -0,0 +1,122 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.gui.mapview;
+
+import slash.navigation.base.NavigationPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.arraycopy;
+import static slash.navigation.base.Positions.calculateSignificances;
+import static slash.navigation.base.Positions.updateSignificances;
+
+/**
+ * Keeps the significance of positions for all zoom levels, i.e. the largest threshold
+ * at which a position is still significant. Changes to the positions are detected by
+ * comparing their coordinates since columnar positions may hand out different objects
+ * for the same position and only the span around the changed positions is recalculated.
+ *
+ * @author Christian Pesch
+ */
+
+class SignificanceHierarchy {
+    private List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+    private double[] longitudes = new double[0], latitudes = new double[0], significances = new double[0];
+
+    private boolean isUnchanged(NavigationPosition position, int index) {
+        return position.getLongitude() == longitudes[index] &&
+                position.getLatitude() == latitudes[index];
+    }
+
+    /**
+     * Updates the significances for the given positions which all have to have coordinates.
+     *
+     * @param positions the positions to render
+     */
+    public void update(List<NavigationPosition> positions) {
+        int count = positions.size();
+        int previousCount = this.positions.size();
+        int common = min(count, previousCount);
+
+        int prefix = 0;
+        while (prefix < common && isUnchanged(positions.get(prefix), prefix))
+            prefix++;
+        if (prefix == count && count == previousCount)
+            return;
+
+        int suffix = 0;
+        while (suffix < common - prefix && isUnchanged(positions.get(count - 1 - suffix), previousCount - 1 - suffix))
+            suffix++;
+
+        double[] updated;
+        // the first and the last position are always significant and determine the whole hierarchy
+        if (prefix == 0 || suffix == 0)
+            updated = calculateSignificances(positions);
+        else {
+            // the positions around the changes that are more significant than all changed
+            // positions limit the span that has to be recalculated
+            int changedTo = previousCount - suffix;
+            double level = 0.0;
+            for (int i = prefix; i < changedTo; i++)
+                level = max(level, significances[i]);
+            int from = prefix - 1;
+            while (significances[from] <= level)
+                from--;
+            int to = changedTo;
+            while (significances[to] <= level)
+                to++;
+
+            int shift = count - previousCount;
+            updated = new double[count];
+            arraycopy(significances, 0, updated, 0, from + 1);
+            arraycopy(significances, to, updated, to + shift, previousCount - to);
+            updateSignificances(positions, from, to + shift, updated);
+        }
+
+        this.positions = positions;
+        this.significances = updated;
+        longitudes = new double[count];
+        latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            NavigationPosition position = positions.get(i);
+            longitudes[i] = position.getLongitude();
+            latitudes[i] = position.getLatitude();
+        }
+    }
+
+    /**
+     * Extracts the significant positions for a threshold.
+     *
+     * @param threshold determines the threshold for significance in meter
+     * @return the positions that are significant for the given threshold
+     */
+    public List<NavigationPosition> getSignificantPositions(double threshold) {
+        List<NavigationPosition> result = new ArrayList<NavigationPosition>();
+        for (int i = 0; i < significances.length; i++) {
+            if (significances[i] > threshold)
+                result.add(positions.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.gui.mapview;
+
+import org.junit.Test;
+import slash.navigation.base.ColumnarPositions;
+import slash.navigation.base.NavigationPosition;
+import slash.navigation.base.Wgs84Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.base.Positions.asPosition;
+import static slash.navigation.base.Positions.calculateSignificances;
+
+public class SignificanceHierarchyTest {
+    private static final double[] THRESHOLDS = new double[]{1.0, 10.0, 100.0, 1000.0};
+
+    private List<NavigationPosition> createTrack(int count) {
+        Random random = new Random(4711);
+        List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+        double longitude = 10.0, latitude = 53.0;
+        for (int i = 0; i < count; i++) {
+            longitude += random.nextDouble() * 0.001;
+            latitude += (random.nextDouble() - 0.5) * 0.001;
+            positions.add(asPosition(longitude, latitude));
+        }
+        return positions;
+    }
+
+    private List<NavigationPosition> calculateSignificantPositions(List<NavigationPosition> positions, double threshold) {
+        double[] significances = calculateSignificances(positions);
+        List<NavigationPosition> result = new ArrayList<NavigationPosition>();
+        for (int i = 0; i < significances.length; i++) {
+            if (significances[i] > threshold)
+                result.add(positions.get(i));
+        }
+        return result;
+    }
+
+    private void assertSignificantPositions(List<NavigationPosition> positions, SignificanceHierarchy hierarchy) {
+        for (double threshold : THRESHOLDS)
+            assertEquals("threshold " + threshold, calculateSignificantPositions(positions, threshold),
+                    hierarchy.getSignificantPositions(threshold));
+    }
+
+    @Test
+    public void testSignificantPositions() {
+        List<NavigationPosition> positions = createTrack(2000);
+        SignificanceHierarchy hierarchy = new SignificanceHierarchy();
+        hierarchy.update(positions);
+        assertSignificantPositions(positions, hierarchy);
+        assertEquals(positions, hierarchy.getSignificantPositions(-1.0));
+        assertEquals(2, hierarchy.getSignificantPositions(Double.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testUpdateAfterMove() {
+        List<NavigationPosition> positions = createTrack(2000);
+        SignificanceHierarchy hierarchy = new SignificanceHierarchy();
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+
+        Wgs84Position position = (Wgs84Position) positions.get(1000);
+        position.setLatitude(position.getLatitude() + 0.00001);
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+        assertSignificantPositions(positions, hierarchy);
+    }
+
+    @Test
+    public void testUpdateAfterInsertAndRemove() {
+        List<NavigationPosition> positions = createTrack(2000);
+        SignificanceHierarchy hierarchy = new SignificanceHierarchy();
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+
+        NavigationPosition before = positions.get(499), after = positions.get(500);
+        positions.add(500, asPosition((before.getLongitude() + after.getLongitude()) / 2,
+                (before.getLatitude() + after.getLatitude()) / 2));
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+        assertSignificantPositions(positions, hierarchy);
+
+        positions.remove(1500);
+        positions.remove(1500);
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+        assertSignificantPositions(positions, hierarchy);
+    }
+
+    @Test
+    public void testUpdateAfterChangingFirstAndLast() {
+        List<NavigationPosition> positions = createTrack(2000);
+        SignificanceHierarchy hierarchy = new SignificanceHierarchy();
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+
+        positions.remove(0);
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+        assertSignificantPositions(positions, hierarchy);
+
+        positions.add(asPosition(11.0, 53.0));
+        hierarchy.update(new ArrayList<NavigationPosition>(positions));
+        assertSignificantPositions(positions, hierarchy);
+    }
+
+    @Test
+    public void testUpdateOverColumnarPositions() {
+        ColumnarPositions columns = new ColumnarPositions();
+        for (NavigationPosition position : createTrack(2000))
+            columns.add((Wgs84Position) position);
+        SignificanceHierarchy hierarchy = new SignificanceHierarchy();
+        hierarchy.update(new ArrayList<NavigationPosition>(columns));
+
+        Wgs84Position position = columns.get(1000);
+        position.setLatitude(position.getLatitude() + 0.00001);
+        NavigationPosition before = columns.get(499), after = columns.get(500);
+        columns.add(500, (Wgs84Position) asPosition((before.getLongitude() + after.getLongitude()) / 2,
+                (before.getLatitude() + after.getLatitude()) / 2));
+        List<NavigationPosition> positions = new ArrayList<NavigationPosition>(columns);
+        hierarchy.update(positions);
+        assertSignificantPositions(positions, hierarchy);
+    }
+}
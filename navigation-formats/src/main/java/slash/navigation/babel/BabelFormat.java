@@ -265,7 +265,9 @@ public abstract class BabelFormat extends BaseNavigationFormat<GpxRoute> {
                         sleep(COMMAND_EXECUTION_RECHECK_INTERVAL);
                     }
                 } catch (InterruptedException e1) {
-                    // doesn't matter
+                    // the command is shut down below
+                    Thread.currentThread().interrupt();
+                    break;
                 }
             }
         }
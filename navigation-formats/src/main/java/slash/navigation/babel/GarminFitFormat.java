@@ -20,6 +20,11 @@
 
 package slash.navigation.babel;
 
+import slash.navigation.base.Plausibility;
+
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
+
 /**
  * Reads and writes Garmin Fit (.fit) files.
  *
@@ -35,6 +40,10 @@ public class GarminFitFormat extends BabelFormat {
         return "Garmin Fit (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return startsWith(header, 8, ".FIT") ? Likely : Possible;
+    }
+
     protected String getFormatName() {
         return "garmin_fit";
     }
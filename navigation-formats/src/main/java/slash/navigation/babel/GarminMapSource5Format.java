@@ -21,8 +21,12 @@
 package slash.navigation.babel;
 
 import slash.navigation.base.MultipleRoutesFormat;
+import slash.navigation.base.Plausibility;
 import slash.navigation.gpx.GpxRoute;
 
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
+
 /**
  * Reads and writes Garmin MapSource 5.x (.gdb) files.
  *
@@ -38,6 +42,10 @@ public class GarminMapSource5Format extends BabelFormat implements MultipleRoute
         return "Garmin MapSource 5.x (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return startsWith(header, "MsRcd") ? Likely : Possible;
+    }
+
     protected String getFormatName() {
         return "mapsource";
     }
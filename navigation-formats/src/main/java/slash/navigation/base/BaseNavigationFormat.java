@@ -26,6 +26,7 @@ import java.util.StringTokenizer;
 import java.util.prefs.Preferences;
 
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.base.Plausibility.Possible;
 
 /**
  * The base of all navigation formats.
@@ -37,6 +38,7 @@ public abstract class BaseNavigationFormat<R extends BaseRoute> implements Navig
     private static final Preferences preferences = Preferences.userNodeForPackage(BaseNavigationFormat.class);
     protected static final String GENERATED_BY = "Generated by Christian Pesch's RouteConverter. See http://www.routeconverter.com";
     protected static final int UNLIMITED_MAXIMUM_POSITION_COUNT = Integer.MAX_VALUE;
+    protected static final String ZIP_SIGNATURE = "PK\003\004";
 
     protected List<String> asDescription(String string) {
         if (string == null || string.length() == 0)
@@ -98,6 +100,32 @@ public abstract class BaseNavigationFormat<R extends BaseRoute> implements Navig
         return trim(name, getMaximumRouteNameLength());
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return Possible;
+    }
+
+    protected static boolean startsWith(byte[] header, int offset, String signature) {
+        if (header.length < offset + signature.length())
+            return false;
+        for (int i = 0; i < signature.length(); i++) {
+            if (header[offset + i] != (byte) signature.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    protected static boolean startsWith(byte[] header, String signature) {
+        return startsWith(header, 0, signature);
+    }
+
+    protected static boolean contains(byte[] header, String signature) {
+        for (int i = 0; i <= header.length - signature.length(); i++) {
+            if (startsWith(header, i, signature))
+                return true;
+        }
+        return false;
+    }
+
     public boolean isSupportsReading() {
         return true;
     }
@@ -106,6 +134,10 @@ public abstract class BaseNavigationFormat<R extends BaseRoute> implements Navig
         return true;
     }
 
+    public boolean isSupportsConcurrentReading() {
+        return false;
+    }
+
     public int getMaximumFileNameLength() {
         return preferences.getInt("maximumFileNameLength", 64);
     }
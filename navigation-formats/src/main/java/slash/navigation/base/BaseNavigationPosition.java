@@ -22,6 +22,7 @@ package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
 import slash.common.util.Bearing;
+import slash.common.util.DistanceAlgorithm;
 import slash.navigation.bcr.BcrPosition;
 import slash.navigation.fpl.GarminFlightPlanPosition;
 import slash.navigation.gopal.GoPalPosition;
@@ -33,6 +34,7 @@ import slash.navigation.nmn.NmnPosition;
 import slash.navigation.tour.TourPosition;
 
 import java.util.Calendar;
+import java.util.prefs.Preferences;
 
 import static java.lang.Double.isNaN;
 import static java.lang.Math.abs;
@@ -44,6 +46,7 @@ import static java.util.Calendar.MONTH;
 import static java.util.Calendar.YEAR;
 import static slash.common.util.Bearing.EARTH_RADIUS;
 import static slash.common.util.Bearing.calculateBearing;
+import static slash.common.util.DistanceAlgorithm.Adaptive;
 
 /**
  * The base of all navigation positions.
@@ -52,6 +55,24 @@ import static slash.common.util.Bearing.calculateBearing;
  */
 
 public abstract class BaseNavigationPosition implements NavigationPosition {
+    private static final Preferences preferences = Preferences.userNodeForPackage(BaseNavigationPosition.class);
+    private static volatile DistanceAlgorithm distanceAlgorithm = getDistanceAlgorithmPreference();
+
+    private static DistanceAlgorithm getDistanceAlgorithmPreference() {
+        try {
+            return DistanceAlgorithm.valueOf(preferences.get("distanceAlgorithm", Adaptive.name()));
+        } catch (IllegalArgumentException e) {
+            return Adaptive;
+        }
+    }
+
+    public static DistanceAlgorithm getDistanceAlgorithm() {
+        return distanceAlgorithm;
+    }
+
+    public static void setDistanceAlgorithm(DistanceAlgorithm distanceAlgorithm) {
+        BaseNavigationPosition.distanceAlgorithm = distanceAlgorithm;
+    }
 
     public boolean hasCoordinates() {
         return getLongitude() != null && getLatitude() != null;
@@ -69,13 +90,20 @@ public abstract class BaseNavigationPosition implements NavigationPosition {
     }
 
     public Double calculateDistance(NavigationPosition other) {
-        return other.hasCoordinates() ? calculateDistance(other.getLongitude(), other.getLatitude()) : null;
+        return calculateDistance(other, getDistanceAlgorithm());
+    }
+
+    public Double calculateDistance(NavigationPosition other, DistanceAlgorithm algorithm) {
+        return other.hasCoordinates() ? calculateDistance(other.getLongitude(), other.getLatitude(), algorithm) : null;
     }
 
     public Double calculateDistance(double longitude, double latitude) {
+        return calculateDistance(longitude, latitude, getDistanceAlgorithm());
+    }
+
+    private Double calculateDistance(double longitude, double latitude, DistanceAlgorithm algorithm) {
         if (hasCoordinates()) {
-            Bearing bearing = calculateBearing(getLongitude(), getLatitude(), longitude, latitude);
-            double distance = bearing.getDistance();
+            double distance = algorithm.calculateDistance(getLongitude(), getLatitude(), longitude, latitude);
             if (!isNaN(distance))
                 return distance;
         }
@@ -21,6 +21,7 @@
 package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
+import slash.common.util.DistanceAlgorithm;
 import slash.navigation.bcr.BcrFormat;
 import slash.navigation.bcr.BcrRoute;
 import slash.navigation.bcr.MTP0607Format;
@@ -120,11 +121,14 @@ import java.util.Calendar;
 import java.util.List;
 
 import static java.lang.Math.max;
+import static java.lang.System.arraycopy;
+import static java.util.Collections.reverse;
 import static slash.common.io.Transfer.toArray;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromCalendar;
+import static slash.navigation.base.BaseNavigationPosition.getDistanceAlgorithm;
 import static slash.navigation.base.Positions.contains;
-import static slash.navigation.base.Positions.getSignificantPositions;
+import static slash.navigation.base.Positions.markSignificantPositions;
 
 /**
  * The base of all routes formats.
@@ -165,6 +169,12 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
 
     private void move(int index, int upOrDown) {
         List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions) {
+            int fromIndex = Math.min(index, index + upOrDown);
+            arrange(fromIndex, new int[]{fromIndex + 1, fromIndex});
+            return;
+        }
+
         P move = positions.get(index);
         P replace = positions.get(index + upOrDown);
         positions.set(index + upOrDown, move);
@@ -195,6 +205,114 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
         }
     }
 
+    /**
+     * Places the positions at fromIndex + i to the positions that were at order[i] before.
+     */
+    @SuppressWarnings("unchecked")
+    private void arrange(int fromIndex, int[] order) {
+        List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions) {
+            ((ColumnarPositions) positions).arrange(fromIndex, order);
+            return;
+        }
+
+        List<P> arranged = new ArrayList<P>(order.length);
+        for (int index : order)
+            arranged.add(positions.get(index));
+        for (int i = 0; i < arranged.size(); i++)
+            positions.set(fromIndex + i, arranged.get(i));
+    }
+
+    private static int[] sorted(int[] indices) {
+        int[] result = Arrays.copyOf(indices, indices.length);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static BitSet asBitSet(int[] indices) {
+        BitSet result = new BitSet();
+        for (int index : indices)
+            result.set(index);
+        return result;
+    }
+
+    /**
+     * Moves the positions with the given indices to the top of this route keeping their order.
+     *
+     * @param indices the indices of the positions to move
+     */
+    public void top(int[] indices) {
+        if (indices.length == 0)
+            return;
+        indices = sorted(indices);
+        BitSet selected = asBitSet(indices);
+        int[] order = new int[indices[indices.length - 1] + 1];
+        arraycopy(indices, 0, order, 0, indices.length);
+        int count = indices.length;
+        for (int i = selected.nextClearBit(0); i < order.length; i = selected.nextClearBit(i + 1))
+            order[count++] = i;
+        arrange(0, order);
+    }
+
+    /**
+     * Moves the positions at the top of this route back to the given indices, reverts {@link #top(int[])}.
+     *
+     * @param indices the indices the positions had before they have been moved to the top
+     */
+    public void topDown(int[] indices) {
+        if (indices.length == 0)
+            return;
+        indices = sorted(indices);
+        BitSet selected = asBitSet(indices);
+        int[] order = new int[indices[indices.length - 1] + 1];
+        for (int i = 0; i < indices.length; i++)
+            order[indices[i]] = i;
+        int count = indices.length;
+        for (int i = selected.nextClearBit(0); i < order.length; i = selected.nextClearBit(i + 1))
+            order[i] = count++;
+        arrange(0, order);
+    }
+
+    /**
+     * Moves the positions with the given indices to the bottom of this route keeping their order.
+     *
+     * @param indices the indices of the positions to move
+     */
+    public void bottom(int[] indices) {
+        if (indices.length == 0)
+            return;
+        indices = sorted(indices);
+        BitSet selected = asBitSet(indices);
+        int fromIndex = indices[0];
+        int[] order = new int[getPositionCount() - fromIndex];
+        int count = 0;
+        for (int i = selected.nextClearBit(fromIndex); i < getPositionCount(); i = selected.nextClearBit(i + 1))
+            order[count++] = i;
+        arraycopy(indices, 0, order, count, indices.length);
+        arrange(fromIndex, order);
+    }
+
+    /**
+     * Moves the positions at the bottom of this route back to the given indices, reverts {@link #bottom(int[])}.
+     *
+     * @param indices the indices the positions had before they have been moved to the bottom
+     */
+    public void bottomUp(int[] indices) {
+        if (indices.length == 0)
+            return;
+        indices = sorted(indices);
+        BitSet selected = asBitSet(indices);
+        int fromIndex = indices[0];
+        int bottomIndex = getPositionCount() - indices.length;
+        int[] order = new int[getPositionCount() - fromIndex];
+        for (int i = 0; i < indices.length; i++)
+            order[indices[i] - fromIndex] = bottomIndex + i;
+        int count = fromIndex;
+        for (int i = selected.nextClearBit(fromIndex); i < getPositionCount(); i = selected.nextClearBit(i + 1))
+            order[i - fromIndex] = count++;
+        arrange(fromIndex, order);
+    }
+
     public abstract void add(int index, P position);
 
     public P remove(int index) {
@@ -202,22 +320,75 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
         return positions.remove(index);
     }
 
+    /**
+     * Removes the positions with the given indices in one pass over the positions.
+     *
+     * @param indices the indices of the positions to remove
+     * @return the removed positions in the order of the route
+     */
+    @SuppressWarnings("unchecked")
+    public List<P> removeAll(BitSet indices) {
+        List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions)
+            return (List<P>) ((ColumnarPositions) positions).removeAll(indices);
+
+        List<P> removed = new ArrayList<P>(indices.cardinality());
+        int index = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            P position = positions.get(i);
+            if (indices.get(i))
+                removed.add(position);
+            else {
+                if (index != i)
+                    positions.set(index, position);
+                index++;
+            }
+        }
+        positions.subList(index, positions.size()).clear();
+        return removed;
+    }
+
+    /**
+     * Inserts positions so that they are found at the given indices afterwards,
+     * reverts {@link #removeAll(BitSet)}.
+     *
+     * @param indices the monotonically increasing indices of the positions after inserting them
+     * @param added the positions to insert
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(int[] indices, List<P> added) {
+        List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions) {
+            ((ColumnarPositions) positions).addAll(indices, (List<Wgs84Position>) added);
+            return;
+        }
+
+        int previous = positions.size() - 1;
+        positions.addAll(added);
+        int index = positions.size() - 1;
+        for (int i = indices.length - 1; i >= 0; index--) {
+            if (index == indices[i])
+                positions.set(index, added.get(i--));
+            else
+                positions.set(index, positions.get(previous--));
+        }
+    }
+
     /**
      * Removes duplicate adjacent {@link #getPositions() positions} from this route, leaving
      * only distinct neighbours
      */
     public void removeDuplicates() {
         List<P> positions = getPositions();
+        BitSet duplicates = new BitSet(positions.size());
         P previous = null;
-        int index = 0;
-        while (index < positions.size()) {
-            P next = positions.get(index);
-            if (previous != null && (!next.hasCoordinates() || next.calculateDistance(previous) <= 0.0)) {
-                positions.remove(index);
-            } else
-                index++;
+        for (int i = 0; i < positions.size(); i++) {
+            P next = positions.get(i);
+            if (previous != null && (!next.hasCoordinates() || next.calculateDistance(previous) <= 0.0))
+                duplicates.set(i);
             previous = next;
         }
+        removeAll(duplicates);
     }
 
     public void ensureIncreasingTime() {
@@ -277,16 +448,11 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public int[] getInsignificantPositions(double threshold) {
-        int[] significantPositions = getSignificantPositions(getPositions(), threshold);
-        BitSet bitset = new BitSet(getPositionCount());
-        for (int significantPosition : significantPositions)
-            bitset.set(significantPosition);
-
-        int[] result = new int[getPositionCount() - significantPositions.length];
+        BitSet significantPositions = markSignificantPositions(getPositions(), threshold);
+        int[] result = new int[getPositionCount() - significantPositions.cardinality()];
         int index = 0;
-        for (int i = 0; i < getPositionCount(); i++)
-            if (!bitset.get(i))
-                result[index++] = i;
+        for (int i = significantPositions.nextClearBit(0); i < getPositionCount(); i = significantPositions.nextClearBit(i + 1))
+            result[index++] = i;
         return result;
     }
 
@@ -321,9 +487,12 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public long getTime() {
+        List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions)
+            return ((ColumnarPositions) positions).getTime();
+
         CompactCalendar minimum = null, maximum = null;
         long totalTimeMilliSeconds = 0;
-        List<P> positions = getPositions();
         P previous = null;
         for (P next : positions) {
             if (previous != null) {
@@ -352,13 +521,20 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public double getDistance(int startIndex, int endIndex) {
-        double result = 0;
+        return getDistance(startIndex, endIndex, getDistanceAlgorithm());
+    }
+
+    public double getDistance(int startIndex, int endIndex, DistanceAlgorithm algorithm) {
         List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions)
+            return ((ColumnarPositions) positions).getDistance(startIndex, endIndex, algorithm);
+
+        double result = 0;
         NavigationPosition previous = null;
         for (int i = startIndex; i <= endIndex; i++) {
             NavigationPosition next = positions.get(i);
             if (previous != null) {
-                Double distance = previous.calculateDistance(next);
+                Double distance = previous.calculateDistance(next, algorithm);
                 if (distance != null)
                     result += distance;
             }
@@ -416,8 +592,11 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public double getElevationAscend(int startIndex, int endIndex) {
-        double result = 0;
         List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions)
+            return ((ColumnarPositions) positions).getElevationAscend(startIndex, endIndex);
+
+        double result = 0;
         NavigationPosition previous = null;
         for (int i = startIndex; i <= endIndex; i++) {
             NavigationPosition next = positions.get(i);
@@ -432,8 +611,11 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public double getElevationDescend(int startIndex, int endIndex) {
-        double result = 0;
         List<P> positions = getPositions();
+        if (positions instanceof ColumnarPositions)
+            return ((ColumnarPositions) positions).getElevationDescend(startIndex, endIndex);
+
+        double result = 0;
         NavigationPosition previous = null;
         for (int i = startIndex; i <= endIndex; i++) {
             NavigationPosition next = positions.get(i);
@@ -449,13 +631,13 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
 
     public void revert() {
         List<P> positions = getPositions();
-        List<P> reverted = new ArrayList<P>();
-        for (P position : positions) {
-            reverted.add(0, position);
-        }
-        for (int i = 0; i < reverted.size(); i++) {
-            positions.set(i, reverted.get(i));
-        }
+        if (positions instanceof ColumnarPositions) {
+            int[] order = new int[positions.size()];
+            for (int i = 0; i < order.length; i++)
+                order[i] = order.length - 1 - i;
+            arrange(0, order);
+        } else
+            reverse(positions);
 
         String routeName = getName();
         if (!routeName.endsWith(REVERSE_ROUTE_NAME_POSTFIX))
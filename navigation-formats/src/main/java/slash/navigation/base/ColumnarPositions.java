@@ -0,0 +1,745 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.common.type.CompactCalendar;
+import slash.common.util.DistanceAlgorithm;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.lang.Math.max;
+import static java.lang.System.arraycopy;
+import static java.lang.System.identityHashCode;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
+import static slash.navigation.base.RouteComments.parseComment;
+
+/**
+ * Stores {@link Wgs84Position}s column by column in primitive arrays.
+ * <p/>
+ * Coordinates, elevation, speed and time take 40 bytes per position, the rarely used
+ * comment, time zone, heading, dilutions of precision and satellites live in a sparse
+ * side-table. {@link #get(int)} returns a lightweight view on a row which reads and writes
+ * through to the columns. As long as a view is referenced, {@link #get(int)} returns the
+ * same view for its row and the view follows its row when positions are inserted, removed
+ * or moved. A removed row detaches its view, which keeps the values of the row and may be
+ * added again. Origins of the stored positions are not retained.
+ *
+ * @author Christian Pesch
+ */
+
+public class ColumnarPositions extends AbstractList<Wgs84Position> implements RandomAccess {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final String UTC_ID = "UTC";
+
+    private double[] longitudes, latitudes, elevations, speeds;
+    private long[] times;
+    private Extras[] extras;
+    private View[] views;
+    private final ReferenceQueue<Row> collectedViews = new ReferenceQueue<Row>();
+    private int size = 0;
+
+    public ColumnarPositions() {
+        this(16);
+    }
+
+    public ColumnarPositions(int initialCapacity) {
+        allocate(max(initialCapacity, 1));
+    }
+
+    public ColumnarPositions(Collection<? extends Wgs84Position> positions) {
+        this(positions.size());
+        addAll(positions);
+    }
+
+    private void allocate(int capacity) {
+        longitudes = new double[capacity];
+        latitudes = new double[capacity];
+        elevations = new double[capacity];
+        speeds = new double[capacity];
+        times = new long[capacity];
+        extras = new Extras[capacity];
+        views = new View[capacity];
+    }
+
+    private void reallocate(int capacity) {
+        longitudes = copyOf(longitudes, capacity);
+        latitudes = copyOf(latitudes, capacity);
+        elevations = copyOf(elevations, capacity);
+        speeds = copyOf(speeds, capacity);
+        times = copyOf(times, capacity);
+        extras = copyOf(extras, capacity);
+        views = copyOf(views, capacity);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= longitudes.length)
+            return;
+        reallocate(max(capacity, longitudes.length + (longitudes.length >> 1) + 1));
+    }
+
+    private void shift(int from, int to, int length) {
+        arraycopy(longitudes, from, longitudes, to, length);
+        arraycopy(latitudes, from, latitudes, to, length);
+        arraycopy(elevations, from, elevations, to, length);
+        arraycopy(speeds, from, speeds, to, length);
+        arraycopy(times, from, times, to, length);
+        arraycopy(extras, from, extras, to, length);
+        arraycopy(views, from, views, to, length);
+        updateViews(to, to + length);
+    }
+
+    private void copy(int from, int to) {
+        longitudes[to] = longitudes[from];
+        latitudes[to] = latitudes[from];
+        elevations[to] = elevations[from];
+        speeds[to] = speeds[from];
+        times[to] = times[from];
+        extras[to] = extras[from];
+        views[to] = views[from];
+        if (views[to] != null)
+            views[to].index = to;
+    }
+
+    private void clear(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            extras[i] = null;
+            views[i] = null;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private static double toDouble(Double value) {
+        return value != null ? value : NaN;
+    }
+
+    private static Double toDouble(double value) {
+        return isNaN(value) ? null : value;
+    }
+
+    private void store(int index, Wgs84Position position) {
+        longitudes[index] = toDouble(position.getLongitude());
+        latitudes[index] = toDouble(position.getLatitude());
+        elevations[index] = toDouble(position.getElevation());
+        speeds[index] = toDouble(position.getSpeed());
+        CompactCalendar time = position.getTime();
+        times[index] = time != null ? time.getTimeInMillis() : NO_TIME;
+
+        Extras extra = new Extras();
+        extra.comment = position.getComment();
+        extra.timeZoneId = time != null && !UTC_ID.equals(time.getTimeZoneId()) ? time.getTimeZoneId() : null;
+        extra.heading = position.getHeading();
+        extra.hdop = position.getHdop();
+        extra.vdop = position.getVdop();
+        extra.pdop = position.getPdop();
+        extra.satellites = position.getSatellites();
+        extras[index] = extra.isEmpty() ? null : extra;
+    }
+
+    /**
+     * Stores the position at the given index. A view that has been detached from these
+     * columns becomes the view of the row again.
+     */
+    private void store(int index, Wgs84Position position, boolean attach) {
+        store(index, position);
+        views[index] = null;
+        if (attach && isDetachedView(position))
+            attachView((Row) position, index);
+    }
+
+    private boolean isDetachedView(Object position) {
+        return position instanceof Row && ((Row) position).getColumns() == this && ((Row) position).view == null;
+    }
+
+    private boolean isAttachedView(Object position) {
+        return position instanceof Row && ((Row) position).getColumns() == this && ((Row) position).view != null;
+    }
+
+    private Wgs84Position detach(int index) {
+        parseCommentIfNecessary(index);
+        Extras extra = extras[index];
+        Wgs84Position position = new Wgs84Position(toDouble(longitudes[index]), toDouble(latitudes[index]),
+                toDouble(elevations[index]), toDouble(speeds[index]), getTime(index), null);
+        if (extra != null) {
+            // assign the comment without parsing it again since its values are already stored
+            position.comment = extra.comment;
+            position.setHeading(extra.heading);
+            position.setHdop(extra.hdop);
+            position.setVdop(extra.vdop);
+            position.setPdop(extra.pdop);
+            position.setSatellites(extra.satellites);
+        }
+        return position;
+    }
+
+    /**
+     * Removes the view from the row at the given index and lets it keep the values of the row.
+     *
+     * @return the detached view or a new position with the values of the row if there was no view
+     */
+    private Wgs84Position detachView(int index) {
+        View view = views[index];
+        Row row = view != null ? view.get() : null;
+        if (row == null) {
+            views[index] = null;
+            return detach(index);
+        }
+        row.detach(detach(index));
+        views[index] = null;
+        return row;
+    }
+
+    private void attachView(Row row, int index) {
+        View view = new View(row, index, collectedViews);
+        row.view = view;
+        views[index] = view;
+    }
+
+    private void updateViews(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            View view = views[i];
+            if (view != null)
+                view.index = i;
+        }
+    }
+
+    private void expungeCollectedViews() {
+        View view;
+        while ((view = (View) collectedViews.poll()) != null) {
+            int index = view.index;
+            if (index >= 0 && index < size && views[index] == view)
+                views[index] = null;
+        }
+    }
+
+    private CompactCalendar getTime(int index) {
+        long time = times[index];
+        if (time == NO_TIME)
+            return null;
+        Extras extra = extras[index];
+        return fromMillisAndTimeZone(time, extra != null && extra.timeZoneId != null ? extra.timeZoneId : UTC_ID);
+    }
+
+    private Extras getExtras(int index) {
+        Extras extra = extras[index];
+        if (extra == null) {
+            extra = new Extras();
+            extras[index] = extra;
+        }
+        return extra;
+    }
+
+    private void parseCommentIfNecessary(int index) {
+        Extras extra = extras[index];
+        if (extra != null && extra.unparsedComment != null) {
+            String comment = extra.unparsedComment;
+            extra.unparsedComment = null;
+            parseComment(get(index), comment);
+        }
+    }
+
+    private void parseCommentsIfNecessary(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++)
+            parseCommentIfNecessary(i);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Wgs84Position get(int index) {
+        checkIndex(index);
+        expungeCollectedViews();
+        View view = views[index];
+        Row row = view != null ? view.get() : null;
+        if (row == null) {
+            row = new Row();
+            attachView(row, index);
+        }
+        return row;
+    }
+
+    public Wgs84Position set(int index, Wgs84Position position) {
+        checkIndex(index);
+        if (isAttachedView(position) && ((Row) position).view.index == index)
+            return position;
+        // the position may be a view on another row which is copied
+        if (isAttachedView(position))
+            position = detach(((Row) position).view.index);
+        Wgs84Position previous = detachView(index);
+        store(index, position, true);
+        return previous;
+    }
+
+    public void add(int index, Wgs84Position position) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        // the position may be a view on a row which moves when shifting
+        if (isAttachedView(position))
+            position = detach(((Row) position).view.index);
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        size++;
+        store(index, position, true);
+        modCount++;
+    }
+
+    public Wgs84Position remove(int index) {
+        checkIndex(index);
+        Wgs84Position previous = detachView(index);
+        shift(index + 1, index, size - index - 1);
+        size--;
+        clear(size, size + 1);
+        modCount++;
+        return previous;
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++)
+            detachView(i);
+        shift(toIndex, fromIndex, size - toIndex);
+        int newSize = size - (toIndex - fromIndex);
+        clear(newSize, size);
+        size = newSize;
+        modCount++;
+    }
+
+    public void clear() {
+        removeRange(0, size);
+    }
+
+    /**
+     * Removes the positions with the given indices in one pass over the columns.
+     *
+     * @param indices the indices of the positions to remove
+     * @return the removed positions detached from the columns
+     */
+    public List<Wgs84Position> removeAll(BitSet indices) {
+        List<Wgs84Position> removed = new ArrayList<Wgs84Position>(indices.cardinality());
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            if (indices.get(i))
+                removed.add(detachView(i));
+            else {
+                if (index != i)
+                    copy(i, index);
+                index++;
+            }
+        }
+        clear(index, size);
+        size = index;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Inserts positions so that they are found at the given indices afterwards in
+     * one pass over the columns, reverts {@link #removeAll(BitSet)}.
+     *
+     * @param indices the monotonically increasing indices of the positions after inserting them
+     * @param added the positions to insert
+     */
+    public void addAll(int[] indices, List<? extends Wgs84Position> added) {
+        int newSize = size + added.size();
+        ensureCapacity(newSize);
+        int previous = size - 1;
+        int i = indices.length - 1;
+        for (int index = newSize - 1; index >= 0 && (i >= 0 || previous != index); index--) {
+            if (i >= 0 && index == indices[i]) {
+                Wgs84Position position = added.get(i--);
+                if (isAttachedView(position))
+                    position = detach(((Row) position).view.index);
+                store(index, position, true);
+            } else
+                copy(previous--, index);
+        }
+        size = newSize;
+        modCount++;
+    }
+
+    /**
+     * Places the positions at fromIndex + i to the positions that were at order[i] before.
+     *
+     * @param fromIndex the index of the first position to arrange
+     * @param order the indices of the positions before arranging them
+     */
+    public void arrange(int fromIndex, int[] order) {
+        int toIndex = fromIndex + order.length;
+        double[] oldLongitudes = copyOfRange(longitudes, fromIndex, toIndex), oldLatitudes = copyOfRange(latitudes, fromIndex, toIndex),
+                oldElevations = copyOfRange(elevations, fromIndex, toIndex), oldSpeeds = copyOfRange(speeds, fromIndex, toIndex);
+        long[] oldTimes = copyOfRange(times, fromIndex, toIndex);
+        Extras[] oldExtras = copyOfRange(extras, fromIndex, toIndex);
+        View[] oldViews = copyOfRange(views, fromIndex, toIndex);
+        for (int i = 0; i < order.length; i++) {
+            int from = order[i] - fromIndex;
+            longitudes[fromIndex + i] = oldLongitudes[from];
+            latitudes[fromIndex + i] = oldLatitudes[from];
+            elevations[fromIndex + i] = oldElevations[from];
+            speeds[fromIndex + i] = oldSpeeds[from];
+            times[fromIndex + i] = oldTimes[from];
+            extras[fromIndex + i] = oldExtras[from];
+            views[fromIndex + i] = oldViews[from];
+        }
+        updateViews(fromIndex, toIndex);
+    }
+
+    public int indexOf(Object o) {
+        // a view knows the index of its row and other positions are never equal to a view
+        return isAttachedView(o) ? ((Row) o).view.index : -1;
+    }
+
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    public void trimToSize() {
+        if (size == longitudes.length)
+            return;
+        reallocate(max(size, 1));
+    }
+
+    public double getDistance(int startIndex, int endIndex, DistanceAlgorithm algorithm) {
+        double result = 0;
+        int previous = -1;
+        for (int i = startIndex; i <= endIndex; i++) {
+            if (previous != -1 && !isNaN(longitudes[i]) && !isNaN(latitudes[i]) &&
+                    !isNaN(longitudes[previous]) && !isNaN(latitudes[previous])) {
+                double distance = algorithm.calculateDistance(longitudes[previous], latitudes[previous], longitudes[i], latitudes[i]);
+                if (!isNaN(distance))
+                    result += distance;
+            }
+            previous = i;
+        }
+        return result;
+    }
+
+    public double getElevationAscend(int startIndex, int endIndex) {
+        parseCommentsIfNecessary(startIndex, endIndex + 1);
+        double result = 0;
+        for (int i = startIndex + 1; i <= endIndex; i++) {
+            double elevation = elevations[i] - elevations[i - 1];
+            if (elevation > 0)
+                result += elevation;
+        }
+        return result;
+    }
+
+    public double getElevationDescend(int startIndex, int endIndex) {
+        parseCommentsIfNecessary(startIndex, endIndex + 1);
+        double result = 0;
+        for (int i = startIndex + 1; i <= endIndex; i++) {
+            double elevation = elevations[i] - elevations[i - 1];
+            if (elevation < 0)
+                result -= elevation;
+        }
+        return result;
+    }
+
+    public long getTime() {
+        parseCommentsIfNecessary(0, size);
+        long minimum = Long.MAX_VALUE, maximum = Long.MIN_VALUE;
+        long totalTimeMilliSeconds = 0;
+        int previous = -1;
+        for (int i = 0; i < size; i++) {
+            long time = times[i];
+            if (time == NO_TIME)
+                continue;
+            if (previous != -1) {
+                long delta = time - times[previous];
+                if (delta > 0)
+                    totalTimeMilliSeconds += delta;
+            }
+            if (time < minimum)
+                minimum = time;
+            if (time > maximum)
+                maximum = time;
+            previous = i;
+        }
+
+        long maxMinusMin = previous != -1 ? maximum - minimum : 0;
+        return max(maxMinusMin, totalTimeMilliSeconds);
+    }
+
+    private static class Extras {
+        private String comment, unparsedComment, timeZoneId;
+        private Double heading, hdop, vdop, pdop;
+        private Integer satellites;
+
+        boolean isEmpty() {
+            return comment == null && timeZoneId == null && heading == null && hdop == null &&
+                    vdop == null && pdop == null && satellites == null;
+        }
+    }
+
+    /**
+     * Refers weakly to the view of a row and knows the current index of the row.
+     */
+    private static class View extends WeakReference<Row> {
+        private int index;
+
+        View(Row row, int index, ReferenceQueue<Row> queue) {
+            super(row, queue);
+            this.index = index;
+        }
+    }
+
+    /**
+     * A view on a row of the columns or, once the row has been removed, a position
+     * with the values the row had.
+     */
+    private class Row extends Wgs84Position {
+        private View view;
+
+        ColumnarPositions getColumns() {
+            return ColumnarPositions.this;
+        }
+
+        private boolean isDetached() {
+            return view == null;
+        }
+
+        private int index() {
+            return view.index;
+        }
+
+        void detach(Wgs84Position values) {
+            view.index = -1;
+            view = null;
+            super.setLongitude(values.getLongitude());
+            super.setLatitude(values.getLatitude());
+            super.setElevation(values.getElevation());
+            super.setSpeed(values.getSpeed());
+            super.setTime(values.getTime());
+            // assign the comment without parsing it again since its values are already stored
+            comment = values.getComment();
+            super.setHeading(values.getHeading());
+            super.setHdop(values.getHdop());
+            super.setVdop(values.getVdop());
+            super.setPdop(values.getPdop());
+            super.setSatellites(values.getSatellites());
+        }
+
+        protected void parseCommentIfNecessary() {
+            if (isDetached())
+                super.parseCommentIfNecessary();
+            else
+                ColumnarPositions.this.parseCommentIfNecessary(index());
+        }
+
+        public Double getLongitude() {
+            if (isDetached())
+                return super.getLongitude();
+            return toDouble(longitudes[index()]);
+        }
+
+        public void setLongitude(Double longitude) {
+            if (isDetached())
+                super.setLongitude(longitude);
+            else
+                longitudes[index()] = toDouble(longitude);
+        }
+
+        public Double getLatitude() {
+            if (isDetached())
+                return super.getLatitude();
+            return toDouble(latitudes[index()]);
+        }
+
+        public void setLatitude(Double latitude) {
+            if (isDetached())
+                super.setLatitude(latitude);
+            else
+                latitudes[index()] = toDouble(latitude);
+        }
+
+        public Double getElevation() {
+            if (isDetached())
+                return super.getElevation();
+            parseCommentIfNecessary();
+            return toDouble(elevations[index()]);
+        }
+
+        public void setElevation(Double elevation) {
+            if (isDetached()) {
+                super.setElevation(elevation);
+                return;
+            }
+            parseCommentIfNecessary();
+            elevations[index()] = toDouble(elevation);
+        }
+
+        public Double getSpeed() {
+            if (isDetached())
+                return super.getSpeed();
+            parseCommentIfNecessary();
+            return toDouble(speeds[index()]);
+        }
+
+        public void setSpeed(Double speed) {
+            if (isDetached()) {
+                super.setSpeed(speed);
+                return;
+            }
+            parseCommentIfNecessary();
+            speeds[index()] = toDouble(speed);
+        }
+
+        public CompactCalendar getTime() {
+            if (isDetached())
+                return super.getTime();
+            parseCommentIfNecessary();
+            return ColumnarPositions.this.getTime(index());
+        }
+
+        public void setTime(CompactCalendar time) {
+            if (isDetached()) {
+                super.setTime(time);
+                return;
+            }
+            parseCommentIfNecessary();
+            int index = index();
+            times[index] = time != null ? time.getTimeInMillis() : NO_TIME;
+            String timeZoneId = time != null && !UTC_ID.equals(time.getTimeZoneId()) ? time.getTimeZoneId() : null;
+            if (timeZoneId != null || extras[index] != null)
+                getExtras(index).timeZoneId = timeZoneId;
+        }
+
+        public String getComment() {
+            if (isDetached())
+                return super.getComment();
+            Extras extra = extras[index()];
+            return extra != null ? extra.comment : null;
+        }
+
+        public void setComment(String comment) {
+            if (isDetached()) {
+                super.setComment(comment);
+                return;
+            }
+            // a previous comment may have set values the new one doesn't
+            parseCommentIfNecessary();
+            int index = index();
+            if (comment != null || extras[index] != null) {
+                Extras extra = getExtras(index);
+                extra.comment = comment;
+                extra.unparsedComment = comment;
+            }
+        }
+
+        public Double getHeading() {
+            if (isDetached())
+                return super.getHeading();
+            parseCommentIfNecessary();
+            Extras extra = extras[index()];
+            return extra != null ? extra.heading : null;
+        }
+
+        public void setHeading(Double heading) {
+            if (isDetached()) {
+                super.setHeading(heading);
+                return;
+            }
+            parseCommentIfNecessary();
+            int index = index();
+            if (heading != null || extras[index] != null)
+                getExtras(index).heading = heading;
+        }
+
+        public Double getHdop() {
+            if (isDetached())
+                return super.getHdop();
+            Extras extra = extras[index()];
+            return extra != null ? extra.hdop : null;
+        }
+
+        public void setHdop(Double hdop) {
+            if (isDetached())
+                super.setHdop(hdop);
+            else if (hdop != null || extras[index()] != null)
+                getExtras(index()).hdop = hdop;
+        }
+
+        public Double getVdop() {
+            if (isDetached())
+                return super.getVdop();
+            Extras extra = extras[index()];
+            return extra != null ? extra.vdop : null;
+        }
+
+        public void setVdop(Double vdop) {
+            if (isDetached())
+                super.setVdop(vdop);
+            else if (vdop != null || extras[index()] != null)
+                getExtras(index()).vdop = vdop;
+        }
+
+        public Double getPdop() {
+            if (isDetached())
+                return super.getPdop();
+            Extras extra = extras[index()];
+            return extra != null ? extra.pdop : null;
+        }
+
+        public void setPdop(Double pdop) {
+            if (isDetached())
+                super.setPdop(pdop);
+            else if (pdop != null || extras[index()] != null)
+                getExtras(index()).pdop = pdop;
+        }
+
+        public Integer getSatellites() {
+            if (isDetached())
+                return super.getSatellites();
+            Extras extra = extras[index()];
+            return extra != null ? extra.satellites : null;
+        }
+
+        public void setSatellites(Integer satellites) {
+            if (isDetached())
+                super.setSatellites(satellites);
+            else if (satellites != null || extras[index()] != null)
+                getExtras(index()).satellites = satellites;
+        }
+
+        public boolean equals(Object o) {
+            // a view stands for its row wherever the row moves
+            return this == o;
+        }
+
+        public int hashCode() {
+            return identityHashCode(this);
+        }
+    }
+}
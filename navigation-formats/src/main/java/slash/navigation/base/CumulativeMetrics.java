@@ -0,0 +1,118 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Caches the distance, elevation ascend and descend and elapsed time from the start
+ * of a {@link BaseRoute} to each of its positions as prefix sums.
+ * <p/>
+ * The sums are calculated lazily up to the requested position. Modifications of the route
+ * invalidate the sums from the first modified position on, so that they are recalculated
+ * from there the next time they are requested.
+ *
+ * @author Christian Pesch
+ */
+
+public class CumulativeMetrics {
+    private final BaseRoute route;
+    private double[] distances = new double[0], ascends = new double[0], descends = new double[0];
+    private long[] times = new long[0];
+    private int validCount = 0;
+
+    public CumulativeMetrics(BaseRoute route) {
+        this.route = route;
+    }
+
+    public void invalidate(int firstIndex) {
+        validCount = max(0, min(validCount, firstIndex));
+    }
+
+    public void invalidate() {
+        invalidate(0);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= distances.length)
+            return;
+        int newCapacity = max(capacity, distances.length + (distances.length >> 1));
+        distances = copyOf(distances, newCapacity);
+        ascends = copyOf(ascends, newCapacity);
+        descends = copyOf(descends, newCapacity);
+        times = copyOf(times, newCapacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void calculate(int index) {
+        List<NavigationPosition> positions = route.getPositions();
+        if (index >= positions.size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + positions.size());
+        if (index < validCount)
+            return;
+
+        ensureCapacity(positions.size());
+        NavigationPosition previous = validCount > 0 ? positions.get(validCount - 1) : null;
+        for (int i = validCount; i <= index; i++) {
+            NavigationPosition next = positions.get(i);
+            if (previous == null) {
+                distances[i] = 0.0;
+                ascends[i] = 0.0;
+                descends[i] = 0.0;
+                times[i] = 0;
+            } else {
+                Double distance = previous.calculateDistance(next);
+                distances[i] = distances[i - 1] + (distance != null ? distance : 0.0);
+                Double elevation = previous.calculateElevation(next);
+                ascends[i] = ascends[i - 1] + (elevation != null && elevation > 0 ? elevation : 0.0);
+                descends[i] = descends[i - 1] + (elevation != null && elevation < 0 ? -elevation : 0.0);
+                Long time = previous.calculateTime(next);
+                times[i] = times[i - 1] + (time != null && time > 0 ? time : 0);
+            }
+            previous = next;
+        }
+        validCount = index + 1;
+    }
+
+    public double getDistance(int index) {
+        calculate(index);
+        return distances[index];
+    }
+
+    public double getElevationAscend(int index) {
+        calculate(index);
+        return ascends[index];
+    }
+
+    public double getElevationDescend(int index) {
+        calculate(index);
+        return descends[index];
+    }
+
+    public long getTime(int index) {
+        calculate(index);
+        return times[index];
+    }
+}
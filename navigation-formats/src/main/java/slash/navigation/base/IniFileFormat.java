@@ -35,6 +35,10 @@ public abstract class IniFileFormat<R extends BaseRoute> extends TextNavigationF
     protected static final char NAME_VALUE_SEPARATOR = '=';
     protected static final Pattern NAME_VALUE_PATTERN = Pattern.compile("(.+?)\\s*" + NAME_VALUE_SEPARATOR + "\\s*(.+)");
 
+    protected boolean containsSection(byte[] header, String title) {
+        return contains(header, SECTION_PREFIX + title + SECTION_POSTFIX);
+    }
+
     protected boolean isNameValue(String line) {
         Matcher matcher = NAME_VALUE_PATTERN.matcher(line);
         return matcher.matches();
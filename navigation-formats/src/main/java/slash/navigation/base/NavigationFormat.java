@@ -42,10 +42,13 @@ public interface NavigationFormat<R extends BaseRoute> {
     boolean isSupportsReading();
     boolean isSupportsWriting();
     boolean isSupportsMultipleRoutes();
+    boolean isSupportsConcurrentReading();
     boolean isWritingRouteCharacteristics();
 
     <P extends NavigationPosition> R createRoute(RouteCharacteristics characteristics, String name, List<P> positions);
 
+    Plausibility getPlausibility(byte[] header);
+
     void read(InputStream source, CompactCalendar startDate, ParserContext<R> context) throws Exception;
     void write(R route, OutputStream target, int startIndex, int endIndex) throws IOException;
 }
@@ -20,7 +20,7 @@
 
 package slash.navigation.base;
 
-import slash.common.io.NotClosingUnderlyingInputStream;
+import slash.common.io.InputStreamSource;
 import slash.common.type.CompactCalendar;
 import slash.navigation.babel.BabelFormat;
 import slash.navigation.bcr.BcrFormat;
@@ -32,10 +32,7 @@ import slash.navigation.nmn.NmnFormat;
 import slash.navigation.tcx.TcxFormat;
 import slash.navigation.url.GoogleMapsUrlFormat;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -44,19 +41,37 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 
 import static java.io.File.separatorChar;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.util.Arrays.copyOf;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static slash.common.io.InputStreamSource.fromBytes;
+import static slash.common.io.InputStreamSource.fromFile;
+import static slash.common.io.InputStreamSource.fromInputStream;
+import static slash.common.io.InputStreamSource.fromUrl;
 import static slash.common.io.Transfer.ceiling;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromCalendar;
 import static slash.navigation.base.NavigationFormats.asFormat;
 import static slash.navigation.base.NavigationFormats.asFormatForRoutes;
 import static slash.navigation.base.NavigationFormats.getReadFormats;
+import static slash.navigation.base.NavigationFormats.sortByPlausibility;
 import static slash.navigation.url.GoogleMapsUrlFormat.isGoogleMapsUrl;
 import static slash.navigation.base.RouteComments.commentPositions;
 import static slash.navigation.base.RouteComments.commentRouteName;
@@ -71,7 +86,11 @@ import static slash.navigation.base.RouteComments.createRouteName;
 
 public class NavigationFormatParser {
     private static final Logger log = Logger.getLogger(NavigationFormatParser.class.getName());
-    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final Preferences preferences = Preferences.userNodeForPackage(NavigationFormatParser.class);
+    private static final int HEADER_SIZE = 4 * 1024;
+    private static final long DETECTION_THREAD_KEEP_ALIVE_SECONDS = 60;
+    private static ExecutorService detectionExecutor;
+    private static int detectionExecutorThreads;
 
     private final List<NavigationFormatParserListener> listeners = new CopyOnWriteArrayList<NavigationFormatParserListener>();
 
@@ -96,49 +115,149 @@ public class NavigationFormatParser {
         return positionCounts;
     }
 
-    @SuppressWarnings("unchecked")
-    private void internalRead(InputStream buffer, int readBufferSize, CompactCalendar startDate,
-                              List<NavigationFormat> formats, ParserContext context) throws IOException {
+    private byte[] readHeader(InputStreamSource source) throws IOException {
+        InputStream inputStream = source.open();
+        try {
+            byte[] header = new byte[HEADER_SIZE];
+            int count = 0;
+            while (count < header.length) {
+                int read = inputStream.read(header, count, header.length - count);
+                if (read == -1)
+                    break;
+                count += read;
+            }
+            return count < header.length ? copyOf(header, count) : header;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static int getDetectionThreadsPreference() {
+        return max(preferences.getInt("detectionThreads", 1), 1);
+    }
+
+    private static synchronized ExecutorService getDetectionExecutor(int threads) {
+        // if the preference changed, parsers that still use the old pool may keep submitting to
+        // it, so it's not shut down but its idle threads terminate after a while
+        if (detectionExecutor == null || detectionExecutorThreads != threads) {
+            detectionExecutorThreads = threads;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                    DETECTION_THREAD_KEEP_ALIVE_SECONDS, SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        private int count = 0;
+
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "FormatDetection-" + (++count));
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            detectionExecutor = executor;
+        }
+        return detectionExecutor;
+    }
+
+    private boolean read(NavigationFormat<BaseRoute> format, InputStreamSource source, CompactCalendar startDate,
+                         ParserContext<BaseRoute> context) throws IOException {
         int routeCountBefore = context.getRoutes().size();
+        log.fine(format("Trying to read with %s", format));
+        // every format gets a fresh stream from the source instead of a reset buffer
+        InputStream inputStream = source.open();
         try {
-            for (NavigationFormat<BaseRoute> format : formats) {
-                notifyReading(format);
+            format.read(inputStream, startDate, context);
+        } catch (Exception e) {
+            log.severe(format("Error reading with %s: %s, %s", format, e.getClass(), e.getMessage()));
+        } finally {
+            inputStream.close();
+        }
+        return context.getRoutes().size() > routeCountBefore;
+    }
 
-                log.fine(format("Trying to read with %s", format));
-                try {
-                    format.read(buffer, startDate, context);
-                } catch (Exception e) {
-                    log.severe(format("Error reading with %s: %s, %s", format, e.getClass(), e.getMessage()));
+    @SuppressWarnings("unchecked")
+    private void internalRead(InputStreamSource source, CompactCalendar startDate,
+                              List<NavigationFormat> formats, InternalParserContext<BaseRoute> context) throws IOException {
+        // try the formats whose signature is found in the header first
+        List<NavigationFormat> candidates = sortByPlausibility(formats, readHeader(source));
+        int threads = getDetectionThreadsPreference();
+        if (threads > 1 && context.isConcurrentReading() && candidates.size() > 1)
+            readConcurrently(candidates, source, startDate, context, getDetectionExecutor(threads));
+        else
+            readSequentially(candidates, source, startDate, context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readSequentially(List<NavigationFormat> candidates, InputStreamSource source, CompactCalendar startDate,
+                                  ParserContext<BaseRoute> context) throws IOException {
+        for (NavigationFormat<BaseRoute> format : candidates) {
+            notifyReading(format);
+
+            if (read(format, source, startDate, context)) {
+                context.addFormat(format);
+                break;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readConcurrently(List<NavigationFormat> candidates, final InputStreamSource source,
+                                  final CompactCalendar startDate, ParserContext<BaseRoute> context,
+                                  ExecutorService executor) throws IOException {
+        // speculatively read with all formats that allow it, each into a context of its own;
+        // the first successful format in the order of the candidates wins as if read sequentially
+        Map<NavigationFormat, Future<ParserContext<BaseRoute>>> speculations =
+                new HashMap<NavigationFormat, Future<ParserContext<BaseRoute>>>();
+        for (final NavigationFormat<BaseRoute> format : candidates) {
+            if (!format.isSupportsConcurrentReading())
+                continue;
+
+            speculations.put(format, executor.submit(new Callable<ParserContext<BaseRoute>>() {
+                public ParserContext<BaseRoute> call() throws Exception {
+                    // nested parsing stays sequential since it would wait for the busy detection threads
+                    InternalParserContext<BaseRoute> speculation = new InternalParserContext<BaseRoute>(false);
+                    return read(format, source, startDate, speculation) ? speculation : null;
                 }
+            }));
+        }
 
-                if (context.getRoutes().size() > routeCountBefore) {
-                    context.addFormat(format);
-                    break;
+        try {
+            for (NavigationFormat<BaseRoute> format : candidates) {
+                notifyReading(format);
+
+                Future<ParserContext<BaseRoute>> speculation = speculations.get(format);
+                if (speculation == null) {
+                    if (read(format, source, startDate, context)) {
+                        context.addFormat(format);
+                        break;
+                    }
+                    continue;
                 }
 
+                ParserContext<BaseRoute> result = null;
                 try {
-                    buffer.reset();
-                } catch (IOException e) {
-                    // Resetting to invalid mark - if the read buffer is not large enough
-                    log.severe(format("No known format found within %d bytes; increase the read buffer", readBufferSize));
+                    result = speculation.get();
+                } catch (InterruptedException e) {
+                    throw new IOException("Interrupted while reading with " + format);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    log.severe(format("Error reading with %s: %s, %s", format, cause.getClass(), cause.getMessage()));
+                }
+
+                if (result != null) {
+                    context.appendRoutes(result.getRoutes());
+                    context.addFormat(format);
                     break;
                 }
             }
         } finally {
-            buffer.close();
+            for (Future<ParserContext<BaseRoute>> speculation : speculations.values())
+                speculation.cancel(true);
         }
     }
 
     public ParserResult read(File source, List<NavigationFormat> formats) throws IOException {
         log.info("Reading '" + source.getAbsolutePath() + "' by " + formats.size() + " formats");
-        FileInputStream fis = new FileInputStream(source);
-        NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(fis, (int) source.length() + 1));
-        buffer.mark((int) source.length() + 1);
-        try {
-            return read(buffer, (int) source.length(), getStartDate(source), formats);
-        } finally {
-            buffer.closeUnderlyingInputStream();
-        }
+        return read(fromFile(source), getStartDate(source), formats);
     }
 
     public ParserResult read(File source) throws IOException {
@@ -195,56 +314,62 @@ public class NavigationFormatParser {
     }
 
     private class InternalParserContext<R extends BaseRoute> extends ParserContextImpl<R> {
-        public void parse(InputStream inputStream, int readBufferSize, CompactCalendar startDate, List<NavigationFormat> formats) throws IOException {
-            internalRead(inputStream, readBufferSize, startDate, formats, this);
+        private final boolean concurrentReading;
+
+        public InternalParserContext(boolean concurrentReading) {
+            this.concurrentReading = concurrentReading;
         }
 
+        public boolean isConcurrentReading() {
+            return concurrentReading;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void parse(InputStream inputStream, CompactCalendar startDate, List<NavigationFormat> formats) throws IOException {
+            InputStreamSource source = fromInputStream(inputStream);
+            try {
+                internalRead(source, startDate, formats, (InternalParserContext<BaseRoute>) this);
+            } finally {
+                source.dispose();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
         public void parse(String urlString) throws IOException {
             // replace CWD with current working directory for easier testing
             urlString = urlString.replace("CWD", new File(".").getCanonicalPath()).replace(separatorChar, '/');
             URL url = new URL(urlString);
-            int readBufferSize = getSize(url);
-            log.info("Reading '" + url + "' with a buffer of " + readBufferSize + " bytes");
-            NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(url.openStream(), readBufferSize + 1));
-            buffer.mark(readBufferSize + 1);
+            log.info("Reading '" + url + "'");
+            InputStreamSource source = fromUrl(url);
             try {
-                internalRead(buffer, readBufferSize, getStartDate(url), getReadFormats(), this);
+                internalRead(source, getStartDate(url), getReadFormats(), (InternalParserContext<BaseRoute>) this);
             } finally {
-                buffer.closeUnderlyingInputStream();
+                source.dispose();
             }
         }
     }
 
-    private ParserResult read(InputStream source, int readBufferSize, CompactCalendar startDate,
+    private ParserResult read(InputStreamSource source, CompactCalendar startDate,
                               List<NavigationFormat> formats) throws IOException {
-        log.fine("Reading '" + source + "' with a buffer of " + readBufferSize + " bytes by " + formats.size() + " formats");
-        NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(source, readBufferSize + 1));
-        buffer.mark(readBufferSize + 1);
+        log.fine("Reading '" + source + "' with " + source.getSize() + " bytes by " + formats.size() + " formats");
         try {
-            ParserContext<BaseRoute> context = new InternalParserContext<BaseRoute>();
-            internalRead(buffer, readBufferSize, startDate, formats, context);
+            InternalParserContext<BaseRoute> context = new InternalParserContext<BaseRoute>(true);
+            internalRead(source, startDate, formats, context);
             return createResult(context);
         } finally {
-            buffer.closeUnderlyingInputStream();
+            source.dispose();
         }
     }
 
     public ParserResult read(String source) throws IOException {
-        return read(new ByteArrayInputStream(source.getBytes()));
+        return read(fromBytes(source.getBytes()), null, getReadFormats());
     }
 
     public ParserResult read(InputStream source) throws IOException {
-        return read(source, READ_BUFFER_SIZE, null, getReadFormats());
-    }
-
-    private int getSize(URL url) throws IOException {
         try {
-            if (url.getProtocol().equals("file"))
-                return (int) new File(url.toURI()).length();
-            else
-                return READ_BUFFER_SIZE;
-        } catch (URISyntaxException e) {
-            throw new IOException("Cannot determine file from URL: " + e.getMessage());
+            return read(fromInputStream(source), null, getReadFormats());
+        } finally {
+            source.close();
         }
     }
 
@@ -270,12 +395,11 @@ public class NavigationFormatParser {
             byte[] bytes = url.toExternalForm().getBytes();
             List<NavigationFormat> readFormats = new ArrayList<NavigationFormat>(formats);
             readFormats.add(0, new GoogleMapsUrlFormat());
-            return read(new ByteArrayInputStream(bytes), bytes.length, null, readFormats);
+            return read(fromBytes(bytes), null, readFormats);
         }
 
-        int readBufferSize = getSize(url);
-        log.info("Reading '" + url + "' with a buffer of " + readBufferSize + " bytes");
-        return read(url.openStream(), readBufferSize, getStartDate(url), formats);
+        log.info("Reading '" + url + "' by " + formats.size() + " formats");
+        return read(fromUrl(url), getStartDate(url), formats);
     }
 
 
@@ -128,6 +128,8 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Arrays.asList;
 import static java.util.Arrays.sort;
@@ -141,6 +143,7 @@ import static slash.common.io.Transfer.trim;
 
 public final class NavigationFormats {
     private static final List<Class<? extends NavigationFormat>> SUPPORTED_FORMATS = new ArrayList<Class<? extends NavigationFormat>>();
+    private static final Map<List<Class<?>>, Method> conversions = new ConcurrentHashMap<List<Class<?>>, Method>();
 
     static {
         // self-implemented formats
@@ -325,6 +328,30 @@ public final class NavigationFormats {
         return formats;
     }
 
+    public static List<NavigationFormat> sortByPlausibility(List<NavigationFormat> formats, byte[] header) {
+        List<NavigationFormat> likely = new ArrayList<NavigationFormat>();
+        List<NavigationFormat> possible = new ArrayList<NavigationFormat>();
+        List<NavigationFormat> unlikely = new ArrayList<NavigationFormat>();
+        for (NavigationFormat format : formats) {
+            switch (format.getPlausibility(header)) {
+                case Likely:
+                    likely.add(format);
+                    break;
+                case Possible:
+                    possible.add(format);
+                    break;
+                default:
+                    unlikely.add(format);
+            }
+        }
+
+        List<NavigationFormat> result = new ArrayList<NavigationFormat>(formats.size());
+        result.addAll(likely);
+        result.addAll(possible);
+        result.addAll(unlikely);
+        return result;
+    }
+
     public static List<NavigationFormat> getWriteFormatsWithPreferredFormats(List<NavigationFormat> preferredFormats) {
         List<NavigationFormat> formats = new ArrayList<NavigationFormat>(getWriteFormatsSortedByName());
         formats.removeAll(preferredFormats);
@@ -345,18 +372,38 @@ public final class NavigationFormats {
         return buffer.toString();
     }
 
-    /* package local for tests */static BaseNavigationPosition asFormat(NavigationPosition position, NavigationFormat format) throws IOException {
-        BaseNavigationPosition result;
-        String formatName = getFormatName(format);
-        formatName = formatName.replace("Format", "Position");
-        formatName = removeDigits(formatName);
+    private static Method getConversion(Class<?> sourceClass, NavigationFormat format, boolean position) throws IOException {
+        // the as...() method only depends on the classes of source and format, so it is resolved once per pair
+        List<Class<?>> key = asList(new Class<?>[]{sourceClass, format.getClass()});
+        Method method = conversions.get(key);
+        if (method == null) {
+            String formatName = getFormatName(format);
+            if (position) {
+                formatName = formatName.replace("Format", "Position");
+                formatName = removeDigits(formatName);
+            }
+            try {
+                method = sourceClass.getMethod("as" + formatName, new Class[0]);
+                method.setAccessible(true);
+            } catch (Exception e) {
+                throw new IOException("Cannot find as" + formatName + "() on " + sourceClass, e);
+            }
+            conversions.put(key, method);
+        }
+        return method;
+    }
+
+    private static Object convert(Object source, NavigationFormat format, boolean position) throws IOException {
+        Method method = getConversion(source.getClass(), format, position);
         try {
-            Method method = position.getClass().getMethod("as" + formatName, new Class[0]);
-            result = (BaseNavigationPosition) method.invoke(position);
+            return method.invoke(source);
         } catch (Exception e) {
-            throw new IOException("Cannot call as" + formatName + "() on " + position, e);
+            throw new IOException("Cannot call " + method.getName() + "() on " + source, e);
         }
-        return result;
+    }
+
+    /* package local for tests */static BaseNavigationPosition asFormat(NavigationPosition position, NavigationFormat format) throws IOException {
+        return (BaseNavigationPosition) convert(position, format, true);
     }
 
     public static List<BaseNavigationPosition> asFormatForPositions(List<NavigationPosition> positions, NavigationFormat format) throws IOException {
@@ -369,15 +416,7 @@ public final class NavigationFormats {
 
     @SuppressWarnings("unchecked")
     public static BaseRoute<BaseNavigationPosition, BaseNavigationFormat> asFormat(BaseRoute route, NavigationFormat format) throws IOException {
-        BaseRoute<BaseNavigationPosition, BaseNavigationFormat> result;
-        String formatName = getFormatName(format);
-        try {
-            Method method = route.getClass().getMethod("as" + formatName, new Class[0]);
-            result = (BaseRoute<BaseNavigationPosition, BaseNavigationFormat>) method.invoke(route);
-        } catch (Exception e) {
-            throw new IOException("Cannot call as" + formatName + "() on " + route, e);
-        }
-        return result;
+        return (BaseRoute<BaseNavigationPosition, BaseNavigationFormat>) convert(route, format, false);
     }
 
     public static List<BaseRoute> asFormatForRoutes(List<BaseRoute> routes, NavigationFormat format) throws IOException {
@@ -21,6 +21,7 @@
 package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
+import slash.common.util.DistanceAlgorithm;
 
 /**
  * A navigation position.
@@ -89,6 +90,16 @@ public interface NavigationPosition {
      *         or null if the distance cannot be calculated
      */
     Double calculateDistance(NavigationPosition other);
+
+    /**
+     * Calculate the distance in meters between this and the other position with the given algorithm.
+     *
+     * @param other the other position
+     * @param algorithm the algorithm to calculate the distance with
+     * @return the distance in meters between this and the other position
+     *         or null if the distance cannot be calculated
+     */
+    Double calculateDistance(NavigationPosition other, DistanceAlgorithm algorithm);
     Double calculateDistance(double longitude, double latitude);
 
     /**
@@ -0,0 +1,40 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+/**
+ * Enumeration of the plausibility that a {@link NavigationFormat} is able to
+ * read a stream as judged from the first bytes of it.
+ *
+ * Likely: the header contains a signature of the format like magic bytes,
+ * the XML root element and namespace or characteristic sentences or sections.
+ *
+ * Possible: the header gives no hint for or against the format.
+ *
+ * Unlikely: the header contradicts the format, i.e. it is no XML or no ZIP
+ * archive. The format is tried anyway but only after all other formats.
+ *
+ * @author Christian Pesch
+ */
+
+public enum Plausibility {
+    Likely, Possible, Unlikely
+}
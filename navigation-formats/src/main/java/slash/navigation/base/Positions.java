@@ -22,10 +22,26 @@ package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import static java.lang.Double.POSITIVE_INFINITY;
 import static java.lang.Math.abs;
+import static java.lang.Math.cos;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toRadians;
+import static java.lang.Runtime.getRuntime;
 import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static slash.common.io.Transfer.isEmpty;
 import static slash.common.type.CompactCalendar.fromMillis;
 
@@ -37,35 +53,297 @@ import static slash.common.type.CompactCalendar.fromMillis;
 
 public class Positions {
     private static final double DIV_BY_ZERO_AVOIDANCE_OFFSET = 0.000000000001;
+    private static final double PLANAR_MAXIMUM_DEGREES = 0.1;
+    private static final int PARALLEL_MINIMUM_POSITIONS = 50000;
+    private static final int PARALLEL_MINIMUM_CHUNK = 10000;
+    private static final int PROCESSORS = getRuntime().availableProcessors();
 
-    private static int[] douglasPeuckerSimplify(List<? extends NavigationPosition> positions, int from, int to, double threshold) {
-        // find the point with the maximum distance
-        NavigationPosition pointA = positions.get(from);
-        NavigationPosition pointB = positions.get(to);
+    private static final ExecutorService simplifier = newFixedThreadPool(PROCESSORS, new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "SignificantPositions");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * The line between the start and the end of a span of positions. For spans that cover only a few
+     * kilometers the positions are projected onto a plane around the start and the orthogonal distance
+     * is compared via a cross product which avoids the expensive {@link slash.common.util.Bearing} calculation.
+     */
+    private static class Segment {
+        private final NavigationPosition pointA, pointB;
+        private boolean planar;
+        private double longitudeA, latitudeA, longitudeScale, deltaX, deltaY;
+
+        Segment(NavigationPosition pointA, NavigationPosition pointB) {
+            this.pointA = pointA;
+            this.pointB = pointB;
+
+            if (pointA.hasCoordinates() && pointB.hasCoordinates()) {
+                longitudeA = pointA.getLongitude();
+                latitudeA = pointA.getLatitude();
+                longitudeScale = cos(toRadians((latitudeA + pointB.getLatitude()) / 2));
+                deltaX = (pointB.getLongitude() - longitudeA) * longitudeScale;
+                deltaY = pointB.getLatitude() - latitudeA;
+                planar = abs(pointB.getLongitude() - longitudeA) <= PLANAR_MAXIMUM_DEGREES &&
+                        abs(deltaY) <= PLANAR_MAXIMUM_DEGREES && (deltaX != 0.0 || deltaY != 0.0);
+            }
+        }
+
+        /**
+         * @return a value that is only suitable to compare the distances of the positions to this segment
+         */
+        double distance(NavigationPosition position) {
+            if (!planar)
+                return abs(position.calculateOrthogonalDistance(pointA, pointB));
+
+            double x = (position.getLongitude() - longitudeA) * longitudeScale;
+            double y = position.getLatitude() - latitudeA;
+            return abs(deltaX * y - deltaY * x);
+        }
+
+        double orthogonalDistance(NavigationPosition position) {
+            return abs(position.calculateOrthogonalDistance(pointA, pointB));
+        }
+
+        int findMaximumDistanceIndex(List<? extends NavigationPosition> positions, int from, int to) {
+            int maximumDistanceIndex = -1;
+            double maximumDistance = 0.0;
+            for (int i = from; i < to; i++) {
+                NavigationPosition position = positions.get(i);
+                if (position.hasCoordinates()) {
+                    double distance = distance(position);
+                    if (distance > maximumDistance) {
+                        maximumDistance = distance;
+                        maximumDistanceIndex = i;
+                    }
+                }
+            }
+            return maximumDistanceIndex;
+        }
+    }
+
+    private static int findMaximumDistanceIndexInParallel(final List<? extends NavigationPosition> positions,
+                                                          final Segment segment, int from, int to) {
+        int chunk = max(PARALLEL_MINIMUM_CHUNK, (to - from) / (PROCESSORS * 4));
+        List<Callable<Integer>> searches = new ArrayList<Callable<Integer>>();
+        for (int i = from + 1; i < to; i += chunk) {
+            final int chunkFrom = i, chunkTo = min(i + chunk, to);
+            searches.add(new Callable<Integer>() {
+                public Integer call() {
+                    return segment.findMaximumDistanceIndex(positions, chunkFrom, chunkTo);
+                }
+            });
+        }
+
+        // combine in the order of the chunks to find the same position as the sequential search
         int maximumDistanceIndex = -1;
         double maximumDistance = 0.0;
-        for (int i = from + 1; i < to; i++) {
-            NavigationPosition position = positions.get(i);
-            if (position.hasCoordinates()) {
-                double distance = abs(position.calculateOrthogonalDistance(pointA, pointB));
+        for (Integer index : invokeAll(searches)) {
+            if (index != -1) {
+                double distance = segment.distance(positions.get(index));
                 if (distance > maximumDistance) {
                     maximumDistance = distance;
-                    maximumDistanceIndex = i;
+                    maximumDistanceIndex = index;
                 }
             }
         }
+        return maximumDistanceIndex;
+    }
 
-        // if maximum distance is greater than threshold, recursively simplify
-        if ((maximumDistanceIndex != -1) && (maximumDistance > threshold)) {
-            int[] res1 = douglasPeuckerSimplify(positions, from, maximumDistanceIndex, threshold);
-            int[] res2 = douglasPeuckerSimplify(positions, maximumDistanceIndex, to, threshold);
+    private static <T> List<T> invokeAll(List<Callable<T>> callables) {
+        List<T> result = new ArrayList<T>(callables.size());
+        try {
+            for (Future<T> future : simplifier.invokeAll(callables))
+                result.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.clear();
+            for (Callable<T> callable : callables) {
+                try {
+                    result.add(callable.call());
+                } catch (Exception e2) {
+                    throw new IllegalStateException(e2);
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+        return result;
+    }
+
+    private static class Span {
+        private final int from, to;
+        private final double significance;
 
-            int[] result = new int[res1.length - 1 + res2.length];
-            arraycopy(res1, 0, result, 0, res1.length - 1);
-            arraycopy(res2, 0, result, res1.length - 1, res2.length);
-            return result;
-        } else
-            return new int[]{from, to};
+        Span(int from, int to, double significance) {
+            this.from = from;
+            this.to = to;
+            this.significance = significance;
+        }
+    }
+
+    private static void douglasPeuckerSimplify(List<? extends NavigationPosition> positions, Span span,
+                                               double threshold, double[] significances, int offset,
+                                               List<Span> deferredSpans) {
+        // an explicit stack of from and to indices and the significance of their parent instead of recursion
+        int[] indices = new int[64];
+        double[] parentSignificances = new double[32];
+        int size = 0;
+        indices[0] = span.from;
+        indices[1] = span.to;
+        parentSignificances[0] = span.significance;
+        size++;
+
+        while (size > 0) {
+            size--;
+            int from = indices[size * 2];
+            int to = indices[size * 2 + 1];
+            double parentSignificance = parentSignificances[size];
+            if (to - from < 2)
+                continue;
+
+            boolean large = to - from > PARALLEL_MINIMUM_POSITIONS;
+            if (deferredSpans != null && !large) {
+                deferredSpans.add(new Span(from, to, parentSignificance));
+                continue;
+            }
+
+            // find the point with the maximum distance
+            Segment segment = new Segment(positions.get(from), positions.get(to));
+            int maximumDistanceIndex = deferredSpans != null ?
+                    findMaximumDistanceIndexInParallel(positions, segment, from, to) :
+                    segment.findMaximumDistanceIndex(positions, from + 1, to);
+            if (maximumDistanceIndex == -1)
+                continue;
+
+            // if maximum distance is greater than threshold, simplify both halves
+            double distance = segment.orthogonalDistance(positions.get(maximumDistanceIndex));
+            if (distance > threshold) {
+                double significance = min(distance, parentSignificance);
+                significances[maximumDistanceIndex - offset] = significance;
+
+                if (size + 2 > parentSignificances.length) {
+                    indices = copyOf(indices, indices.length * 2);
+                    parentSignificances = copyOf(parentSignificances, parentSignificances.length * 2);
+                }
+                indices[size * 2] = maximumDistanceIndex;
+                indices[size * 2 + 1] = to;
+                parentSignificances[size++] = significance;
+                indices[size * 2] = from;
+                indices[size * 2 + 1] = maximumDistanceIndex;
+                parentSignificances[size++] = significance;
+            }
+        }
+    }
+
+    private static void douglasPeuckerSimplifyInParallel(final List<? extends NavigationPosition> positions, Span span,
+                                                         final double threshold, double[] significances) {
+        List<Span> deferredSpans = new ArrayList<Span>();
+        douglasPeuckerSimplify(positions, span, threshold, significances, 0, deferredSpans);
+
+        List<Callable<double[]>> simplifications = new ArrayList<Callable<double[]>>();
+        for (final Span deferredSpan : deferredSpans) {
+            simplifications.add(new Callable<double[]>() {
+                public double[] call() {
+                    double[] result = new double[deferredSpan.to - deferredSpan.from + 1];
+                    douglasPeuckerSimplify(positions, deferredSpan, threshold, result, deferredSpan.from, null);
+                    return result;
+                }
+            });
+        }
+
+        List<double[]> results = invokeAll(simplifications);
+        for (int i = 0; i < results.size(); i++) {
+            Span deferredSpan = deferredSpans.get(i);
+            double[] result = results.get(i);
+            arraycopy(result, 1, significances, deferredSpan.from + 1, result.length - 2);
+        }
+    }
+
+    private static void calculateSignificances(List<? extends NavigationPosition> positions, int from, int to,
+                                               double threshold, double[] significances, boolean parallel) {
+        if (to - from < 2)
+            return;
+
+        Span span = new Span(from, to, min(significances[from], significances[to]));
+        fill(significances, from + 1, to, 0.0);
+        if (parallel && PROCESSORS > 1 && to - from > PARALLEL_MINIMUM_POSITIONS)
+            douglasPeuckerSimplifyInParallel(positions, span, threshold, significances);
+        else
+            douglasPeuckerSimplify(positions, span, threshold, significances, 0, null);
+    }
+
+    private static double[] calculateSignificances(List<? extends NavigationPosition> positions, double threshold,
+                                                   boolean parallel) {
+        double[] significances = new double[positions.size()];
+        if (positions.size() > 0) {
+            significances[0] = POSITIVE_INFINITY;
+            significances[positions.size() - 1] = POSITIVE_INFINITY;
+            calculateSignificances(positions, 0, positions.size() - 1, threshold, significances, parallel);
+        }
+        return significances;
+    }
+
+    /**
+     * Calculate the significance of the positions with the Douglas-Peucker-Algorithm.
+     * <p/>
+     * The significance of a position is the largest threshold at which it still is significant,
+     * i.e. the positions with a significance greater than a threshold are the result of
+     * {@link #getSignificantPositions(List, double)} for this threshold. The first and the last
+     * position are always significant.
+     *
+     * @param positions the original list of positions
+     * @return the significance of each position of the original list of positions in meter
+     */
+    public static double[] calculateSignificances(List<? extends NavigationPosition> positions) {
+        return calculateSignificances(positions, 0.0, true);
+    }
+
+    /**
+     * Recalculate the significance of the positions between two positions after the
+     * positions between them have been changed.
+     *
+     * @param positions the list of positions
+     * @param from the index of the position before the changed positions
+     * @param to the index of the position after the changed positions
+     * @param significances the significances of the positions which are updated between from and to
+     */
+    public static void updateSignificances(List<? extends NavigationPosition> positions, int from, int to,
+                                           double[] significances) {
+        calculateSignificances(positions, from, to, 0.0, significances, true);
+    }
+
+    static BitSet markSignificantPositions(List<? extends NavigationPosition> positions, double threshold,
+                                           boolean parallel) {
+        double[] significances = calculateSignificances(positions, threshold, parallel);
+        BitSet significant = new BitSet(positions.size());
+        for (int i = 0; i < significances.length; i++) {
+            if (significances[i] > threshold)
+                significant.set(i);
+        }
+        return significant;
+    }
+
+    /**
+     * Mark the significant positions with the Douglas-Peucker-Algorithm.
+     * <p/>
+     * http://de.wikipedia.org/wiki/Douglas-Peucker-Algorithmus
+     * <p/>
+     * Spans of more than 50.000 positions are searched and simplified in parallel.
+     *
+     * @param positions the original list of positions
+     * @param threshold determines the threshold for significance in meter
+     * @return a bit set with the indices of the significant positions of the original list of positions
+     */
+    public static BitSet markSignificantPositions(List<? extends NavigationPosition> positions, double threshold) {
+        return markSignificantPositions(positions, threshold, true);
     }
 
     /**
@@ -78,7 +356,12 @@ public class Positions {
      * @return an array of indices to the original list of positions with the significant positions
      */
     public static int[] getSignificantPositions(List<? extends NavigationPosition> positions, double threshold) {
-        return douglasPeuckerSimplify(positions, 0, positions.size() - 1, threshold);
+        BitSet significant = markSignificantPositions(positions, threshold);
+        int[] result = new int[significant.cardinality()];
+        int index = 0;
+        for (int i = significant.nextSetBit(0); i >= 0; i = significant.nextSetBit(i + 1))
+            result[index++] = i;
+        return result;
     }
 
     public static CompactCalendar extrapolateTime(NavigationPosition position, NavigationPosition predecessor, NavigationPosition beforePredecessor) {
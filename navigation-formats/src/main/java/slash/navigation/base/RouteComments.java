@@ -32,6 +32,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.prefs.Preferences;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -353,7 +354,11 @@ public abstract class RouteComments {
         if (string == null)
             return null;
         try {
-            Date parsed = dateFormat.parse(string);
+            Date parsed;
+            // the formats are shared between concurrently reading formats
+            synchronized (dateFormat) {
+                parsed = dateFormat.parse(string);
+            }
             return CompactCalendar.fromDate(parsed);
         } catch (ParseException e) {
             return null;
@@ -390,244 +395,319 @@ public abstract class RouteComments {
         return !isEmpty(aDouble) ? aDouble : null;
     }
 
-    public static void parseComment(NavigationPosition position, String comment) {
-        Matcher matcher = TRIPMASTER_14_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTripmaster14Time(matcher.group(2)));
-            position.setElevation(parseDouble(matcher.group(3)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String reason = trim(matcher.group(1));
-                tomTomPosition.setReason(reason);
-                tomTomPosition.setHeading(parseTripmasterHeading(reason));
-                tomTomPosition.setCity(trim(matcher.group(4)));
-            }
+    /**
+     * Recognizes comments which encode values of a position and applies them to the position.
+     */
+    public static abstract class CommentRecognizer {
+        /**
+         * A cheap test that rejects comments that cannot be recognized, e.g. by their first character.
+         *
+         * @param comment the non-empty comment
+         * @return false if the comment is certainly not recognized
+         */
+        protected abstract boolean isCandidate(String comment);
+
+        protected abstract void parse(NavigationPosition position, String comment);
+    }
 
-            if  (position instanceof Wgs84Position) {
-                Wgs84Position wgs84Position = (Wgs84Position) position;
-                String reason = trim(matcher.group(1));
-                wgs84Position.setHeading(parseTripmasterHeading(reason));
-            }
+    private static abstract class PatternRecognizer extends CommentRecognizer {
+        private final Pattern pattern;
+        private final String firstCharacters, keyword;
+
+        PatternRecognizer(Pattern pattern, String firstCharacters, String keyword) {
+            this.pattern = pattern;
+            this.firstCharacters = firstCharacters;
+            this.keyword = keyword;
         }
 
-        matcher = TRIPMASTER_18_SHORT_STARTEND_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            String dateStr = trim(matcher.group(4));
-            String timeStr = trim(matcher.group(5));
-            position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
-            if (position.getTime() == null)
-                position.setTime(parseTripmaster14Time(timeStr));
-            position.setElevation(parseDouble(matcher.group(6)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String city = trim(matcher.group(3));
-                if (city == null) {
-                    city = dateStr;
-                    dateStr = null;
-                }
-                tomTomPosition.setReason(trim(matcher.group(1)) + " : " + (dateStr != null ? dateStr + " - " : "") + timeStr);
-                tomTomPosition.setCity(city);
-            }
+        protected boolean isCandidate(String comment) {
+            return (firstCharacters == null || firstCharacters.indexOf(comment.charAt(0)) != -1) &&
+                    (keyword == null || comment.contains(keyword));
         }
 
-        matcher = TRIPMASTER_18_SHORT_WAYPOINT_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTripmaster14Time(matcher.group(1)));
-            position.setElevation(parseDouble(matcher.group(2)));
+        protected void parse(NavigationPosition position, String comment) {
+            Matcher matcher = pattern.matcher(comment);
+            if (matcher.matches())
+                parse(position, matcher);
+        }
 
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                tomTomPosition.setReason("Waypoint");
-                tomTomPosition.setCity(null);
-            }
+        protected abstract void parse(NavigationPosition position, Matcher matcher);
+    }
 
-        }
+    private static final String DIGITS = "0123456789";
+    private static final List<CommentRecognizer> COMMENT_RECOGNIZERS = new CopyOnWriteArrayList<CommentRecognizer>();
+    static {
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_14_PATTERN, "DAKCRWP", " m - ") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTripmaster14Time(matcher.group(2)));
+                position.setElevation(parseDouble(matcher.group(3)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String reason = trim(matcher.group(1));
+                    tomTomPosition.setReason(reason);
+                    tomTomPosition.setHeading(parseTripmasterHeading(reason));
+                    tomTomPosition.setCity(trim(matcher.group(4)));
+                }
 
-        matcher = TRIPMASTER_25_SHORT_WAYPOINT_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTripmaster14Time(trim(matcher.group(1))));
-            position.setElevation(parseDouble(matcher.group(3)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String reason = trim(matcher.group(2));
-                tomTomPosition.setReason(reason);
-                tomTomPosition.setHeading(parseTripmasterHeading(reason));
-                tomTomPosition.setCity(null);
+                if  (position instanceof Wgs84Position) {
+                    Wgs84Position wgs84Position = (Wgs84Position) position;
+                    String reason = trim(matcher.group(1));
+                    wgs84Position.setHeading(parseTripmasterHeading(reason));
+                }
             }
-
-            if  (position instanceof Wgs84Position) {
-                Wgs84Position wgs84Position = (Wgs84Position) position;
-                String reason = trim(matcher.group(2));
-                wgs84Position.setHeading(parseTripmasterHeading(reason));
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_18_SHORT_STARTEND_PATTERN, "SEF", " : ") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                String dateStr = trim(matcher.group(4));
+                String timeStr = trim(matcher.group(5));
+                position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
+                if (position.getTime() == null)
+                    position.setTime(parseTripmaster14Time(timeStr));
+                position.setElevation(parseDouble(matcher.group(6)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String city = trim(matcher.group(3));
+                    if (city == null) {
+                        city = dateStr;
+                        dateStr = null;
+                    }
+                    tomTomPosition.setReason(trim(matcher.group(1)) + " : " + (dateStr != null ? dateStr + " - " : "") + timeStr);
+                    tomTomPosition.setCity(city);
+                }
             }
-        }
+        });
 
-        matcher = TRIPMASTER_25_SHORT_STARTEND_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            String dateStr = trim(matcher.group(4));
-            String timeStr = trim(matcher.group(5));
-            position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
-            position.setElevation(parseDouble(matcher.group(6)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String reason = trim(matcher.group(2));
-                tomTomPosition.setReason(reason);
-                tomTomPosition.setCity(null);
-            }
-        }
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_18_SHORT_WAYPOINT_PATTERN, DIGITS, " m") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTripmaster14Time(matcher.group(1)));
+                position.setElevation(parseDouble(matcher.group(2)));
 
-        matcher = TRIPMASTER_31_SHORT_STARTEND_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            String dateStr = trim(matcher.group(4));
-            String timeStr = trim(matcher.group(5));
-            position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
-            position.setElevation(parseDouble(matcher.group(6)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String reason = trim(matcher.group(2));
-                tomTomPosition.setReason(reason);
-                tomTomPosition.setCity(null);
-            }
-        }
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    tomTomPosition.setReason("Waypoint");
+                    tomTomPosition.setCity(null);
+                }
 
-        matcher = TRIPMASTER_MIDDLE_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTripmaster14Time(trim(matcher.group(1))));
-            position.setElevation(parseDouble(matcher.group(4)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String city = trim(matcher.group(3));
-                if (city != null && city.startsWith(": "))
-                    city = trim(city.substring(2, city.length()));
-                String reason = trim(matcher.group(2));
-                if (reason == null)
-                    reason = city;
-                tomTomPosition.setCity(city);
-                tomTomPosition.setReason(reason);
             }
-        }
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_25_SHORT_WAYPOINT_PATTERN, DIGITS, " m") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTripmaster14Time(trim(matcher.group(1))));
+                position.setElevation(parseDouble(matcher.group(3)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String reason = trim(matcher.group(2));
+                    tomTomPosition.setReason(reason);
+                    tomTomPosition.setHeading(parseTripmasterHeading(reason));
+                    tomTomPosition.setCity(null);
+                }
 
-        matcher = TRIPMASTER_LONG_NO_REASON_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTripmaster14Time(trim(matcher.group(1))));
-            position.setSpeed(parseDouble(matcher.group(6)));
-            position.setElevation(parseDouble(matcher.group(3)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String city = trim(matcher.group(2));
-                if (city != null && city.startsWith(": "))
-                    city = trim(city.substring(2, city.length()));
-                tomTomPosition.setCity(city);
-                tomTomPosition.setReason(city);
+                if  (position instanceof Wgs84Position) {
+                    Wgs84Position wgs84Position = (Wgs84Position) position;
+                    String reason = trim(matcher.group(2));
+                    wgs84Position.setHeading(parseTripmasterHeading(reason));
+                }
             }
-        }
-
-        matcher = TRIPMASTER_LONG_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTripmaster18Date(matcher.group(3)));
-            if (position.getTime() == null)
-                position.setTime(parseTripmaster14Time(matcher.group(1)));
-            position.setSpeed(parseDouble(matcher.group(9)));
-            position.setElevation(parseDouble(matcher.group(6)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String city = trim(matcher.group(5));
-                if (city != null && city.startsWith(": "))
-                    city = trim(city.substring(2, city.length()));
-                String reason = trim(matcher.group(2));
-                if (city == null)
-                    city = reason;
-                tomTomPosition.setCity(city);
-                tomTomPosition.setReason(reason);
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_25_SHORT_STARTEND_PATTERN, DIGITS, " : ") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                String dateStr = trim(matcher.group(4));
+                String timeStr = trim(matcher.group(5));
+                position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
+                position.setElevation(parseDouble(matcher.group(6)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String reason = trim(matcher.group(2));
+                    tomTomPosition.setReason(reason);
+                    tomTomPosition.setCity(null);
+                }
             }
-        }
-
-        matcher = LOGPOS_2_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseLogposDate(matcher.group(1)));
-            position.setSpeed(parseDouble(matcher.group(5)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                tomTomPosition.setReason(trim(matcher.group(4)));
-                tomTomPosition.setCity(trim(matcher.group(3)));
-                tomTomPosition.setHeading(parseDouble(matcher.group(6)));
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_31_SHORT_STARTEND_PATTERN, DIGITS, " : ") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                String dateStr = trim(matcher.group(4));
+                String timeStr = trim(matcher.group(5));
+                position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
+                position.setElevation(parseDouble(matcher.group(6)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String reason = trim(matcher.group(2));
+                    tomTomPosition.setReason(reason);
+                    tomTomPosition.setCity(null);
+                }
             }
-        }
-
-        matcher = LOGPOS_1_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseLogposDate(matcher.group(1)));
-            Double elevation;
-            try {
-                elevation = parseDouble(matcher.group(4));
-            } catch (NumberFormatException e) {
-                elevation = null;
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_MIDDLE_PATTERN, DIGITS, " m - ") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTripmaster14Time(trim(matcher.group(1))));
+                position.setElevation(parseDouble(matcher.group(4)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String city = trim(matcher.group(3));
+                    if (city != null && city.startsWith(": "))
+                        city = trim(city.substring(2, city.length()));
+                    String reason = trim(matcher.group(2));
+                    if (reason == null)
+                        reason = city;
+                    tomTomPosition.setCity(city);
+                    tomTomPosition.setReason(reason);
+                }
             }
-            position.setElevation(elevation);
-            position.setSpeed(parseDouble(matcher.group(7)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                tomTomPosition.setReason(trim(matcher.group(5)));
-                tomTomPosition.setCity(trim(matcher.group(3)));
-                tomTomPosition.setHeading(parseDouble(matcher.group(8)));
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_LONG_NO_REASON_PATTERN, DIGITS, "m/h") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTripmaster14Time(trim(matcher.group(1))));
+                position.setSpeed(parseDouble(matcher.group(6)));
+                position.setElevation(parseDouble(matcher.group(3)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String city = trim(matcher.group(2));
+                    if (city != null && city.startsWith(": "))
+                        city = trim(city.substring(2, city.length()));
+                    tomTomPosition.setCity(city);
+                    tomTomPosition.setReason(city);
+                }
             }
-        }
-
-        matcher = TTTRACKLOG_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            position.setTime(parseTTTracklogTime(matcher.group(1)));
-            position.setSpeed(parseDouble(matcher.group(5)));
-            Double elevation = parseDouble(matcher.group(6));
-            if(elevation == null)
-                elevation = parseDouble(matcher.group(4)); // pause with elevation
-            position.setElevation(elevation);
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                tomTomPosition.setReason(trim(matcher.group(2)));
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TRIPMASTER_LONG_PATTERN, DIGITS, "m/h") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTripmaster18Date(matcher.group(3)));
+                if (position.getTime() == null)
+                    position.setTime(parseTripmaster14Time(matcher.group(1)));
+                position.setSpeed(parseDouble(matcher.group(9)));
+                position.setElevation(parseDouble(matcher.group(6)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String city = trim(matcher.group(5));
+                    if (city != null && city.startsWith(": "))
+                        city = trim(city.substring(2, city.length()));
+                    String reason = trim(matcher.group(2));
+                    if (city == null)
+                        city = reason;
+                    tomTomPosition.setCity(city);
+                    tomTomPosition.setReason(reason);
+                }
             }
-        }
-
-        matcher = ROUTECONVERTER_STARTEND_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            String dateStr = trim(matcher.group(4));
-            String timeStr = trim(matcher.group(5));
-            position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
-            position.setElevation(parseDouble(matcher.group(6)));
-            position.setSpeed(parseDouble(matcher.group(7)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String reason = trim(matcher.group(2));
-                tomTomPosition.setReason(reason);
-                String city = trim(matcher.group(3));
-                tomTomPosition.setCity(city);
-                tomTomPosition.setHeading(parseDouble(matcher.group(9)));
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(LOGPOS_2_PATTERN, DIGITS, "(s=") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseLogposDate(matcher.group(1)));
+                position.setSpeed(parseDouble(matcher.group(5)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    tomTomPosition.setReason(trim(matcher.group(4)));
+                    tomTomPosition.setCity(trim(matcher.group(3)));
+                    tomTomPosition.setHeading(parseDouble(matcher.group(6)));
+                }
             }
-        }
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(LOGPOS_1_PATTERN, DIGITS, "@") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseLogposDate(matcher.group(1)));
+                Double elevation;
+                try {
+                    elevation = parseDouble(matcher.group(4));
+                } catch (NumberFormatException e) {
+                    elevation = null;
+                }
+                position.setElevation(elevation);
+                position.setSpeed(parseDouble(matcher.group(7)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    tomTomPosition.setReason(trim(matcher.group(5)));
+                    tomTomPosition.setCity(trim(matcher.group(3)));
+                    tomTomPosition.setHeading(parseDouble(matcher.group(8)));
+                }
+            }
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(TTTRACKLOG_PATTERN, DIGITS, ":") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                position.setTime(parseTTTracklogTime(matcher.group(1)));
+                position.setSpeed(parseDouble(matcher.group(5)));
+                Double elevation = parseDouble(matcher.group(6));
+                if(elevation == null)
+                    elevation = parseDouble(matcher.group(4)); // pause with elevation
+                position.setElevation(elevation);
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    tomTomPosition.setReason(trim(matcher.group(2)));
+                }
+            }
+        });
+
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(ROUTECONVERTER_STARTEND_PATTERN, "SEF", " deg") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                String dateStr = trim(matcher.group(4));
+                String timeStr = trim(matcher.group(5));
+                position.setTime(parseTripmaster18Date(dateStr + " " + timeStr));
+                position.setElevation(parseDouble(matcher.group(6)));
+                position.setSpeed(parseDouble(matcher.group(7)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String reason = trim(matcher.group(2));
+                    tomTomPosition.setReason(reason);
+                    String city = trim(matcher.group(3));
+                    tomTomPosition.setCity(city);
+                    tomTomPosition.setHeading(parseDouble(matcher.group(9)));
+                }
+            }
+        });
 
-        matcher = ROUTECONVERTER_INTERMEDIATE_PATTERN.matcher(comment);
-        if (matcher.matches()) {
-            String timeStr = trim(matcher.group(2));
-            position.setTime(parseTripmaster14Time(timeStr));
-            position.setElevation(parseDouble(matcher.group(3)));
-            position.setSpeed(parseDouble(matcher.group(4)));
-
-            if (position instanceof TomTomPosition) {
-                TomTomPosition tomTomPosition = (TomTomPosition) position;
-                String city = trim(matcher.group(1));
-                tomTomPosition.setCity(city);
-                tomTomPosition.setHeading(parseDouble(matcher.group(6)));
+        COMMENT_RECOGNIZERS.add(new PatternRecognizer(ROUTECONVERTER_INTERMEDIATE_PATTERN, null, " deg") {
+            protected void parse(NavigationPosition position, Matcher matcher) {
+                String timeStr = trim(matcher.group(2));
+                position.setTime(parseTripmaster14Time(timeStr));
+                position.setElevation(parseDouble(matcher.group(3)));
+                position.setSpeed(parseDouble(matcher.group(4)));
+
+                if (position instanceof TomTomPosition) {
+                    TomTomPosition tomTomPosition = (TomTomPosition) position;
+                    String city = trim(matcher.group(1));
+                    tomTomPosition.setCity(city);
+                    tomTomPosition.setHeading(parseDouble(matcher.group(6)));
+                }
             }
+        });
+    }
+
+    /**
+     * Adds a recognizer that is applied after the built-in ones.
+     *
+     * @param recognizer the recognizer to add
+     */
+    public static void addCommentRecognizer(CommentRecognizer recognizer) {
+        COMMENT_RECOGNIZERS.add(recognizer);
+    }
+
+    public static void parseComment(NavigationPosition position, String comment) {
+        if (comment.length() == 0)
+            return;
+
+        // every recognizer that matches is applied, later ones override values of earlier ones
+        for (CommentRecognizer recognizer : COMMENT_RECOGNIZERS) {
+            if (recognizer.isCandidate(comment))
+                recognizer.parse(position, comment);
         }
     }
 }
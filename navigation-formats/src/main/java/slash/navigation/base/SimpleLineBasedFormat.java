@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.prefs.Preferences;
 
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 
@@ -36,6 +37,7 @@ import static slash.navigation.base.RouteCharacteristics.Waypoints;
  */
 
 public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends SimpleFormat<R> {
+    private static final Preferences preferences = Preferences.userNodeForPackage(SimpleLineBasedFormat.class);
 
     public int getMaximumPositionCount() {
         return UNLIMITED_MAXIMUM_POSITION_COUNT;
@@ -47,7 +49,9 @@ public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends Simpl
     }
 
     public void read(BufferedReader reader, CompactCalendar startDate, String encoding, ParserContext<R> context) throws IOException {
-        List<Wgs84Position> positions = new ArrayList<Wgs84Position>();
+        // large logs may be kept column by column instead of one object per position
+        boolean columnarPositions = preferences.getBoolean("columnarPositions", false);
+        List<Wgs84Position> positions = columnarPositions ? new ColumnarPositions() : new ArrayList<Wgs84Position>();
 
         int lineCount = 0;
         while (true) {
@@ -68,8 +72,11 @@ public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends Simpl
             }
         }
 
-        if (positions.size() > 0)
+        if (positions.size() > 0) {
+            if (columnarPositions)
+                ((ColumnarPositions) positions).trimToSize();
             context.appendRoute(createRoute(getRouteCharacteristics(), positions));
+        }
     }
 
     protected int getGarbleCount() {
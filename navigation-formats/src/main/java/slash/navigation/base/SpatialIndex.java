@@ -0,0 +1,222 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.cos;
+import static java.lang.Math.floor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.sort;
+import static slash.navigation.base.Positions.contains;
+
+/**
+ * Indexes the positions of a {@link BaseRoute} in a grid of cells to find the
+ * positions within a bounding box and the position closest to a point without
+ * looking at all positions.
+ * <p/>
+ * The index is built lazily. Moved positions are remembered and looked at for each query
+ * until there are too many of them; inserted and removed positions invalidate the index,
+ * so that it is rebuilt the next time it is queried.
+ *
+ * @author Christian Pesch
+ */
+
+public class SpatialIndex {
+    private static final int CELLS_PER_POSITION_ROOT = 4;
+    private static final int MAXIMUM_CELLS_PER_SIDE = 1 << 14;
+    private static final int MINIMUM_MOVED_POSITIONS = 64;
+    // a degree of latitude is at least 110574 meters on the WGS-84 ellipsoid
+    private static final double METERS_PER_DEGREE = 110000.0;
+    private static final double MAXIMUM_SEARCH_DEGREES = 1.0;
+    private static final double MAXIMUM_SEARCH_LATITUDE = 80.0;
+
+    private final BaseRoute route;
+    private final BitSet moved = new BitSet();
+    private long[] entries;
+    private double west, south, cellWidth, cellHeight;
+    private int columns, rows, positionCount;
+
+    public SpatialIndex(BaseRoute route) {
+        this.route = route;
+    }
+
+    public synchronized void invalidate() {
+        entries = null;
+        moved.clear();
+    }
+
+    /**
+     * Remember that the positions from firstIndex to lastIndex have been moved or replaced.
+     *
+     * @param firstIndex the index of the first changed position
+     * @param lastIndex  the index of the last changed position
+     */
+    public synchronized void update(int firstIndex, int lastIndex) {
+        if (entries == null)
+            return;
+        if (firstIndex < 0 || lastIndex >= positionCount ||
+                moved.cardinality() + lastIndex - firstIndex + 1 > max(MINIMUM_MOVED_POSITIONS, positionCount / 64)) {
+            invalidate();
+            return;
+        }
+        moved.set(firstIndex, lastIndex + 1);
+    }
+
+    private int getColumn(double longitude) {
+        return (int) max(0, min(columns - 1, floor((longitude - west) / cellWidth)));
+    }
+
+    private int getRow(double latitude) {
+        return (int) max(0, min(rows - 1, floor((latitude - south) / cellHeight)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<NavigationPosition> getPositions() {
+        return route.getPositions();
+    }
+
+    private void build() {
+        List<NavigationPosition> positions = getPositions();
+        double east = -Double.MAX_VALUE, north = -Double.MAX_VALUE;
+        west = Double.MAX_VALUE;
+        south = Double.MAX_VALUE;
+        int count = 0;
+        for (NavigationPosition position : positions) {
+            if (!position.hasCoordinates())
+                continue;
+            west = min(west, position.getLongitude());
+            east = max(east, position.getLongitude());
+            south = min(south, position.getLatitude());
+            north = max(north, position.getLatitude());
+            count++;
+        }
+
+        columns = rows = max(1, min(MAXIMUM_CELLS_PER_SIDE, (int) (sqrt(count) * CELLS_PER_POSITION_ROOT)));
+        cellWidth = east > west ? (east - west) / columns : 1.0;
+        cellHeight = north > south ? (north - south) / rows : 1.0;
+
+        // the cell in the upper and the index of the position in the lower 32 bits
+        entries = new long[count];
+        int index = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            NavigationPosition position = positions.get(i);
+            if (!position.hasCoordinates())
+                continue;
+            long cell = getRow(position.getLatitude()) * columns + getColumn(position.getLongitude());
+            entries[index++] = cell << 32 | i;
+        }
+        sort(entries);
+        positionCount = positions.size();
+        moved.clear();
+    }
+
+    private int lowerBound(long value) {
+        int low = 0, high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private int[] getCandidates(double west, double south, double east, double north) {
+        if (entries == null)
+            build();
+
+        int[] result = new int[16];
+        int count = 0;
+        int firstColumn = getColumn(west), lastColumn = getColumn(east);
+        for (int row = getRow(south), lastRow = getRow(north); row <= lastRow; row++) {
+            long lastCell = (long) row * columns + lastColumn;
+            for (int i = lowerBound(((long) row * columns + firstColumn) << 32);
+                 i < entries.length && (entries[i] >>> 32) <= lastCell; i++) {
+                int index = (int) entries[i];
+                if (moved.get(index))
+                    continue;
+                if (count == result.length)
+                    result = copyOf(result, count * 2);
+                result[count++] = index;
+            }
+        }
+        for (int index = moved.nextSetBit(0); index >= 0; index = moved.nextSetBit(index + 1)) {
+            if (count == result.length)
+                result = copyOf(result, count * 2);
+            result[count++] = index;
+        }
+
+        result = copyOf(result, count);
+        sort(result);
+        return result;
+    }
+
+    public synchronized int[] getContainedPositions(NavigationPosition northEastCorner,
+                                                    NavigationPosition southWestCorner) {
+        if (northEastCorner.getLongitude() < southWestCorner.getLongitude() ||
+                northEastCorner.getLatitude() < southWestCorner.getLatitude())
+            return new int[0];
+
+        List<NavigationPosition> positions = getPositions();
+        int[] candidates = getCandidates(southWestCorner.getLongitude(), southWestCorner.getLatitude(),
+                northEastCorner.getLongitude(), northEastCorner.getLatitude());
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int index : candidates) {
+            NavigationPosition position = positions.get(index);
+            if (position.hasCoordinates() && contains(northEastCorner, southWestCorner, position))
+                result[count++] = index;
+        }
+        return copyOf(result, count);
+    }
+
+    public synchronized int getClosestPosition(double longitude, double latitude, double threshold) {
+        // search a box around the point that is a little larger than the threshold
+        double deltaLatitude = threshold * 1.1 / METERS_PER_DEGREE;
+        double maximumLatitude = abs(latitude) + deltaLatitude;
+        double deltaLongitude = deltaLatitude / cos(toRadians(maximumLatitude));
+        if (deltaLatitude > MAXIMUM_SEARCH_DEGREES || maximumLatitude > MAXIMUM_SEARCH_LATITUDE ||
+                abs(longitude) + deltaLongitude > 180.0)
+            return route.getClosestPosition(longitude, latitude, threshold);
+
+        int closestIndex = -1;
+        double closestDistance = Double.MAX_VALUE;
+
+        List<NavigationPosition> positions = getPositions();
+        for (int index : getCandidates(longitude - deltaLongitude, latitude - deltaLatitude,
+                longitude + deltaLongitude, latitude + deltaLatitude)) {
+            Double distance = positions.get(index).calculateDistance(longitude, latitude);
+            if (distance != null && distance < closestDistance && distance < threshold) {
+                closestDistance = distance;
+                closestIndex = index;
+            }
+        }
+        return closestIndex;
+    }
+}
@@ -41,6 +41,10 @@ public class Wgs84Position extends BaseNavigationPosition {
     private Double speed;
     private CompactCalendar time;
     private Object origin;
+    private String unparsedComment;
+
+    protected Wgs84Position() {
+    }
 
     public Wgs84Position(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String comment) {
         this(longitude, latitude, elevation, speed, time, comment, null);
@@ -77,43 +81,62 @@ public class Wgs84Position extends BaseNavigationPosition {
     }
 
     public void setComment(String comment) {
+        // a previous comment may have set values the new one doesn't
+        parseCommentIfNecessary();
         this.comment = comment;
-        if (comment == null)
-            return;
+        this.unparsedComment = comment;
+    }
 
-        parseComment(this, comment);
+    /**
+     * Parses the last comment set with {@link #setComment} the first time one of
+     * the values that a comment may contain is read or written.
+     */
+    protected void parseCommentIfNecessary() {
+        String comment = unparsedComment;
+        if (comment != null) {
+            unparsedComment = null;
+            parseComment(this, comment);
+        }
     }
 
     public Double getElevation() {
+        parseCommentIfNecessary();
         return elevation;
     }
 
     public void setElevation(Double elevation) {
+        parseCommentIfNecessary();
         this.elevation = elevation;
     }
 
     public Double getSpeed() {
+        parseCommentIfNecessary();
         return speed;
     }
 
     public void setSpeed(Double speed) {
+        parseCommentIfNecessary();
         this.speed = speed;
     }
 
     public CompactCalendar getTime() {
+        parseCommentIfNecessary();
         return time;
     }
 
     public void setTime(CompactCalendar time) {
+        parseCommentIfNecessary();
         this.time = time;
     }
 
 
     public Double getHeading() {
+        parseCommentIfNecessary();
         return heading;
     }
 
     public void setHeading(Double heading) {
+        parseCommentIfNecessary();
         this.heading = heading;
     }
 
@@ -153,6 +176,10 @@ public class Wgs84Position extends BaseNavigationPosition {
         return origin;
     }
 
+    public void setOrigin(Object origin) {
+        this.origin = origin;
+    }
+
     public <T> T getOrigin(Class<T> resultClass) {
         if (resultClass.isInstance(origin))
             return resultClass.cast(origin);
@@ -199,7 +226,7 @@ public class Wgs84Position extends BaseNavigationPosition {
 
         return !(comment != null ? !comment.equals(that.comment) : that.comment != null) &&
                 !(getElevation() != null ? !getElevation().equals(that.getElevation()) : that.getElevation() != null) &&
-                !(heading != null ? !heading.equals(that.heading) : that.heading != null) &&
+                !(getHeading() != null ? !getHeading().equals(that.getHeading()) : that.getHeading() != null) &&
                 !(latitude != null ? !latitude.equals(that.latitude) : that.latitude != null) &&
                 !(longitude != null ? !longitude.equals(that.longitude) : that.longitude != null) &&
                 !(getTime() != null ? !getTime().equals(that.getTime()) : that.getTime() != null) &&
@@ -214,7 +241,7 @@ public class Wgs84Position extends BaseNavigationPosition {
         result = (longitude != null ? longitude.hashCode() : 0);
         result = 31 * result + (latitude != null ? latitude.hashCode() : 0);
         result = 31 * result + (getElevation() != null ? getElevation().hashCode() : 0);
-        result = 31 * result + (heading != null ? heading.hashCode() : 0);
+        result = 31 * result + (getHeading() != null ? getHeading().hashCode() : 0);
         result = 31 * result + (comment != null ? comment.hashCode() : 0);
         result = 31 * result + (getTime() != null ? getTime().hashCode() : 0);
         result = 31 * result + (hdop != null ? hdop.hashCode() : 0);
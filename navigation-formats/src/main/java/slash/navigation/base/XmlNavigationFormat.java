@@ -37,8 +37,12 @@ import static java.util.Calendar.MINUTE;
 import static java.util.Calendar.MONTH;
 import static java.util.Calendar.SECOND;
 import static java.util.Calendar.YEAR;
+import static slash.common.io.Transfer.trim;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
+import static slash.navigation.base.Plausibility.Unlikely;
 
 /**
  * The base of all XML based navigation formats.
@@ -53,6 +57,20 @@ public abstract class XmlNavigationFormat<R extends BaseRoute> extends BaseNavig
         return UNLIMITED_MAXIMUM_POSITION_COUNT;
     }
 
+    public boolean isSupportsConcurrentReading() {
+        return true;
+    }
+
+    public Plausibility getPlausibility(byte[] header) {
+        return contains(header, "<") ? Possible : Unlikely;
+    }
+
+    protected Plausibility getPlausibility(byte[] header, String rootElement, String namespaceUri) {
+        if (!contains(header, "<"))
+            return Unlikely;
+        return contains(header, rootElement) && contains(header, namespaceUri) ? Likely : Possible;
+    }
+
     protected String asDescription(List<String> strings) {
         StringBuilder buffer = new StringBuilder();
         if (strings != null) {
@@ -72,6 +90,19 @@ public abstract class XmlNavigationFormat<R extends BaseRoute> extends BaseNavig
         return fromMillis(gregorianCalendar.getTimeInMillis());
     }
 
+    public static CompactCalendar parseXMLTime(String string) {
+        String trimmed = trim(string);
+        if (trimmed == null)
+            return null;
+        try {
+            return parseTime(getDataTypeFactory().newXMLGregorianCalendar(trimmed));
+        } catch (DatatypeConfigurationException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private static DatatypeFactory datatypeFactory = null;
 
     private static synchronized DatatypeFactory getDataTypeFactory() throws DatatypeConfigurationException {
@@ -24,6 +24,7 @@ import slash.common.type.CompactCalendar;
 import slash.navigation.base.IniFileFormat;
 import slash.navigation.base.NavigationPosition;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 
 import java.io.BufferedReader;
@@ -39,6 +40,8 @@ import java.util.regex.Pattern;
 import static slash.common.io.Transfer.parseInt;
 import static slash.common.io.Transfer.parseLong;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
 import static slash.navigation.bcr.BcrPosition.NO_ALTITUDE_DEFINED;
 
 /**
@@ -77,6 +80,10 @@ public abstract class BcrFormat extends IniFileFormat<BcrRoute> {
         return preferences.getInt("maximumPositionCount", 1 + 99 + 1);
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return containsSection(header, CLIENT_TITLE) || containsSection(header, COORDINATES_TITLE) ? Likely : Possible;
+    }
+
     public boolean isSupportsMultipleRoutes() {
         return false;
     }
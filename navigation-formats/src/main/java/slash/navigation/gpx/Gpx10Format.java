@@ -22,6 +22,7 @@ package slash.navigation.gpx;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.gpx.binding10.Gpx;
 import slash.navigation.gpx.binding10.ObjectFactory;
@@ -47,6 +48,8 @@ import static slash.common.io.Transfer.trim;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.gpx.GpxStreamReader.parseDecimal;
+import static slash.navigation.gpx.GpxUtil.GPX_10_NAMESPACE_URI;
 import static slash.navigation.gpx.GpxUtil.marshal10;
 import static slash.navigation.gpx.GpxUtil.unmarshal10;
 import static slash.navigation.common.UnitConversion.kmhToMs;
@@ -74,21 +77,126 @@ public class Gpx10Format extends GpxFormat {
         return "GPS Exchange Format " + VERSION + " (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "gpx", GPX_10_NAMESPACE_URI);
+    }
+
     void process(Gpx gpx, ParserContext<GpxRoute> context) {
         if (gpx == null || !VERSION.equals(gpx.getVersion()))
             return;
 
-        boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond = gpx.getCreator() != null &&
-                ("Mobile Action http://www.mobileaction.com/".equals(gpx.getCreator()) ||
-                 "Holux Utility".equals(gpx.getCreator()));
+        boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond = hasSpeedInKilometerPerHourInsteadOfMeterPerSecond(gpx.getCreator());
+        List<GpxRoute> result = new ArrayList<GpxRoute>();
         GpxRoute wayPointsAsRoute = extractWayPoints(gpx, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond);
         if (wayPointsAsRoute != null)
-            context.appendRoute(wayPointsAsRoute);
-        context.appendRoutes(extractRoutes(gpx, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
-        context.appendRoutes(extractTracks(gpx, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+            result.add(wayPointsAsRoute);
+        result.addAll(extractRoutes(gpx, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+        result.addAll(extractTracks(gpx, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+        if (isCompactReadObjects())
+            compactReadObjects(gpx, result);
+        context.appendRoutes(result);
+    }
+
+    private void compactOrigin(GpxPosition position) {
+        // keep what createWayPoints(), createRoute() and createTrack() don't take from the position
+        Gpx.Wpt wpt = position.getOrigin(Gpx.Wpt.class);
+        if (wpt != null) {
+            if (wpt.getMagvar() == null && wpt.getGeoidheight() == null && wpt.getCmt() == null &&
+                    wpt.getDesc() == null && wpt.getSrc() == null && wpt.getUrl() == null &&
+                    wpt.getUrlname() == null && wpt.getSym() == null && wpt.getType() == null &&
+                    wpt.getFix() == null && wpt.getAgeofdgpsdata() == null && wpt.getDgpsid() == null &&
+                    wpt.getAny().isEmpty())
+                position.setOrigin(null);
+            else {
+                wpt.setLat(null);
+                wpt.setLon(null);
+                wpt.setEle(null);
+                wpt.setTime(null);
+                wpt.setCourse(null);
+                wpt.setSpeed(null);
+                wpt.setHdop(null);
+                wpt.setPdop(null);
+                wpt.setVdop(null);
+                wpt.setSat(null);
+            }
+        }
+
+        Gpx.Rte.Rtept rtept = position.getOrigin(Gpx.Rte.Rtept.class);
+        if (rtept != null) {
+            if (rtept.getMagvar() == null && rtept.getGeoidheight() == null && rtept.getCmt() == null &&
+                    rtept.getDesc() == null && rtept.getSrc() == null && rtept.getUrl() == null &&
+                    rtept.getUrlname() == null && rtept.getSym() == null && rtept.getType() == null &&
+                    rtept.getFix() == null && rtept.getAgeofdgpsdata() == null && rtept.getDgpsid() == null &&
+                    rtept.getAny().isEmpty())
+                position.setOrigin(null);
+            else {
+                rtept.setLat(null);
+                rtept.setLon(null);
+                rtept.setEle(null);
+                rtept.setTime(null);
+                rtept.setCourse(null);
+                rtept.setSpeed(null);
+                rtept.setHdop(null);
+                rtept.setPdop(null);
+                rtept.setVdop(null);
+                rtept.setSat(null);
+            }
+        }
+
+        Gpx.Trk.Trkseg.Trkpt trkpt = position.getOrigin(Gpx.Trk.Trkseg.Trkpt.class);
+        if (trkpt != null) {
+            if (trkpt.getMagvar() == null && trkpt.getGeoidheight() == null && trkpt.getCmt() == null &&
+                    trkpt.getDesc() == null && trkpt.getSrc() == null && trkpt.getUrl() == null &&
+                    trkpt.getUrlname() == null && trkpt.getSym() == null && trkpt.getType() == null &&
+                    trkpt.getFix() == null && trkpt.getAgeofdgpsdata() == null && trkpt.getDgpsid() == null &&
+                    trkpt.getAny().isEmpty())
+                position.setOrigin(null);
+            else {
+                trkpt.setLat(null);
+                trkpt.setLon(null);
+                trkpt.setEle(null);
+                trkpt.setTime(null);
+                trkpt.setCourse(null);
+                trkpt.setSpeed(null);
+                trkpt.setHdop(null);
+                trkpt.setPdop(null);
+                trkpt.setVdop(null);
+                trkpt.setSat(null);
+            }
+        }
+    }
+
+    private void compactReadObjects(Gpx gpx, List<GpxRoute> routes) {
+        // the lists are cleared before writing, too
+        gpx.getWpt().clear();
+        gpx.getRte().clear();
+        gpx.getTrk().clear();
+
+        for (GpxRoute route : routes) {
+            Gpx.Rte rte = route.getOrigin(Gpx.Rte.class);
+            if (rte != null)
+                rte.getRtept().clear();
+            Gpx.Trk trk = route.getOrigin(Gpx.Trk.class);
+            if (trk != null)
+                trk.getTrkseg().clear();
+
+            for (GpxPosition position : route.getPositions())
+                compactOrigin(position);
+        }
+    }
+
+    boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond(String creator) {
+        return creator != null &&
+                ("Mobile Action http://www.mobileaction.com/".equals(creator) ||
+                 "Holux Utility".equals(creator));
     }
 
     public void read(InputStream source, CompactCalendar startDate, ParserContext<GpxRoute> context) throws Exception {
+        if (isReadStreaming()) {
+            new GpxStreamReader(this, GPX_10_NAMESPACE_URI, VERSION).read(source, context);
+            return;
+        }
+
         Gpx gpx = unmarshal10(source);
         process(gpx, context);
     }
@@ -114,14 +222,6 @@ public class Gpx10Format extends GpxFormat {
         return positions.size() == 0 ? null : new GpxRoute(this, isTripmasterTrack(positions) ? Track : Waypoints, name, descriptions, positions, gpx);
     }
 
-    boolean isTripmasterTrack(List<GpxPosition> positions) {
-        for (GpxPosition position : positions) {
-            if (position.getReason() == null)
-                return false;
-        }
-        return true;
-    }
-
     private List<GpxRoute> extractTracks(Gpx gpx, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
         List<GpxRoute> result = new ArrayList<GpxRoute>();
         for (Gpx.Trk trk : gpx.getTrk()) {
@@ -165,8 +265,21 @@ public class Gpx10Format extends GpxFormat {
         return positions;
     }
 
+    GpxPosition createPosition(GpxStreamReader.Point point, boolean wayPoint,
+                               boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
+        return new GpxPosition(point.longitude, point.latitude, point.elevation,
+                getSpeed(parseDecimal(point.speed), point.cmt, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond),
+                parseDecimal(point.course), parseXMLTime(point.time),
+                wayPoint ? asWayPointComment(point.name, point.desc) : asComment(point.name, point.desc),
+                point.hdop, point.pdop, point.vdop, point.satellites);
+    }
+
     private Double getSpeed(BigDecimal speed, String comment, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
-        Double result = formatDouble(speed);
+        return getSpeed(formatDouble(speed), comment, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond);
+    }
+
+    private Double getSpeed(Double speed, String comment, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
+        Double result = speed;
         // everything is converted from m/s to Km/h except for the exceptional case
         if(!hasSpeedInKilometerPerHourInsteadOfMeterPerSecond)
             result = asKmh(result);
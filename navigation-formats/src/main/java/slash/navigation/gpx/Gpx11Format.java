@@ -23,6 +23,7 @@ package slash.navigation.gpx;
 import org.w3c.dom.Element;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.gpx.binding11.ExtensionsType;
 import slash.navigation.gpx.binding11.GpxType;
 import slash.navigation.gpx.binding11.MetadataType;
@@ -36,6 +37,7 @@ import slash.navigation.gpx.garmin3.RoutePointExtensionT;
 
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
@@ -55,6 +57,8 @@ import static slash.common.io.Transfer.parseDouble;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+import static slash.navigation.gpx.GpxUtil.TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI;
 import static slash.navigation.gpx.GpxUtil.marshal11;
 import static slash.navigation.gpx.GpxUtil.unmarshal11;
 
@@ -71,20 +75,98 @@ public class Gpx11Format extends GpxFormat {
         return "GPS Exchange Format " + VERSION + " (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "gpx", GPX_11_NAMESPACE_URI);
+    }
+
     void process(GpxType gpxType,ParserContext<GpxRoute> context) {
         if (gpxType == null || !VERSION.equals(gpxType.getVersion()))
             return;
 
-        boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond = gpxType.getCreator() != null &&
-                ("Whatever".equals(gpxType.getCreator()));
+        boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond = hasSpeedInKilometerPerHourInsteadOfMeterPerSecond(gpxType.getCreator());
+        List<GpxRoute> result = new ArrayList<GpxRoute>();
         GpxRoute wayPointsAsRoute = extractWayPoints(gpxType, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond);
         if (wayPointsAsRoute != null)
-            context.appendRoute(wayPointsAsRoute);
-        context.appendRoutes(extractRoutes(gpxType, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
-        context.appendRoutes(extractTracks(gpxType, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+            result.add(wayPointsAsRoute);
+        result.addAll(extractRoutes(gpxType, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+        result.addAll(extractTracks(gpxType, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+        if (isCompactReadObjects())
+            compactReadObjects(gpxType, result);
+        context.appendRoutes(result);
+    }
+
+    private boolean isWrittenFromPosition(Object any) {
+        if (any instanceof Element) {
+            String localName = ((Element) any).getLocalName();
+            return "speed".equals(localName) || "course".equals(localName);
+        }
+        return false;
+    }
+
+    private boolean isWrittenFromPosition(WptType wptType) {
+        if (wptType.getMagvar() != null || wptType.getGeoidheight() != null || wptType.getCmt() != null ||
+                wptType.getDesc() != null || wptType.getSrc() != null || wptType.getLink().size() > 0 ||
+                wptType.getSym() != null || wptType.getType() != null || wptType.getFix() != null ||
+                wptType.getAgeofdgpsdata() != null || wptType.getDgpsid() != null)
+            return false;
+        ExtensionsType extensions = wptType.getExtensions();
+        if (extensions != null) {
+            for (Object any : extensions.getAny()) {
+                if (!isWrittenFromPosition(any))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void compactOrigin(GpxPosition position) {
+        WptType wptType = position.getOrigin(WptType.class);
+        if (wptType == null)
+            return;
+        if (isWrittenFromPosition(wptType)) {
+            position.setOrigin(null);
+            return;
+        }
+        // keep what createWptType() doesn't take from the position
+        wptType.setLat(null);
+        wptType.setLon(null);
+        wptType.setEle(null);
+        wptType.setTime(null);
+        wptType.setHdop(null);
+        wptType.setPdop(null);
+        wptType.setVdop(null);
+        wptType.setSat(null);
+    }
+
+    private void compactReadObjects(GpxType gpxType, List<GpxRoute> routes) {
+        // the lists are cleared before writing, too
+        gpxType.getWpt().clear();
+        gpxType.getRte().clear();
+        gpxType.getTrk().clear();
+
+        for (GpxRoute route : routes) {
+            RteType rteType = route.getOrigin(RteType.class);
+            if (rteType != null)
+                rteType.getRtept().clear();
+            TrkType trkType = route.getOrigin(TrkType.class);
+            if (trkType != null)
+                trkType.getTrkseg().clear();
+
+            for (GpxPosition position : route.getPositions())
+                compactOrigin(position);
+        }
+    }
+
+    boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond(String creator) {
+        return creator != null && ("Whatever".equals(creator));
     }
 
     public void read(InputStream source, CompactCalendar startDate, ParserContext<GpxRoute> context) throws Exception {
+        if (isReadStreaming()) {
+            new GpxStreamReader(this, GPX_11_NAMESPACE_URI, VERSION).read(source, context);
+            return;
+        }
+
         GpxType gpxType = unmarshal11(source);
         process(gpxType, context);
     }
@@ -186,28 +268,40 @@ public class Gpx11Format extends GpxFormat {
         return positions;
     }
 
+    GpxPosition createPosition(GpxStreamReader.Point point, boolean wayPoint,
+                               boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
+        return new GpxPosition(point.longitude, point.latitude, point.elevation,
+                getSpeed(point.speed, point.cmt, point.name, point.desc, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond),
+                getHeading(point.course, point.cmt), parseXMLTime(point.time), asComment(point.name, point.desc),
+                point.hdop, point.pdop, point.vdop, point.satellites);
+    }
+
     private Double getSpeed(WptType wptType, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
-        Double result = null;
+        String speed = null;
         ExtensionsType extensions = wptType.getExtensions();
         if (extensions != null) {
             for (Object any : extensions.getAny()) {
                 if (any instanceof Element) {
                     Element element = (Element) any;
-                    if ("speed".equals(element.getLocalName())) {
-                        result = parseDouble(element.getTextContent());
-                        // everything is converted from m/s to Km/h except for the exceptional case
-                        if(!hasSpeedInKilometerPerHourInsteadOfMeterPerSecond)
-                            result = asKmh(result);
-                    }
+                    if ("speed".equals(element.getLocalName()))
+                        speed = element.getTextContent();
                 }
             }
         }
+        return getSpeed(speed, wptType.getCmt(), wptType.getName(), wptType.getDesc(), hasSpeedInKilometerPerHourInsteadOfMeterPerSecond);
+    }
+
+    private Double getSpeed(String speed, String cmt, String name, String desc, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond) {
+        Double result = parseDouble(speed);
+        // everything is converted from m/s to Km/h except for the exceptional case
+        if (!hasSpeedInKilometerPerHourInsteadOfMeterPerSecond)
+            result = asKmh(result);
         if (result == null)
-            result = parseSpeed(wptType.getCmt());
+            result = parseSpeed(cmt);
         if (result == null)
-            result = parseSpeed(wptType.getName());
+            result = parseSpeed(name);
         if (result == null)
-            result = parseSpeed(wptType.getDesc());
+            result = parseSpeed(desc);
         return result;
     }
 
@@ -258,19 +352,24 @@ public class Gpx11Format extends GpxFormat {
     }
 
     private Double getHeading(WptType wptType) {
-        Double result = null;
+        String heading = null;
         ExtensionsType extensions = wptType.getExtensions();
         if (extensions != null) {
             for (Object any : extensions.getAny()) {
                 if (any instanceof Element) {
                     Element element = (Element) any;
                     if ("course".equals(element.getLocalName()))
-                        result = parseDouble(element.getTextContent());
+                        heading = element.getTextContent();
                 }
             }
         }
+        return getHeading(heading, wptType.getCmt());
+    }
+
+    private Double getHeading(String heading, String cmt) {
+        Double result = parseDouble(heading);
         if (result == null)
-            result = parseHeading(wptType.getCmt());
+            result = parseHeading(cmt);
         return result;
     }
 
@@ -478,7 +577,134 @@ public class Gpx11Format extends GpxFormat {
         return gpxType;
     }
 
+    private void writeWptType(GpxStreamWriter writer, String localName, GpxPosition position) throws XMLStreamException {
+        BigDecimal latitude = formatPosition(position.getLatitude());
+        BigDecimal longitude = formatPosition(position.getLongitude());
+        if (latitude == null || longitude == null)
+            return;
+        writer.startElement(localName);
+        writer.writeAttribute("lat", latitude);
+        writer.writeAttribute("lon", longitude);
+        if (isWriteElevation())
+            writer.writeElement("ele", formatElevation(position.getElevation()));
+        if (isWriteTime())
+            writer.writeElement("time", formatTime(position.getTime()));
+        if (isWriteName()) {
+            writer.writeElement("name", asName(position.getComment()));
+            writer.writeElement("desc", asDesc(position.getComment(), null));
+        }
+        if (isWriteAccuracy()) {
+            writer.writeElement("sat", formatInt(position.getSatellites()));
+            writer.writeElement("hdop", position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
+            writer.writeElement("vdop", position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
+            writer.writeElement("pdop", position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
+        }
+        BigDecimal speed = isWriteSpeed() ? formatSpeed(position.getSpeed()) : null;
+        BigDecimal heading = isWriteHeading() ? formatHeading(position.getHeading()) : null;
+        if (speed != null || heading != null) {
+            writer.startElement("extensions");
+            writer.writeElement(TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI, "speed", speed);
+            writer.writeElement(TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI, "course", heading);
+            writer.endElement();
+        }
+        writer.endElement();
+    }
+
+    private void writeMetaData(GpxStreamWriter writer, GpxRoute route) throws XMLStreamException {
+        writer.startElement("metadata");
+        if (isWriteName()) {
+            writer.writeElement("name", asRouteName(route.getName()));
+            writer.writeElement("desc", asDescription(route.getDescription()));
+        }
+        writer.endElement();
+    }
+
+    private void writeWayPoints(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
+        List<GpxPosition> positions = route.getPositions();
+        for (int i = startIndex; i < endIndex; i++)
+            writeWptType(writer, "wpt", positions.get(i));
+    }
+
+    private void writeRoute(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
+        writer.startElement("rte");
+        if (isWriteName()) {
+            writer.writeElement("name", asRouteName(route.getName()));
+            writer.writeElement("desc", asDescription(route.getDescription()));
+        }
+        List<GpxPosition> positions = route.getPositions();
+        for (int i = startIndex; i < endIndex; i++)
+            writeWptType(writer, "rtept", positions.get(i));
+        writer.endElement();
+    }
+
+    private void writeTrack(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
+        writer.startElement("trk");
+        if (isWriteName()) {
+            writer.writeElement("name", asRouteName(route.getName()));
+            writer.writeElement("desc", asDescription(route.getDescription()));
+        }
+        writer.startElement("trkseg");
+        List<GpxPosition> positions = route.getPositions();
+        for (int i = startIndex; i < endIndex; i++)
+            writeWptType(writer, "trkpt", positions.get(i));
+        writer.endElement();
+        writer.endElement();
+    }
+
+    private GpxStreamWriter startDocument(OutputStream target) throws XMLStreamException {
+        GpxStreamWriter writer = new GpxStreamWriter(target);
+        writer.startDocument(GPX_11_NAMESPACE_URI, VERSION, GENERATED_BY,
+                TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI, "nmea");
+        return writer;
+    }
+
+    void writeStreaming(GpxRoute route, OutputStream target, int startIndex, int endIndex) throws XMLStreamException {
+        GpxStreamWriter writer = startDocument(target);
+        if (route.getCharacteristics().equals(Waypoints))
+            writeMetaData(writer, route);
+        writeWayPoints(writer, route, startIndex, endIndex);
+        writeRoute(writer, route, startIndex, endIndex);
+        writeTrack(writer, route, startIndex, endIndex);
+        writer.endDocument();
+    }
+
+    void writeStreaming(List<GpxRoute> routes, OutputStream target) throws XMLStreamException {
+        GpxStreamWriter writer = startDocument(target);
+
+        // the elements of a gpx document are ordered by metadata, way points, routes and tracks
+        GpxRoute metaData = null;
+        for (GpxRoute route : routes) {
+            if (route.getCharacteristics().equals(Waypoints))
+                metaData = route;
+        }
+        if (metaData != null)
+            writeMetaData(writer, metaData);
+
+        for (GpxRoute route : routes) {
+            if (route.getCharacteristics().equals(Waypoints))
+                writeWayPoints(writer, route, 0, route.getPositionCount());
+        }
+        for (GpxRoute route : routes) {
+            if (route.getCharacteristics().equals(Route))
+                writeRoute(writer, route, 0, route.getPositionCount());
+        }
+        for (GpxRoute route : routes) {
+            if (route.getCharacteristics().equals(Track))
+                writeTrack(writer, route, 0, route.getPositionCount());
+        }
+        writer.endDocument();
+    }
+
     public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex) {
+        if (isWriteStreaming()) {
+            try {
+                writeStreaming(route, target, startIndex, endIndex);
+            } catch (XMLStreamException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return;
+        }
+
         try {
             marshal11(createGpxType(route, startIndex, endIndex), target);
         } catch (JAXBException e) {
@@ -487,6 +713,15 @@ public class Gpx11Format extends GpxFormat {
     }
 
     public void write(List<GpxRoute> routes, OutputStream target) {
+        if (isWriteStreaming()) {
+            try {
+                writeStreaming(routes, target);
+            } catch (XMLStreamException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return;
+        }
+
         try {
             marshal11(createGpxType(routes), target);
         } catch (JAXBException e) {
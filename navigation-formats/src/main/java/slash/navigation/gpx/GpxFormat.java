@@ -63,6 +63,23 @@ public abstract class GpxFormat extends XmlNavigationFormat<GpxRoute> implements
         return new GpxRoute(this, characteristics, name, null, (List<GpxPosition>) positions);
     }
 
+    GpxRoute createRoute(RouteCharacteristics characteristics, String name, String description, List<GpxPosition> positions) {
+        return new GpxRoute(this, characteristics, name, asDescription(description), positions);
+    }
+
+    abstract boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond(String creator);
+
+    abstract GpxPosition createPosition(GpxStreamReader.Point point, boolean wayPoint,
+                                        boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond);
+
+    boolean isTripmasterTrack(List<GpxPosition> positions) {
+        for (GpxPosition position : positions) {
+            if (position.getReason() == null)
+                return false;
+        }
+        return true;
+    }
+
     protected String asDescription(List<String> strings) {
         if (strings == null)
             return null;
@@ -109,6 +126,24 @@ public abstract class GpxFormat extends XmlNavigationFormat<GpxRoute> implements
         return msToKmh(metersPerSecond);
     }
 
+    protected boolean isCompactReadObjects() {
+        return preferences.getBoolean("compactReadObjects", false) || isMemoryLow();
+    }
+
+    private static boolean isMemoryLow() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() / 4 * 3;
+    }
+
+    protected boolean isReadStreaming() {
+        return preferences.getBoolean("readStreaming", false);
+    }
+
+    protected boolean isWriteStreaming() {
+        return preferences.getBoolean("writeStreaming", false);
+    }
+
     protected boolean isWriteAccuracy() {
         return preferences.getBoolean("writeAccuracy", true);
     }
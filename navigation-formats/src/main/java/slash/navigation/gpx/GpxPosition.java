@@ -36,7 +36,6 @@ import static slash.common.io.Transfer.formatInt;
 import static slash.common.io.Transfer.trim;
 import static slash.navigation.fpl.WaypointType.UserWaypoint;
 import static slash.navigation.gpx.GpxFormat.TRIPMASTER_REASON_PATTERN;
-import static slash.navigation.base.RouteComments.parseComment;
 import static slash.navigation.base.RouteComments.parseTripmasterHeading;
 
 /**
@@ -70,14 +69,26 @@ public class GpxPosition extends Wgs84Position {
         setSatellites(formatInt(satellites));
     }
 
+    public GpxPosition(Double longitude, Double latitude, Double elevation, Double speed,
+                       Double heading, CompactCalendar time, String comment, Double hdop, Double pdop,
+                       Double vdop, Integer satellites) {
+        this(longitude, latitude, elevation, speed, time, comment, null);
+        // avoid overwriting values determined by setComment() with a null value
+        if (heading != null)
+            setHeading(heading);
+        setHdop(hdop);
+        setPdop(pdop);
+        setVdop(vdop);
+        setSatellites(satellites);
+    }
+
     public void setComment(String comment) {
-        this.comment = comment;
+        super.setComment(comment);
         this.reason = null;
-        if (comment == null)
+        // only Punkt, Richtung, Abstand, Dur., Course and Dist. are Tripmaster reasons
+        if (comment == null || comment.length() == 0 || "PRADC".indexOf(comment.charAt(0)) == -1)
             return;
 
-        parseComment(this, comment);
-
         // TODO move this logic up
         Matcher matcher = TRIPMASTER_REASON_PATTERN.matcher(this.comment);
         if (matcher.matches()) {
@@ -86,7 +97,7 @@ public class GpxPosition extends Wgs84Position {
 
             Double heading = parseTripmasterHeading(reason);
             if (heading != null)
-                this.heading = heading;
+                setHeading(heading);
         } /* TODO think about how to solve this with that much errors
           else {
             matcher = GpxFormat.TRIPMASTER_DESCRIPTION_PATTERN.matcher(comment);
@@ -139,7 +150,7 @@ public class GpxPosition extends Wgs84Position {
 
         return !(comment != null ? !comment.equals(that.comment) : that.comment != null) &&
                 !(getElevation() != null ? !getElevation().equals(that.getElevation()) : that.getElevation() != null) &&
-                !(heading != null ? !heading.equals(that.heading) : that.heading != null) &&
+                !(getHeading() != null ? !getHeading().equals(that.getHeading()) : that.getHeading() != null) &&
                 !(latitude != null ? !latitude.equals(that.latitude) : that.latitude != null) &&
                 !(longitude != null ? !longitude.equals(that.longitude) : that.longitude != null) &&
                 !(getTime() != null ? !getTime().equals(that.getTime()) : that.getTime() != null) &&
@@ -154,7 +165,7 @@ public class GpxPosition extends Wgs84Position {
         result = (longitude != null ? longitude.hashCode() : 0);
         result = 31 * result + (latitude != null ? latitude.hashCode() : 0);
         result = 31 * result + (getElevation() != null ? getElevation().hashCode() : 0);
-        result = 31 * result + (heading != null ? heading.hashCode() : 0);
+        result = 31 * result + (getHeading() != null ? getHeading().hashCode() : 0);
         result = 31 * result + (comment != null ? comment.hashCode() : 0);
         result = 31 * result + (getTime() != null ? getTime().hashCode() : 0);
         result = 31 * result + (hdop != null ? hdop.hashCode() : 0);
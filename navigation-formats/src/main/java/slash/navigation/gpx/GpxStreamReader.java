@@ -0,0 +1,330 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import slash.navigation.base.ParserContext;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static javax.xml.stream.XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES;
+import static javax.xml.stream.XMLInputFactory.SUPPORT_DTD;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static slash.common.io.Transfer.trim;
+import static slash.navigation.base.RouteCharacteristics.Route;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.base.RouteCharacteristics.Waypoints;
+
+/**
+ * Reads GPS Exchange Format 1.0 and 1.1 (.gpx) files from XML events
+ * without building a JAXB object tree.
+ * <p/>
+ * The memory needed is proportional to the positions read and not to
+ * the size of the document, but the positions have no origin to reuse
+ * when writing.
+ *
+ * @author Christian Pesch
+ */
+
+class GpxStreamReader {
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+    static {
+        inputFactory.setProperty(SUPPORT_DTD, false);
+        inputFactory.setProperty(IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final GpxFormat format;
+    private final String namespaceUri;
+    private final String version;
+    private final boolean gpx10;
+
+    GpxStreamReader(GpxFormat format, String namespaceUri, String version) {
+        this.format = format;
+        this.namespaceUri = namespaceUri;
+        this.version = version;
+        this.gpx10 = Gpx10Format.VERSION.equals(version);
+    }
+
+    private static XMLStreamReader createReader(InputStream source) throws XMLStreamException {
+        synchronized (inputFactory) {
+            return inputFactory.createXMLStreamReader(source);
+        }
+    }
+
+    void read(InputStream source, ParserContext<GpxRoute> context) throws XMLStreamException {
+        XMLStreamReader reader = createReader(source);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == START_ELEMENT) {
+                    if ("gpx".equals(reader.getLocalName()) && namespaceUri.equals(reader.getNamespaceURI()) &&
+                            version.equals(reader.getAttributeValue(null, "version")))
+                        readGpx(reader, context);
+                    break;
+                }
+                if (event == END_DOCUMENT)
+                    break;
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void readGpx(XMLStreamReader reader, ParserContext<GpxRoute> context) throws XMLStreamException {
+        boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond =
+                format.hasSpeedInKilometerPerHourInsteadOfMeterPerSecond(reader.getAttributeValue(null, "creator"));
+        String name = null, desc = null;
+        List<GpxPosition> wayPoints = new ArrayList<GpxPosition>();
+        List<GpxRoute> routes = new ArrayList<GpxRoute>();
+        List<GpxRoute> tracks = new ArrayList<GpxRoute>();
+
+        while (nextElement(reader)) {
+            String element = reader.getLocalName();
+            if ("wpt".equals(element))
+                wayPoints.add(format.createPosition(readPoint(reader), true, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+            else if ("rte".equals(element))
+                readRoute(reader, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond, routes);
+            else if ("trk".equals(element))
+                readTrack(reader, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond, tracks);
+            else if (gpx10 && "name".equals(element))
+                name = reader.getElementText();
+            else if (gpx10 && "desc".equals(element))
+                desc = reader.getElementText();
+            else if (!gpx10 && "metadata".equals(element)) {
+                while (nextElement(reader)) {
+                    if ("name".equals(reader.getLocalName()))
+                        name = reader.getElementText();
+                    else if ("desc".equals(reader.getLocalName()))
+                        desc = reader.getElementText();
+                    else
+                        skipElement(reader);
+                }
+            } else
+                skipElement(reader);
+        }
+
+        if (wayPoints.size() > 0)
+            context.appendRoute(format.createRoute(gpx10 && format.isTripmasterTrack(wayPoints) ? Track : Waypoints,
+                    name, desc, wayPoints));
+        context.appendRoutes(routes);
+        context.appendRoutes(tracks);
+    }
+
+    private void readRoute(XMLStreamReader reader, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond,
+                           List<GpxRoute> routes) throws XMLStreamException {
+        String name = null, desc = null;
+        boolean hasExtensions = false;
+        List<GpxPosition> positions = new ArrayList<GpxPosition>();
+        // Garmin Extensions v3 add the autorouted points between the route points as a track
+        List<GpxPosition> extendedPositions = gpx10 ? null : new ArrayList<GpxPosition>();
+
+        while (nextElement(reader)) {
+            String element = reader.getLocalName();
+            if ("rtept".equals(element)) {
+                Point point = readPoint(reader);
+                positions.add(format.createPosition(point, false, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+                if (extendedPositions != null) {
+                    extendedPositions.add(format.createPosition(point, false, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+                    extendedPositions.addAll(point.autoroutePoints);
+                }
+            } else if ("name".equals(element))
+                name = reader.getElementText();
+            else if ("desc".equals(element))
+                desc = reader.getElementText();
+            else if (!gpx10 && "extensions".equals(element)) {
+                while (nextElement(reader)) {
+                    hasExtensions = true;
+                    skipElement(reader);
+                }
+            } else
+                skipElement(reader);
+        }
+
+        routes.add(format.createRoute(Route, name, desc, positions));
+        if (hasExtensions)
+            routes.add(format.createRoute(Track, name, desc, extendedPositions));
+    }
+
+    private void readTrack(XMLStreamReader reader, boolean hasSpeedInKilometerPerHourInsteadOfMeterPerSecond,
+                           List<GpxRoute> tracks) throws XMLStreamException {
+        String name = null, desc = null;
+        List<GpxPosition> positions = new ArrayList<GpxPosition>();
+
+        while (nextElement(reader)) {
+            String element = reader.getLocalName();
+            if ("trkseg".equals(element)) {
+                while (nextElement(reader)) {
+                    if ("trkpt".equals(reader.getLocalName()))
+                        positions.add(format.createPosition(readPoint(reader), false, hasSpeedInKilometerPerHourInsteadOfMeterPerSecond));
+                    else
+                        skipElement(reader);
+                }
+            } else if ("name".equals(element))
+                name = reader.getElementText();
+            else if ("desc".equals(element))
+                desc = reader.getElementText();
+            else
+                skipElement(reader);
+        }
+
+        if (!gpx10 || positions.size() > 0)
+            tracks.add(format.createRoute(Track, name, desc, positions));
+    }
+
+    private Point readPoint(XMLStreamReader reader) throws XMLStreamException {
+        Point point = new Point();
+        point.longitude = parseDecimal(reader.getAttributeValue(null, "lon"));
+        point.latitude = parseDecimal(reader.getAttributeValue(null, "lat"));
+
+        while (nextElement(reader)) {
+            String element = reader.getLocalName();
+            if ("ele".equals(element))
+                point.elevation = parseDecimal(reader.getElementText());
+            else if ("time".equals(element))
+                point.time = reader.getElementText();
+            else if ("name".equals(element))
+                point.name = reader.getElementText();
+            else if ("cmt".equals(element))
+                point.cmt = reader.getElementText();
+            else if ("desc".equals(element))
+                point.desc = reader.getElementText();
+            else if ("hdop".equals(element))
+                point.hdop = parseDecimal(reader.getElementText());
+            else if ("vdop".equals(element))
+                point.vdop = parseDecimal(reader.getElementText());
+            else if ("pdop".equals(element))
+                point.pdop = parseDecimal(reader.getElementText());
+            else if ("sat".equals(element))
+                point.satellites = parseInteger(reader.getElementText());
+            else if (gpx10 && "speed".equals(element))
+                point.speed = reader.getElementText();
+            else if (gpx10 && "course".equals(element))
+                point.course = reader.getElementText();
+            else if (!gpx10 && "extensions".equals(element))
+                readPointExtensions(reader, point);
+            else
+                skipElement(reader);
+        }
+        return point;
+    }
+
+    private void readPointExtensions(XMLStreamReader reader, Point point) throws XMLStreamException {
+        String trackPointSpeed = null, trackPointCourse = null;
+
+        while (nextElement(reader)) {
+            String element = reader.getLocalName();
+            if ("speed".equals(element))
+                point.speed = reader.getElementText();
+            else if ("course".equals(element))
+                point.course = reader.getElementText();
+            else if ("TrackPointExtension".equals(element)) {
+                // Garmin TrackPointExtension v2 nests speed and course
+                while (nextElement(reader)) {
+                    if ("speed".equals(reader.getLocalName()))
+                        trackPointSpeed = reader.getElementText();
+                    else if ("course".equals(reader.getLocalName()))
+                        trackPointCourse = reader.getElementText();
+                    else
+                        skipElement(reader);
+                }
+            } else if ("RoutePointExtension".equals(element)) {
+                while (nextElement(reader)) {
+                    if ("rpt".equals(reader.getLocalName()))
+                        point.autoroutePoints.add(new GpxPosition(parseDecimal(reader.getAttributeValue(null, "lon")),
+                                parseDecimal(reader.getAttributeValue(null, "lat")), null, null, null, null));
+                    skipElement(reader);
+                }
+            } else
+                skipElement(reader);
+        }
+
+        if (point.speed == null)
+            point.speed = trackPointSpeed;
+        if (point.course == null)
+            point.course = trackPointCourse;
+    }
+
+    /**
+     * Advances to the next child element of the current element.
+     *
+     * @return false if the end of the current element is reached
+     */
+    private static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == START_ELEMENT)
+                return true;
+            if (event == END_ELEMENT)
+                return false;
+        }
+        return false;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == START_ELEMENT)
+                depth++;
+            else if (event == END_ELEMENT)
+                depth--;
+        }
+    }
+
+    static Double parseDecimal(String string) {
+        String trimmed = trim(string);
+        if (trimmed == null)
+            return null;
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(String string) {
+        String trimmed = trim(string);
+        if (trimmed == null)
+            return null;
+        try {
+            return Integer.parseInt(trimmed.startsWith("+") ? trimmed.substring(1) : trimmed);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The values of a way, route or track point as read from the document.
+     */
+    static class Point {
+        Double longitude, latitude, elevation, hdop, vdop, pdop;
+        Integer satellites;
+        String time, name, cmt, desc, speed, course;
+        final List<GpxPosition> autoroutePoints = new ArrayList<GpxPosition>();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+/**
+ * Writes GPS Exchange Format (.gpx) elements to a stream of XML events
+ * without building a JAXB object tree.
+ *
+ * @author Christian Pesch
+ */
+
+class GpxStreamWriter {
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+    private static final String INDENTATION = "  ";
+
+    private final XMLStreamWriter writer;
+    private int depth = 0;
+    private boolean hasChildElements = false;
+
+    GpxStreamWriter(OutputStream target) throws XMLStreamException {
+        synchronized (outputFactory) {
+            this.writer = outputFactory.createXMLStreamWriter(target, "UTF-8");
+        }
+    }
+
+    void startDocument(String namespaceUri, String version, String creator, String... uriToPrefix) throws XMLStreamException {
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.setDefaultNamespace(namespaceUri);
+        for (int i = 0; i < uriToPrefix.length; i += 2)
+            writer.setPrefix(uriToPrefix[i + 1], uriToPrefix[i]);
+
+        startElement("gpx");
+        writer.writeDefaultNamespace(namespaceUri);
+        for (int i = 0; i < uriToPrefix.length; i += 2)
+            writer.writeNamespace(uriToPrefix[i + 1], uriToPrefix[i]);
+        writer.writeAttribute("version", version);
+        writer.writeAttribute("creator", creator);
+    }
+
+    void endDocument() throws XMLStreamException {
+        endElement();
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+    }
+
+    private void indent() throws XMLStreamException {
+        StringBuilder buffer = new StringBuilder("\n");
+        for (int i = 0; i < depth; i++)
+            buffer.append(INDENTATION);
+        writer.writeCharacters(buffer.toString());
+    }
+
+    void startElement(String localName) throws XMLStreamException {
+        startElement(null, localName);
+    }
+
+    void startElement(String namespaceUri, String localName) throws XMLStreamException {
+        if (depth > 0)
+            indent();
+        if (namespaceUri != null)
+            writer.writeStartElement(namespaceUri, localName);
+        else
+            writer.writeStartElement(localName);
+        depth++;
+        hasChildElements = false;
+    }
+
+    void writeAttribute(String localName, Object value) throws XMLStreamException {
+        if (value != null)
+            writer.writeAttribute(localName, toString(value));
+    }
+
+    void endElement() throws XMLStreamException {
+        depth--;
+        if (hasChildElements)
+            indent();
+        writer.writeEndElement();
+        hasChildElements = true;
+    }
+
+    void writeElement(String localName, Object value) throws XMLStreamException {
+        writeElement(null, localName, value);
+    }
+
+    void writeElement(String namespaceUri, String localName, Object value) throws XMLStreamException {
+        if (value == null)
+            return;
+        startElement(namespaceUri, localName);
+        writer.writeCharacters(toString(value));
+        depth--;
+        writer.writeEndElement();
+        hasChildElements = true;
+    }
+
+    private String toString(Object value) {
+        // print decimals like JAXB does
+        if (value instanceof BigDecimal)
+            return ((BigDecimal) value).toPlainString();
+        if (value instanceof XMLGregorianCalendar)
+            return ((XMLGregorianCalendar) value).toXMLFormat();
+        return value.toString();
+    }
+}
@@ -23,8 +23,8 @@ package slash.navigation.kml;
 import slash.common.type.CompactCalendar;
 import slash.common.type.ISO8601;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
-import slash.navigation.common.BasicPosition;
 import slash.navigation.kml.binding20.Document;
 import slash.navigation.kml.binding20.Folder;
 import slash.navigation.kml.binding20.GeometryCollection;
@@ -53,7 +53,8 @@ import static slash.common.io.Transfer.trim;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.common.BasicPosition.parsePosition;
-import static slash.navigation.common.BasicPosition.parsePositions;
+import static slash.navigation.common.CoordinatesParser.parseCoordinates;
+import static slash.navigation.kml.KmlUtil.KML_20_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal20;
 import static slash.navigation.kml.KmlUtil.unmarshal20;
 
@@ -69,6 +70,10 @@ public class Kml20Format extends KmlFormat {
         return "Google Earth 3 (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "kml", KML_20_NAMESPACE_URI);
+    }
+
     public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         Object o = unmarshal20(source);
         if (o instanceof Kml) {
@@ -228,11 +233,7 @@ public class Kml20Format extends KmlFormat {
     }
 
     private List<KmlPosition> extractPositions(LineString lineString) {
-        List<KmlPosition> result = new ArrayList<KmlPosition>();
-        for (BasicPosition position : parsePositions(lineString.getCoordinates())) {
-            result.add(asKmlPosition(position));
-        }
-        return result;
+        return asKmlPositions(parseCoordinates(lineString.getCoordinates()));
     }
 
     private List<KmlPosition> extractPositions(List<Object> elements) {
@@ -23,6 +23,7 @@ package slash.navigation.kml;
 import slash.common.type.CompactCalendar;
 import slash.common.type.ISO8601;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.kml.binding21.ContainerType;
 import slash.navigation.kml.binding21.DocumentType;
@@ -55,6 +56,7 @@ import static java.lang.Boolean.TRUE;
 import static slash.common.io.Transfer.trim;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.kml.KmlUtil.KML_21_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal21;
 import static slash.navigation.kml.KmlUtil.unmarshal21;
 
@@ -70,6 +72,10 @@ public class Kml21Format extends KmlFormat {
         return "Google Earth 4 (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "kml", KML_21_NAMESPACE_URI);
+    }
+
     public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         KmlType kmlType = unmarshal21(source);
         process(kmlType, startDate, context);
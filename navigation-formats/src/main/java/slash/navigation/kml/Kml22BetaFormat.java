@@ -23,6 +23,7 @@ package slash.navigation.kml;
 import slash.common.type.CompactCalendar;
 import slash.common.type.ISO8601;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.kml.binding22beta.AbstractContainerType;
 import slash.navigation.kml.binding22beta.AbstractFeatureType;
@@ -57,6 +58,7 @@ import static java.lang.Boolean.TRUE;
 import static slash.common.io.Transfer.trim;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.kml.KmlUtil.KML_22_BETA_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal22Beta;
 import static slash.navigation.kml.KmlUtil.unmarshal22Beta;
 
@@ -72,6 +74,10 @@ public class Kml22BetaFormat extends KmlFormat {
         return "Google Earth 4.2 (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "kml", KML_22_BETA_NAMESPACE_URI);
+    }
+
     public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         KmlType kmlType = unmarshal22Beta(source);
         process(kmlType, startDate, context);
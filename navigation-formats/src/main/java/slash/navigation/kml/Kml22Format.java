@@ -24,8 +24,8 @@ import slash.common.type.CompactCalendar;
 import slash.common.type.ISO8601;
 import slash.navigation.base.NavigationPosition;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
-import slash.navigation.common.BasicPosition;
 import slash.navigation.kml.binding22.AbstractContainerType;
 import slash.navigation.kml.binding22.AbstractFeatureType;
 import slash.navigation.kml.binding22.AbstractGeometryType;
@@ -79,7 +79,8 @@ import static slash.common.type.HexadecimalNumber.decodeBytes;
 import static slash.common.util.Bearing.EARTH_RADIUS;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
-import static slash.navigation.common.BasicPosition.parseExtensionPositions;
+import static slash.navigation.common.CoordinatesParser.parseExtensionCoordinates;
+import static slash.navigation.kml.KmlUtil.KML_22_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal22;
 import static slash.navigation.kml.KmlUtil.unmarshal22;
 
@@ -96,6 +97,10 @@ public class Kml22Format extends KmlFormat {
         return "Google Earth 5 (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "kml", KML_22_NAMESPACE_URI);
+    }
+
     public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         KmlType kmlType = unmarshal22(source);
         process(kmlType, startDate, context);
@@ -242,11 +247,8 @@ public class Kml22Format extends KmlFormat {
 
     private List<KmlPosition> asExtendedKmlPositions(List<String> strings) {
         List<KmlPosition> result = new ArrayList<KmlPosition>();
-        for (String string : strings) {
-            for (BasicPosition position : parseExtensionPositions(string)) {
-                result.add(asKmlPosition(position));
-            }
-        }
+        for (String string : strings)
+            result.addAll(asKmlPositions(parseExtensionCoordinates(string)));
         return result;
     }
 
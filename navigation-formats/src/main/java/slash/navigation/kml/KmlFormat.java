@@ -26,6 +26,7 @@ import slash.navigation.base.NavigationPosition;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.BasicPosition;
 
+import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -48,7 +49,8 @@ import static slash.common.type.HexadecimalNumber.decodeBytes;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
-import static slash.navigation.common.BasicPosition.parsePositions;
+import static slash.navigation.common.CoordinatesParser.parseCoordinates;
+import static slash.navigation.common.CoordinatesParser.toDouble;
 
 /**
  * The base of all Google Earth formats.
@@ -88,6 +90,13 @@ public abstract class KmlFormat extends BaseKmlFormat {
         return new KmlPosition(position.getLongitude(), position.getLatitude(), position.getElevation(), null, null, position.getComment());
     }
 
+    protected List<KmlPosition> asKmlPositions(double[] coordinates) {
+        List<KmlPosition> result = new ArrayList<KmlPosition>(coordinates.length / 3);
+        for (int i = 0; i + 2 < coordinates.length; i += 3)
+            result.add(new KmlPosition(toDouble(coordinates[i]), toDouble(coordinates[i + 1]), toDouble(coordinates[i + 2]), null, null, null));
+        return result;
+    }
+
     protected List<KmlPosition> asKmlPositions(List<String> strings) {
         StringBuilder buffer = new StringBuilder();
         for (String string : strings) {
@@ -95,10 +104,7 @@ public abstract class KmlFormat extends BaseKmlFormat {
             // to make sure the numbers are separated if they were already parsed by the XML parse
             buffer.append(' ');
         }
-        List<KmlPosition> result = new ArrayList<KmlPosition>();
-        for (BasicPosition position : parsePositions(buffer.toString()))
-            result.add(asKmlPosition(position));
-        return result;
+        return asKmlPositions(parseCoordinates(buffer));
     }
 
     protected String createDocumentName(KmlRoute route) {
@@ -207,13 +213,20 @@ public abstract class KmlFormat extends BaseKmlFormat {
 
     private static final Pattern QSTARTZ_DATE_AND_SPEED_PATTERN = Pattern.compile(".*Date:\\s*(\\d{4}/\\d{2}/\\d{2}).*Time:\\s*(\\d{2}:\\d{2}:\\d{2}).*Speed:\\s*([\\d\\.]+)\\s*.*", Pattern.DOTALL);
 
+    private static Date parse(DateFormat dateFormat, String string) throws ParseException {
+        // the formats are shared between concurrently reading formats
+        synchronized (dateFormat) {
+            return dateFormat.parse(string);
+        }
+    }
+
     void parseTime(NavigationPosition position, String description, CompactCalendar startDate) {
         if (description != null) {
             Matcher tavelLogMatcher = TAVELLOG_DATE_PATTERN.matcher(description);
             if (tavelLogMatcher.matches()) {
                 String timeString = tavelLogMatcher.group(1);
                 try {
-                    Date parsed = TAVELLOG_DATE.parse(timeString);
+                    Date parsed = parse(TAVELLOG_DATE, timeString);
                     position.setTime(fromDate(parsed));
                 } catch (ParseException e) {
                     // intentionally left empty;
@@ -223,7 +236,7 @@ public abstract class KmlFormat extends BaseKmlFormat {
             if (navigonMatcher.matches()) {
                 String timeString = navigonMatcher.group(1);
                 try {
-                    Date parsed = NAVIGON6310_TIME.parse(timeString);
+                    Date parsed = parse(NAVIGON6310_TIME, timeString);
                     position.setTime(fromDate(parsed));
                     position.setStartDate(startDate);
                 } catch (ParseException e) {
@@ -234,7 +247,7 @@ public abstract class KmlFormat extends BaseKmlFormat {
             if (bt747Matcher.matches()) {
                 String timeString = bt747Matcher.group(1);
                 try {
-                    Date parsed = BT747_DATE.parse(timeString);
+                    Date parsed = parse(BT747_DATE, timeString);
                     position.setTime(fromDate(parsed));
                 } catch (ParseException e) {
                     // intentionally left empty;
@@ -245,7 +258,7 @@ public abstract class KmlFormat extends BaseKmlFormat {
                 String dateString = qstarzMatcher.group(1);
                 String timeString = qstarzMatcher.group(2);
                 try {
-                    Date parsed = TAVELLOG_DATE.parse(dateString + " " + timeString);
+                    Date parsed = parse(TAVELLOG_DATE, dateString + " " + timeString);
                     position.setTime(fromDate(parsed));
                 } catch (ParseException e) {
                     // intentionally left empty;
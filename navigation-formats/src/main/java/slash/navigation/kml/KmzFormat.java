@@ -21,21 +21,26 @@
 package slash.navigation.kml;
 
 import slash.common.io.NotClosingUnderlyingInputStream;
+import slash.common.io.NotClosingUnderlyingOutputStream;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.NavigationPosition;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
-import java.util.zip.CRC32;
+import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
+import static slash.navigation.base.Plausibility.Unlikely;
+
 /**
  * The base of all compressed Google Earth formats.
  *
@@ -43,6 +48,7 @@ import java.util.zip.ZipOutputStream;
  */
 
 public abstract class KmzFormat extends BaseKmlFormat {
+    private static final Logger log = Logger.getLogger(KmzFormat.class.getName());
     private KmlFormat delegate;
 
     protected KmzFormat(KmlFormat delegate) {
@@ -53,6 +59,12 @@ public abstract class KmzFormat extends BaseKmlFormat {
         return ".kmz";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        if (!startsWith(header, ZIP_SIGNATURE))
+            return Unlikely;
+        return contains(header, ".kml") ? Likely : Possible;
+    }
+
     public boolean isSupportsMultipleRoutes() {
         return delegate.isSupportsMultipleRoutes();
     }
@@ -77,18 +89,16 @@ public abstract class KmzFormat extends BaseKmlFormat {
         }
     }
 
-    private void writeIntermediate(OutputStream target, byte[] bytes) throws IOException {
-        CRC32 crc = new CRC32();
-        crc.reset();
-        crc.update(bytes);
-
+    private ZipOutputStream startEntry(OutputStream target) throws IOException {
         ZipOutputStream outputStream = new ZipOutputStream(target);
+        // a deflated entry needs neither size nor checksum in advance
+        outputStream.putNextEntry(new ZipEntry("doc.kml"));
+        return outputStream;
+    }
+
+    private void finishEntry(ZipOutputStream outputStream) throws IOException {
         try {
-            ZipEntry entry = new ZipEntry("doc.kml");
-            entry.setSize(bytes.length);
-            entry.setCrc(crc.getValue());
-            outputStream.putNextEntry(entry);
-            outputStream.write(bytes, 0, bytes.length);
+            outputStream.closeEntry();
             outputStream.finish();
         } finally {
             outputStream.flush();
@@ -96,15 +106,38 @@ public abstract class KmzFormat extends BaseKmlFormat {
         }
     }
 
+    private void abortEntry(ZipOutputStream outputStream) {
+        // keep the exception of the delegate instead of one from closing the incomplete entry
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            log.warning("Cannot close aborted KMZ entry: " + e);
+        }
+    }
+
     public void write(KmlRoute route, OutputStream target, int startIndex, int endIndex) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        delegate.write(route, baos, startIndex, endIndex);
-        writeIntermediate(target, baos.toByteArray());
+        ZipOutputStream outputStream = startEntry(target);
+        boolean written = false;
+        try {
+            delegate.write(route, new NotClosingUnderlyingOutputStream(outputStream), startIndex, endIndex);
+            written = true;
+        } finally {
+            if (!written)
+                abortEntry(outputStream);
+        }
+        finishEntry(outputStream);
     }
 
     public void write(List<KmlRoute> routes, OutputStream target) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        delegate.write(routes, baos);
-        writeIntermediate(target, baos.toByteArray());
+        ZipOutputStream outputStream = startEntry(target);
+        boolean written = false;
+        try {
+            delegate.write(routes, new NotClosingUnderlyingOutputStream(outputStream));
+            written = true;
+        } finally {
+            if (!written)
+                abortEntry(outputStream);
+        }
+        finishEntry(outputStream);
     }
 }
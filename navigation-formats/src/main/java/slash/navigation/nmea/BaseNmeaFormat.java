@@ -40,12 +40,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.isEmpty;
 import static slash.common.io.Transfer.trim;
 import static slash.common.type.CompactCalendar.fromDate;
+import static slash.common.type.CompactCalendar.fromMillis;
 import static slash.common.type.HexadecimalNumber.decodeBytes;
 import static slash.common.type.HexadecimalNumber.encodeByte;
 import static slash.navigation.base.RouteCharacteristics.Track;
@@ -64,7 +63,6 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     static final String BEGIN_OF_LINE = "^\\$GP";
     static final String END_OF_LINE = "\\*[0-9A-Fa-f][0-9A-Fa-f]$";
 
-    private static final Pattern LINE_PATTERN = Pattern.compile("(^@.*|^\\$.*|" + BEGIN_OF_LINE + ".*" + END_OF_LINE + ")");
 
     private static final DateFormat PRECISE_DATE_AND_TIME_FORMAT = new SimpleDateFormat("ddMMyy HHmmss.SSS");
     private static final DateFormat DATE_AND_TIME_FORMAT = new SimpleDateFormat("ddMMyy HHmmss");
@@ -78,6 +76,16 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         PRECISE_TIME_FORMAT.setTimeZone(CompactCalendar.UTC);
         TIME_FORMAT.setTimeZone(CompactCalendar.UTC);
     }
+    private static final long NO_TIME = Long.MIN_VALUE;
+    // two digit years are interpreted like SimpleDateFormat does: within 80 years before and 20 years after now
+    private static final long DEFAULT_CENTURY_START;
+    private static final int DEFAULT_CENTURY_START_YEAR;
+    static {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, -80);
+        DEFAULT_CENTURY_START = calendar.getTimeInMillis();
+        DEFAULT_CENTURY_START_YEAR = calendar.get(Calendar.YEAR);
+    }
 
     private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
     private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
@@ -120,8 +128,8 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
                 continue;
 
             if (isValidLine(line)) {
-                if (isPosition(line)) {
-                    NmeaPosition position = parsePosition(line);
+                NmeaPosition position = parseValidPosition(line);
+                if (position != null) {
                     if (isValidStartDate(position.getTime()))
                         startDate = position.getTime();
                     else
@@ -190,8 +198,15 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     }
 
     protected boolean isValidLine(String line) {
-        Matcher matcher = LINE_PATTERN.matcher(line);
-        return matcher.matches();
+        if (!(line.startsWith("@") || line.startsWith("$")))
+            return false;
+        for (int i = 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            // line terminators are the only characters the . of a regular expression doesn't match
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                return false;
+        }
+        return true;
     }
 
     private byte computeChecksum(String line) {
@@ -207,14 +222,21 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         byte expected = computeChecksum(lineForChecksum);
         String actualStr = line.substring(line.length() - 2);
         byte[] actual = decodeBytes(actualStr);
-        if (actual.length != 1 || actual[0] != expected) {
-            String expectedStr = encodeByte(expected);
-            log.severe("Checksum of '" + line + "' is invalid. Expected '" + expectedStr + "' but found '" + actualStr + "'");
-            return preferences.getBoolean("ignoreInvalidChecksum", false);
-        }
+        if (actual.length != 1 || actual[0] != expected)
+            return isIgnoreInvalidChecksum(line, expected, actualStr);
         return true;
     }
 
+    protected boolean hasValidChecksum(NmeaSentence sentence) {
+        return sentence.hasValidChecksum() ||
+                isIgnoreInvalidChecksum(sentence.getLine(), sentence.getComputedChecksum(), sentence.getTransmittedChecksum());
+    }
+
+    private boolean isIgnoreInvalidChecksum(String line, byte expected, String actual) {
+        log.severe("Checksum of '" + line + "' is invalid. Expected '" + encodeByte(expected) + "' but found '" + actual + "'");
+        return preferences.getBoolean("ignoreInvalidChecksum", false);
+    }
+
     protected boolean hasValidFix(String line, String field, String valueThatIndicatesNoFix) {
         if (field != null && field.equals(valueThatIndicatesNoFix)) {
             log.severe("Fix for '" + line + "' is invalid. Contains '" + valueThatIndicatesNoFix + "'");
@@ -223,14 +245,101 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         return true;
     }
 
+    protected boolean hasValidFix(NmeaSentence sentence, int index, String valueThatIndicatesNoFix) {
+        return !sentence.isField(index, valueThatIndicatesNoFix) ||
+                hasValidFix(sentence.getLine(), valueThatIndicatesNoFix, valueThatIndicatesNoFix);
+    }
+
     protected abstract boolean isPosition(String line);
 
     protected abstract NmeaPosition parsePosition(String line);
 
+    /**
+     * Parses the line if it is a valid position. Formats that tokenize lines override this to
+     * avoid analyzing the line twice in {@link #isPosition} and {@link #parsePosition}.
+     *
+     * @param line the line to parse
+     * @return the position or null if the line is no valid position
+     */
+    protected NmeaPosition parseValidPosition(String line) {
+        return isPosition(line) ? parsePosition(line) : null;
+    }
+
+    private static int parseDigits(String string, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    // hhmmss or hhmmss.s to hhmmss.sss where like with SimpleDateFormat the fraction counts milliseconds
+    private static long parseTimeOfDay(String time) {
+        int length = time.length();
+        if (length < 6 || length == 7 || length > 10 || (length > 6 && time.charAt(6) != '.'))
+            return NO_TIME;
+        int hours = parseDigits(time, 0, 2);
+        int minutes = parseDigits(time, 2, 4);
+        int seconds = parseDigits(time, 4, 6);
+        int milliseconds = length > 6 ? parseDigits(time, 7, length) : 0;
+        if (hours < 0 || minutes < 0 || seconds < 0 || milliseconds < 0)
+            return NO_TIME;
+        // overflowing fields roll over like with the lenient calendar of SimpleDateFormat
+        return ((hours * 60L + minutes) * 60L + seconds) * 1000L + milliseconds;
+    }
+
+    private static long toEpochDay(int year, int month, int day) {
+        int monthIndex = month - 1;
+        if (monthIndex < 0) {
+            year--;
+            monthIndex += 12;
+        }
+        year += monthIndex / 12;
+        monthIndex %= 12;
+        // count from March on so that the leap day is the last day of the year
+        int marchBasedYear = monthIndex < 2 ? year - 1 : year;
+        int marchBasedMonth = monthIndex < 2 ? monthIndex + 10 : monthIndex - 2;
+        int era = marchBasedYear / 400;
+        int yearOfEra = marchBasedYear - era * 400;
+        int dayOfYear = (153 * marchBasedMonth + 2) / 5;
+        long dayOfEra = yearOfEra * 365L + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L + (day - 1);
+    }
+
+    // ddmmyy or ddmmyyyy with the time of day
+    private static long parseDateAndTimeOfDay(String date, String time) {
+        int length = date.length();
+        if (length != 6 && length != 8)
+            return NO_TIME;
+        int day = parseDigits(date, 0, 2);
+        int month = parseDigits(date, 2, 4);
+        int year = parseDigits(date, 4, length);
+        long timeOfDay = parseTimeOfDay(time);
+        if (day < 0 || month < 0 || year < 0 || timeOfDay == NO_TIME)
+            return NO_TIME;
+
+        if (length == 6) {
+            year += DEFAULT_CENTURY_START_YEAR / 100 * 100;
+            if (year < DEFAULT_CENTURY_START_YEAR)
+                year += 100;
+            long millis = toEpochDay(year, month, day) * 86400000L + timeOfDay;
+            return millis < DEFAULT_CENTURY_START ? toEpochDay(year + 100, month, day) * 86400000L + timeOfDay : millis;
+        }
+        if (year < 1600)
+            return NO_TIME;
+        return toEpochDay(year, month, day) * 86400000L + timeOfDay;
+    }
+
     protected CompactCalendar parseTime(String time) {
         time = trim(time);
         if (time == null)
             return null;
+        long timeOfDay = parseTimeOfDay(time);
+        if (timeOfDay != NO_TIME)
+            return fromMillis(timeOfDay);
         // 130441.89
         try {
             Date parsed = PRECISE_TIME_FORMAT.parse(time);
@@ -253,6 +362,11 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         date = trim(date);
         if (date == null)
             return parseTime(time);
+        if (time != null) {
+            long millis = parseDateAndTimeOfDay(date, time);
+            if (millis != NO_TIME)
+                return fromMillis(millis);
+        }
         String dateAndTime = date + " " + time;
         // date: 160607 time: 130441.89
         try {
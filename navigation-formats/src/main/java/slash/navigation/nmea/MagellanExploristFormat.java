@@ -1,6 +1,7 @@
 package slash.navigation.nmea;
 
 import slash.navigation.base.NavigationPosition;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.ValueAndOrientation;
 
@@ -10,13 +11,12 @@ import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.escape;
-import static slash.common.io.Transfer.parseDouble;
 import static slash.common.io.Transfer.toMixedCase;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
 
 /**
  * Reads and writes Magellan Explorist (.log) files.
@@ -34,17 +34,7 @@ public class MagellanExploristFormat extends BaseNmeaFormat {
 
     private static final String HEADER_LINE = "$PMGNFMT,%TRK,LAT,HEMI,LON,HEMI,ALT,UNIT,TIME,VALID,NAME,%META,ASCII";
     
-    private static final Pattern TRK_PATTERN = Pattern.
-            compile("^\\$PMGNTRK" + SEPARATOR +
-                    "([\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "(-?[\\d\\.]+)" + SEPARATOR +
-                    "M" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +     // UTC Time, hhmmss
-                    "[A]" + SEPARATOR +
-                    "(.*)" + SEPARATOR +            // Comment,
-                    "(\\d*)" +                      // Date, ddmmyy
-                    END_OF_LINE);
+    private static final String TRK = "PMGNTRK";
 
     private static final NumberFormat ALTITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
 
@@ -64,34 +54,55 @@ public class MagellanExploristFormat extends BaseNmeaFormat {
         return "Magellan Explorist (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return contains(header, "$PMGNTRK") ? Likely : Possible;
+    }
+
     @SuppressWarnings("unchecked")
     public <P extends NavigationPosition> NmeaRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
         return new NmeaRoute(this, characteristics, (List<NmeaPosition>) positions);
     }
 
+    // $PMGNTRK,4914.967,N,00651.208,E,000199,M,152224,A,KLLERTAL-RADWEG,210307*48
+    private boolean isTRK(NmeaSentence sentence) {
+        int lastIndex = sentence.getFieldCount() - 1;
+        return lastIndex >= 10 &&
+                sentence.isAddress(TRK) &&
+                sentence.isRequiredDecimal(1) && sentence.isOneOf(2, "NS") &&
+                sentence.isRequiredDecimal(3) && sentence.isOneOf(4, "WE") &&
+                sentence.isSignedDecimal(5, true) &&
+                sentence.isField(6, "M") &&
+                sentence.isDecimal(7) &&                   // UTC Time, hhmmss
+                sentence.isField(8, "A") &&
+                // the comment may contain separators
+                sentence.isDigits(lastIndex);              // Date, ddmmyy
+    }
+
     protected boolean isPosition(String line) {
-        Matcher matcher = TRK_PATTERN.matcher(line);
-        return matcher.matches() && hasValidChecksum(line);
+        NmeaSentence sentence = NmeaSentence.parse(line);
+        return sentence != null && isTRK(sentence) && hasValidChecksum(sentence);
     }
 
     protected NmeaPosition parsePosition(String line) {
-        Matcher matcher = TRK_PATTERN.matcher(line);
-        if (matcher.matches()) {
-            String latitude = matcher.group(1);
-            String northOrSouth = matcher.group(2);
-            String longitude = matcher.group(3);
-            String westOrEast = matcher.group(4);
-            String altitude = matcher.group(5);
-            String time = matcher.group(6);
-            String comment = toMixedCase(matcher.group(7));
-            String date = matcher.group(8);
-            return new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    parseDouble(altitude), null, null, parseDateAndTime(date, time), trim(comment));
-        }
+        NmeaSentence sentence = NmeaSentence.parse(line);
+        if (sentence != null && isTRK(sentence))
+            return parsePosition(sentence);
 
         throw new IllegalArgumentException("'" + line + "' does not match");
     }
 
+    protected NmeaPosition parseValidPosition(String line) {
+        NmeaSentence sentence = NmeaSentence.parse(line);
+        return sentence != null && isTRK(sentence) && hasValidChecksum(sentence) ? parsePosition(sentence) : null;
+    }
+
+    private NmeaPosition parsePosition(NmeaSentence sentence) {
+        int lastIndex = sentence.getFieldCount() - 1;
+        String comment = toMixedCase(sentence.getRawString(9, lastIndex - 1));
+        return new NmeaPosition(sentence.getDouble(3), sentence.getString(4), sentence.getDouble(1), sentence.getString(2),
+                sentence.getDouble(5), null, null, parseDateAndTime(sentence.getString(lastIndex), sentence.getString(7)), trim(comment));
+    }
+
     protected void writeHeader(PrintWriter writer) {
         writer.println(HEADER_LINE);
     }
@@ -21,6 +21,7 @@
 package slash.navigation.nmea;
 
 import slash.navigation.base.NavigationPosition;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.ValueAndOrientation;
 
@@ -40,6 +41,8 @@ import static slash.common.io.Transfer.formatIntAsString;
 import static slash.common.io.Transfer.parseDouble;
 import static slash.common.io.Transfer.toMixedCase;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
 import static slash.navigation.base.RouteCharacteristics.Route;
 
 /**
@@ -95,6 +98,10 @@ public class MagellanRouteFormat extends BaseNmeaFormat {
         return "Magellan Route (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return contains(header, "$PMGNWPL") || contains(header, "$PMGNRTE") ? Likely : Possible;
+    }
+
     protected RouteCharacteristics getCharacteristics() {
         return Route;
     }
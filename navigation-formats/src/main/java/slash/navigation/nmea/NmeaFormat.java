@@ -22,6 +22,7 @@ package slash.navigation.nmea;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.NavigationPosition;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.ValueAndOrientation;
 
@@ -33,14 +34,11 @@ import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.escape;
 import static slash.common.io.Transfer.formatIntAsString;
-import static slash.common.io.Transfer.parseDouble;
-import static slash.common.io.Transfer.parseInt;
-import static slash.common.io.Transfer.trim;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
 import static slash.navigation.common.UnitConversion.kilometerToNauticMiles;
 import static slash.navigation.common.UnitConversion.nauticMilesToKilometer;
 
@@ -76,97 +74,15 @@ public class NmeaFormat extends BaseNmeaFormat {
         YEAR_FORMAT.setTimeZone(CompactCalendar.UTC);
     }
 
-    // $GPGGA,130441.89,5239.3154,N,00907.7011,E,1,08,1.25,16.76,M,46.79,M,,*6D
-    // $GPGGA,162611,3554.2367,N,10619.4966,W,1,03,06.7,02300.3,M,-022.4,M,,*7F
-    // $GPGGA,132713,5509.7861,N,00140.5854,W,1,07,1.0,98.9,M,,M,,*7d
-    private static final Pattern GGA_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "GGA" + SEPARATOR + "([\\d\\.]*)" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "([\\d+])" + SEPARATOR +         // Fix quality, 0=invalid
-                    "([\\d]*)" + SEPARATOR +         // Number of satellites in view, 00 - 12
-                    "[\\d\\.]*" + SEPARATOR +
-                    "(-?[\\d\\.]*)" + SEPARATOR +    // Antenna Altitude above/below mean-sea-level (geoid)
-                    "M" + SEPARATOR +
-                    "[-?\\d\\.]*" + SEPARATOR +
-                    "M?" + SEPARATOR +
-                    ".*" + SEPARATOR +
-                    ".*" +                           // Differential reference station ID, 0000-1023
-                    END_OF_LINE);
-
-    // $GPRMC,180114,A,4808.9490,N,00928.9610,E,000.0,000.0,160607,,   ,A*76
-    // $GPRMC,140403.000,A,4837.5194,N,00903.4022,E,15.00,0.00,260707,,  *3E
-    // $GPRMC,172103.38,V,4424.5358,N,06812.3754,W,0.000,0.000,101010,0,W,N*3A
-    private static final Pattern RMC_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "RMC" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +     // UTC Time
-                    "[AV]" + SEPARATOR +            // Status, A=active, V=void
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([EW])" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +     // Speed over ground, knots
-                    "[\\d\\.]*" + SEPARATOR +
-                    "(\\d*)" + SEPARATOR +          // Date, ddmmyy
-                    "[\\d\\.]*" + SEPARATOR +
-                    "[\\d\\.]*" + SEPARATOR + "?" + // Magnetic variation
-                    "[AEW]?" + SEPARATOR + "?" +    // E=East, W=West
-                    "([ADEMNS])?" +                 // Signal integrity, N=not valid
-                    END_OF_LINE);
-
-    // $GPWPL,5334.169,N,01001.920,E,STATN1*22
-    private static final Pattern WPL_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "WPL" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "(.*)" +
-                    END_OF_LINE);
-
-    // $GPZDA,032910.542,07,08,2004,00,00*48
-    private static final Pattern ZDA_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "ZDA" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR + // UTC Time
-                    "(\\d*)" + SEPARATOR +      // day
-                    "(\\d*)" + SEPARATOR +      // month
-                    "(\\d*)" + SEPARATOR +      // year
-                    "\\d*" + SEPARATOR +
-                    "\\d*" +
-                    END_OF_LINE);
-
-    // $GPVTG,0.00,T,,M,1.531,N,2.835,K,A*37
-    // $GPVTG,138.7,T,,M,014.2,N,026.3,K,A*00
-    private static final Pattern VTG_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "VTG" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +   // true course
-                    "T" + SEPARATOR +
-                    "[\\d\\.]*" + SEPARATOR +     // magnetic course
-                    "M" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +
-                    "N" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +
-                    "K" + SEPARATOR +
-                    "A" +
-                    END_OF_LINE);
+    private static final String RMC = "GPRMC";
+    private static final String GGA = "GPGGA";
+    private static final String WPL = "GPWPL";
+    private static final String ZDA = "GPZDA";
+    private static final String VTG = "GPVTG";
+    private static final String GSA = "GPGSA";
 
-    // $GPGSA,A,3,,,,15,17,18,23,,,,,,4.7,4.4,1.5*3F
-    private static final Pattern GSA_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "GSA" + SEPARATOR +
-                    "[AM]" + SEPARATOR +
-                    "([123])" + SEPARATOR +      // Fix, 1=Fix not available
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +  // PDOP
-                    "([\\d\\.]*)" + SEPARATOR +  // HDOP
-                    "([\\d\\.]*)" +              // VDOP
-                    END_OF_LINE);
+    private static final int NO_MATCH = -2;
+    private static final int NO_SIGNAL_INTEGRITY = -1;
 
     public String getExtension() {
         return ".nmea";
@@ -176,120 +92,214 @@ public class NmeaFormat extends BaseNmeaFormat {
         return "NMEA 0183 Sentences (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return contains(header, "$GP") ? Likely : Possible;
+    }
+
     @SuppressWarnings({"unchecked"})
     public <P extends NavigationPosition> NmeaRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
         return new NmeaRoute(this, characteristics, (List<NmeaPosition>) positions);
     }
 
-    protected boolean isPosition(String line) {
-        Matcher rmcMatcher = RMC_PATTERN.matcher(line);
-        if (rmcMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, rmcMatcher.group(8), "N");
+    // $GPRMC,180114,A,4808.9490,N,00928.9610,E,000.0,000.0,160607,,   ,A*76
+    // $GPRMC,140403.000,A,4837.5194,N,00903.4022,E,15.00,0.00,260707,,  *3E
+    // $GPRMC,172103.38,V,4424.5358,N,06812.3754,W,0.000,0.000,101010,0,W,N*3A
+    private boolean isRMC(NmeaSentence sentence) {
+        return sentence.getFieldCount() >= 11 &&
+                sentence.isDecimal(1) &&                   // UTC Time
+                sentence.isOneOf(2, "AV") &&               // Status, A=active, V=void
+                sentence.isCoordinate(3) && sentence.isOneOf(4, "NS") &&
+                sentence.isCoordinate(5) && sentence.isOneOf(6, "EW") &&
+                sentence.isDecimal(7) &&                   // Speed over ground, knots
+                sentence.isDecimal(8) &&
+                sentence.isDigits(9) &&                    // Date, ddmmyy
+                findSignalIntegrity(sentence) != NO_MATCH;
+    }
 
-        Matcher ggaMatcher = GGA_PATTERN.matcher(line);
-        if (ggaMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, ggaMatcher.group(6), "0");
+    /**
+     * Matches the rest of a RMC sentence <code>[\d\.]*,[\d\.]*,?[AEW]?,?([ADEMNS])?</code> which
+     * consists of the required magnetic variation, E=East or W=West and the optional signal integrity.
+     *
+     * @param sentence the RMC sentence
+     * @return the position of the signal integrity, {@link #NO_SIGNAL_INTEGRITY} or {@link #NO_MATCH}
+     */
+    private int findSignalIntegrity(NmeaSentence sentence) {
+        if (sentence.getFieldCount() < 12 || !sentence.isDecimal(10))
+            return NO_MATCH;
+        int position = sentence.getStart(11);
+        int end = sentence.getEnd(sentence.getFieldCount() - 1);
+        while (position < end && "0123456789.".indexOf(sentence.charAt(position)) != -1)
+            position++;
+        if (position < end && sentence.charAt(position) == SEPARATOR)
+            position++;
+        if (position < end && "AEW".indexOf(sentence.charAt(position)) != -1)
+            position++;
+        if (position < end && sentence.charAt(position) == SEPARATOR)
+            position++;
+        int signalIntegrity = NO_SIGNAL_INTEGRITY;
+        if (position < end && "ADEMNS".indexOf(sentence.charAt(position)) != -1)
+            signalIntegrity = position++;
+        return position == end ? signalIntegrity : NO_MATCH;
+    }
 
-        Matcher wplMatcher = WPL_PATTERN.matcher(line);
-        if (wplMatcher.matches())
-            return hasValidChecksum(line);
+    // $GPGGA,130441.89,5239.3154,N,00907.7011,E,1,08,1.25,16.76,M,46.79,M,,*6D
+    // $GPGGA,162611,3554.2367,N,10619.4966,W,1,03,06.7,02300.3,M,-022.4,M,,*7F
+    // $GPGGA,132713,5509.7861,N,00140.5854,W,1,07,1.0,98.9,M,,M,,*7d
+    private boolean isGGA(NmeaSentence sentence) {
+        return sentence.getFieldCount() >= 15 &&
+                sentence.isDecimal(1) &&
+                sentence.isCoordinate(2) && sentence.isOneOf(3, "NS") &&
+                sentence.isCoordinate(4) && sentence.isOneOf(5, "WE") &&
+                sentence.isOneOf(6, "0123456789+") &&     // Fix quality, 0=invalid
+                sentence.isDigits(7) &&                    // Number of satellites in view, 00 - 12
+                sentence.isDecimal(8) &&
+                sentence.isSignedDecimal(9, false) &&      // Antenna Altitude above/below mean-sea-level (geoid)
+                sentence.isField(10, "M") &&
+                isGeoidalSeparation(sentence) &&
+                sentence.isEmptyOrOneOf(12, "M");
+        // the remaining fields contain the differential reference station ID, 0000-1023
+    }
 
-        Matcher zdaMatcher = ZDA_PATTERN.matcher(line);
-        if (zdaMatcher.matches())
-            return hasValidChecksum(line);
+    private boolean isGeoidalSeparation(NmeaSentence sentence) {
+        for (int i = sentence.getStart(11), end = sentence.getEnd(11); i < end; i++) {
+            if ("-?0123456789.".indexOf(sentence.charAt(i)) == -1)
+                return false;
+        }
+        return true;
+    }
 
-        Matcher vtgMatcher = VTG_PATTERN.matcher(line);
-        if (vtgMatcher.matches())
-            return hasValidChecksum(line);
+    // $GPWPL,5334.169,N,01001.920,E,STATN1*22
+    private boolean isWPL(NmeaSentence sentence) {
+        return sentence.getFieldCount() >= 6 &&
+                sentence.isCoordinate(1) && sentence.isOneOf(2, "NS") &&
+                sentence.isCoordinate(3) && sentence.isOneOf(4, "WE");
+    }
 
-        Matcher gsaMatcher = GSA_PATTERN.matcher(line);
-        return gsaMatcher.matches() && hasValidChecksum(line) && hasValidFix(line, gsaMatcher.group(1), "1");
+    // $GPZDA,032910.542,07,08,2004,00,00*48
+    private boolean isZDA(NmeaSentence sentence) {
+        return sentence.getFieldCount() == 7 &&
+                sentence.isDecimal(1) &&                   // UTC Time
+                sentence.isDigits(2) &&                    // day
+                sentence.isDigits(3) &&                    // month
+                sentence.isDigits(4) &&                    // year
+                sentence.isDigits(5) &&
+                sentence.isDigits(6);
+    }
+
+    // $GPVTG,0.00,T,,M,1.531,N,2.835,K,A*37
+    // $GPVTG,138.7,T,,M,014.2,N,026.3,K,A*00
+    private boolean isVTG(NmeaSentence sentence) {
+        return sentence.getFieldCount() == 10 &&
+                sentence.isDecimal(1) && sentence.isField(2, "T") &&   // true course
+                sentence.isDecimal(3) && sentence.isField(4, "M") &&   // magnetic course
+                sentence.isDecimal(5) && sentence.isField(6, "N") &&
+                sentence.isDecimal(7) && sentence.isField(8, "K") &&
+                sentence.isField(9, "A");
+    }
+
+    // $GPGSA,A,3,,,,15,17,18,23,,,,,,4.7,4.4,1.5*3F
+    private boolean isGSA(NmeaSentence sentence) {
+        if (sentence.getFieldCount() != 18 ||
+                !sentence.isOneOf(1, "AM") ||
+                !sentence.isOneOf(2, "123"))               // Fix, 1=Fix not available
+            return false;
+        for (int i = 3; i < 15; i++) {
+            if (!sentence.isDigits(i))
+                return false;
+        }
+        return sentence.isDecimal(15) &&                   // PDOP
+                sentence.isDecimal(16) &&                  // HDOP
+                sentence.isDecimal(17);                    // VDOP
+    }
+
+    protected boolean isPosition(String line) {
+        NmeaSentence sentence = NmeaSentence.parse(line);
+        return sentence != null && isPosition(sentence);
+    }
+
+    private boolean isPosition(NmeaSentence sentence) {
+        if (sentence.isAddress(RMC) && isRMC(sentence)) {
+            int signalIntegrity = findSignalIntegrity(sentence);
+            return hasValidChecksum(sentence) && (signalIntegrity == NO_SIGNAL_INTEGRITY ||
+                    hasValidFix(sentence.getLine(), String.valueOf(sentence.charAt(signalIntegrity)), "N"));
+        }
+        if (sentence.isAddress(GGA) && isGGA(sentence))
+            return hasValidChecksum(sentence) && hasValidFix(sentence, 6, "0");
+        if (sentence.isAddress(WPL) && isWPL(sentence))
+            return hasValidChecksum(sentence);
+        if (sentence.isAddress(ZDA) && isZDA(sentence))
+            return hasValidChecksum(sentence);
+        if (sentence.isAddress(VTG) && isVTG(sentence))
+            return hasValidChecksum(sentence);
+        return sentence.isAddress(GSA) && isGSA(sentence) && hasValidChecksum(sentence) && hasValidFix(sentence, 2, "1");
     }
 
     protected NmeaPosition parsePosition(String line) {
-        Matcher rmcMatcher = RMC_PATTERN.matcher(line);
-        if (rmcMatcher.matches()) {
-            String time = rmcMatcher.group(1);
-            String latitude = rmcMatcher.group(2);
-            String northOrSouth = rmcMatcher.group(3);
-            String longitude = rmcMatcher.group(4);
-            String westOrEast = rmcMatcher.group(5);
+        NmeaSentence sentence = NmeaSentence.parse(line);
+        NmeaPosition position = sentence != null ? parsePosition(sentence) : null;
+        if (position == null)
+            throw new IllegalArgumentException("'" + line + "' does not match");
+        return position;
+    }
+
+    protected NmeaPosition parseValidPosition(String line) {
+        NmeaSentence sentence = NmeaSentence.parse(line);
+        return sentence != null && isPosition(sentence) ? parsePosition(sentence) : null;
+    }
+
+    private NmeaPosition parsePosition(NmeaSentence sentence) {
+        if (sentence.isAddress(RMC) && isRMC(sentence)) {
             Double speed = null;
-            String speedStr = rmcMatcher.group(6);
-            if (speedStr != null) {
-                Double miles = parseDouble(speedStr);
-                if (miles != null)
-                    speed = nauticMilesToKilometer(miles);
-            }
-            String date = rmcMatcher.group(7);
-            return new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    null, speed, null, parseDateAndTime(date, time), null);
+            Double miles = sentence.getDouble(7);
+            if (miles != null)
+                speed = nauticMilesToKilometer(miles);
+            return new NmeaPosition(sentence.getDouble(5), sentence.getString(6), sentence.getDouble(3), sentence.getString(4),
+                    null, speed, null, parseDateAndTime(sentence.getString(9), sentence.getString(1)), null);
         }
 
-        Matcher ggaMatcher = GGA_PATTERN.matcher(line);
-        if (ggaMatcher.matches()) {
-            String time = ggaMatcher.group(1);
-            String latitude = ggaMatcher.group(2);
-            String northOrSouth = ggaMatcher.group(3);
-            String longitude = ggaMatcher.group(4);
-            String westOrEast = ggaMatcher.group(5);
-            String satellites = ggaMatcher.group(7);
-            String altitude = ggaMatcher.group(8);
-            NmeaPosition position = new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    parseDouble(altitude), null, null, parseTime(time), null);
-            position.setSatellites(parseInt(satellites));
+        if (sentence.isAddress(GGA) && isGGA(sentence)) {
+            NmeaPosition position = new NmeaPosition(sentence.getDouble(4), sentence.getString(5), sentence.getDouble(2), sentence.getString(3),
+                    sentence.getDouble(9), null, null, parseTime(sentence.getString(1)), null);
+            position.setSatellites(sentence.getInteger(7));
             return position;
         }
 
-        Matcher wplMatcher = WPL_PATTERN.matcher(line);
-        if (wplMatcher.matches()) {
-            String latitude = wplMatcher.group(1);
-            String northOrSouth = wplMatcher.group(2);
-            String longitude = wplMatcher.group(3);
-            String westOrEast = wplMatcher.group(4);
-            String comment = wplMatcher.group(5);
-            return new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    null, null, null, null, trim(comment));
+        if (sentence.isAddress(WPL) && isWPL(sentence)) {
+            String comment = sentence.getString(5, sentence.getFieldCount() - 1);
+            return new NmeaPosition(sentence.getDouble(3), sentence.getString(4), sentence.getDouble(1), sentence.getString(2),
+                    null, null, null, null, comment);
         }
 
-        Matcher zdaMatcher = ZDA_PATTERN.matcher(line);
-        if (zdaMatcher.matches()) {
-            String time = zdaMatcher.group(1);
-            String day = trim(zdaMatcher.group(2));
-            String month = trim(zdaMatcher.group(3));
-            String year = trim(zdaMatcher.group(4));
+        if (sentence.isAddress(ZDA) && isZDA(sentence)) {
+            String day = sentence.getString(2);
+            String month = sentence.getString(3);
+            String year = sentence.getString(4);
             String date = (day != null ? day : "") + (month != null ? month : "") + (year != null ? year : "");
-            return new NmeaPosition(null, null, null, null, null, null, null, parseDateAndTime(date, time), null);
+            return new NmeaPosition(null, null, null, null, null, null, null, parseDateAndTime(date, sentence.getString(1)), null);
         }
 
-        Matcher vtgMatcher = VTG_PATTERN.matcher(line);
-        if (vtgMatcher.matches()) {
-            Double heading = parseDouble(vtgMatcher.group(1));
+        if (sentence.isAddress(VTG) && isVTG(sentence)) {
+            Double heading = sentence.getDouble(1);
             boolean miles = false;
-            String speedStr = trim(vtgMatcher.group(3));
-            if (speedStr == null) {
-                speedStr = trim(vtgMatcher.group(2));
+            Double speed = sentence.getDouble(7);
+            if (speed == null) {
+                speed = sentence.getDouble(5);
                 miles = true;
             }
-            Double speed = parseDouble(speedStr);
             if (miles && speed != null)
                 speed = nauticMilesToKilometer(speed);
             return new NmeaPosition(null, null, null, null, null, speed, heading, null, null);
         }
 
-        Matcher gsaMatcher = GSA_PATTERN.matcher(line);
-        if (gsaMatcher.matches()) {
-            String pdop = gsaMatcher.group(2);
-            String hdop = gsaMatcher.group(3);
-            String vdop = gsaMatcher.group(4);
+        if (sentence.isAddress(GSA) && isGSA(sentence)) {
             NmeaPosition position = new NmeaPosition(null, null, null, null, null, null, null, null, null);
-            position.setPdop(parseDouble(pdop));
-            position.setHdop(parseDouble(hdop));
-            position.setVdop(parseDouble(vdop));
+            position.setPdop(sentence.getDouble(15));
+            position.setHdop(sentence.getDouble(16));
+            position.setVdop(sentence.getDouble(17));
             return position;
         }
 
-        throw new IllegalArgumentException("'" + line + "' does not match");
+        return null;
     }
 
 
@@ -0,0 +1,290 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import static slash.common.io.Transfer.parseDouble;
+import static slash.common.io.Transfer.parseInt;
+import static slash.common.io.Transfer.trim;
+
+/**
+ * A NMEA sentence like <code>$GPGGA,...*6D</code> split into its fields.
+ * <p/>
+ * The fields are located and the checksum is computed in a single pass over
+ * the line without regular expressions; field values are only extracted on demand.
+ * Field 0 is the address, i.e. the talker and sentence id like <code>GPGGA</code>.
+ *
+ * @author Christian Pesch
+ */
+
+class NmeaSentence {
+    private static final String DECIMAL = "0123456789.";
+    private static final String DIGITS = "0123456789";
+    private static final String COORDINATE = "0123456789. \t\n\u000B\f\r";
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAXIMUM_EXACT_DIGITS = 15;
+
+    private final String line;
+    private final int[] starts;
+    private final int fieldCount;
+    private final int end;
+    private final byte computedChecksum;
+    private final int transmittedChecksum;
+
+    private NmeaSentence(String line, int[] starts, int fieldCount, byte computedChecksum, int transmittedChecksum) {
+        this.line = line;
+        this.starts = starts;
+        this.fieldCount = fieldCount;
+        this.end = line.length() - 3;
+        this.computedChecksum = computedChecksum;
+        this.transmittedChecksum = transmittedChecksum;
+    }
+
+    /**
+     * Splits a line of the form <code>$...*hh</code> into its fields.
+     *
+     * @param line the line to split
+     * @return the sentence or null if the line doesn't start with $ and end with a checksum
+     */
+    public static NmeaSentence parse(String line) {
+        int length = line.length();
+        if (length < 4 || line.charAt(0) != '$' || line.charAt(length - 3) != '*')
+            return null;
+        int high = hexValue(line.charAt(length - 2));
+        int low = hexValue(line.charAt(length - 1));
+        if (high < 0 || low < 0)
+            return null;
+
+        int[] starts = new int[24];
+        int fieldCount = 1;
+        starts[0] = 1;
+        byte checksum = 0;
+        for (int i = 1, end = length - 3; i < end; i++) {
+            char c = line.charAt(i);
+            checksum ^= c;
+            if (c == ',') {
+                if (fieldCount == starts.length) {
+                    int[] grown = new int[starts.length * 2];
+                    System.arraycopy(starts, 0, grown, 0, starts.length);
+                    starts = grown;
+                }
+                starts[fieldCount++] = i + 1;
+            }
+        }
+        return new NmeaSentence(line, starts, fieldCount, checksum, high << 4 | low);
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        return -1;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public boolean hasValidChecksum() {
+        return (computedChecksum & 0xFF) == transmittedChecksum;
+    }
+
+    public byte getComputedChecksum() {
+        return computedChecksum;
+    }
+
+    public String getTransmittedChecksum() {
+        return line.substring(line.length() - 2);
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return index + 1 < fieldCount ? starts[index + 1] - 1 : end;
+    }
+
+    public char charAt(int position) {
+        return line.charAt(position);
+    }
+
+    public boolean isAddress(String address) {
+        return getEnd(0) - getStart(0) == address.length() && line.startsWith(address, getStart(0));
+    }
+
+    public boolean isField(int index, String value) {
+        return getEnd(index) - getStart(index) == value.length() && line.startsWith(value, getStart(index));
+    }
+
+    private boolean consistsOf(int index, String characters, int minimumLength) {
+        int start = getStart(index), end = getEnd(index);
+        if (end - start < minimumLength)
+            return false;
+        for (int i = start; i < end; i++) {
+            if (characters.indexOf(line.charAt(i)) == -1)
+                return false;
+        }
+        return true;
+    }
+
+    /** @return true if the field matches <code>[\d\.]*</code> */
+    public boolean isDecimal(int index) {
+        return consistsOf(index, DECIMAL, 0);
+    }
+
+    /** @return true if the field matches <code>[\d\.]+</code> */
+    public boolean isRequiredDecimal(int index) {
+        return consistsOf(index, DECIMAL, 1);
+    }
+
+    /** @return true if the field matches <code>-?[\d\.]*</code> or <code>-?[\d\.]+</code> */
+    public boolean isSignedDecimal(int index, boolean required) {
+        int start = getStart(index);
+        if (start < getEnd(index) && line.charAt(start) == '-') {
+            for (int i = start + 1, end = getEnd(index); i < end; i++) {
+                if (DECIMAL.indexOf(line.charAt(i)) == -1)
+                    return false;
+            }
+            return !required || getEnd(index) - start > 1;
+        }
+        return consistsOf(index, DECIMAL, required ? 1 : 0);
+    }
+
+    /** @return true if the field matches <code>\d*</code> */
+    public boolean isDigits(int index) {
+        return consistsOf(index, DIGITS, 0);
+    }
+
+    /** @return true if the field matches <code>[\s\d\.]+</code> */
+    public boolean isCoordinate(int index) {
+        return consistsOf(index, COORDINATE, 1);
+    }
+
+    /** @return true if the field consists of exactly one of the given characters */
+    public boolean isOneOf(int index, String characters) {
+        return getEnd(index) - getStart(index) == 1 && characters.indexOf(line.charAt(getStart(index))) != -1;
+    }
+
+    /** @return true if the field is empty or consists of exactly one of the given characters */
+    public boolean isEmptyOrOneOf(int index, String characters) {
+        return getEnd(index) == getStart(index) || isOneOf(index, characters);
+    }
+
+    /**
+     * Returns the trimmed value of the field.
+     *
+     * @param index the index of the field
+     * @return the trimmed value or null if the field is empty
+     */
+    public String getString(int index) {
+        return getString(index, index);
+    }
+
+    /**
+     * Returns the trimmed text spanning the given fields including their separators.
+     *
+     * @param firstIndex the index of the first field
+     * @param lastIndex  the index of the last field
+     * @return the trimmed text or null if it is empty
+     */
+    public String getString(int firstIndex, int lastIndex) {
+        return trim(getRawString(firstIndex, lastIndex));
+    }
+
+    String getRawString(int firstIndex, int lastIndex) {
+        return line.substring(getStart(firstIndex), getEnd(lastIndex));
+    }
+
+    /**
+     * Parses the field as a decimal number without creating intermediate strings
+     * for the common case of at most 15 digits with an optional sign and dot.
+     *
+     * @param index the index of the field
+     * @return the number or null if the field is empty
+     */
+    public Double getDouble(int index) {
+        int start = getStart(index), end = getEnd(index);
+        while (start < end && line.charAt(start) <= ' ')
+            start++;
+        while (end > start && line.charAt(end - 1) <= ' ')
+            end--;
+        if (start == end)
+            return null;
+
+        int i = start;
+        boolean negative = line.charAt(i) == '-';
+        if (negative)
+            i++;
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot)
+                    fractionDigits++;
+            } else if (c == '.' && !dot)
+                dot = true;
+            else {
+                digits = -1;
+                break;
+            }
+        }
+        // mantissa and power of ten are exact doubles, so the single division rounds like Double#parseDouble
+        if (digits <= 0 || digits > MAXIMUM_EXACT_DIGITS)
+            return parseDouble(line.substring(start, end));
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the field as an integer.
+     *
+     * @param index the index of the field
+     * @return the number or null if the field is empty
+     */
+    public Integer getInteger(int index) {
+        int start = getStart(index), end = getEnd(index);
+        if (end - start > 0 && end - start < 10) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                char c = line.charAt(i);
+                if (c < '0' || c > '9')
+                    return parseInt(line.substring(start, end));
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+        return parseInt(line.substring(start, end));
+    }
+}
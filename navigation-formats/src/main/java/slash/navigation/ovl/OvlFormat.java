@@ -25,6 +25,7 @@ import slash.navigation.base.IniFileFormat;
 import slash.navigation.base.MultipleRoutesFormat;
 import slash.navigation.base.NavigationPosition;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.base.Wgs84Position;
 
@@ -43,6 +44,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.ISO_LATIN1_ENCODING;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Possible;
 import static slash.navigation.common.NavigationConversion.formatPositionAsString;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
@@ -75,6 +78,11 @@ public class OvlFormat extends IniFileFormat<OvlRoute> implements MultipleRoutes
         return "Top50 OVL ASCII (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return containsSection(header, OVERLAY_TITLE) || containsSection(header, MAPLAGE_TITLE) ||
+                containsSection(header, SYMBOL_TITLE + " 1") ? Likely : Possible;
+    }
+
     public int getMaximumPositionCount() {
         return UNLIMITED_MAXIMUM_POSITION_COUNT;
     }
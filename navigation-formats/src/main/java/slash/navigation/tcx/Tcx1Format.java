@@ -22,6 +22,7 @@ package slash.navigation.tcx;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.Wgs84Position;
 import slash.navigation.tcx.binding1.ActivityLapT;
 import slash.navigation.tcx.binding1.CourseFolderT;
@@ -54,6 +55,7 @@ import java.util.Set;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.tcx.TcxUtil.TCX_1_NAMESPACE_URI;
 import static slash.navigation.tcx.TcxUtil.marshal1;
 
 /**
@@ -68,6 +70,10 @@ public class Tcx1Format extends TcxFormat {
         return "Training Center Database 1 (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "TrainingCenterDatabase", TCX_1_NAMESPACE_URI);
+    }
+
     private Double convertLongitude(PositionT positionT) {
         return positionT != null ? positionT.getLongitudeDegrees() : null;
     }
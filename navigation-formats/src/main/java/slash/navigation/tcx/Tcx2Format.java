@@ -22,6 +22,7 @@ package slash.navigation.tcx;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.Wgs84Position;
 import slash.navigation.tcx.binding2.ActivityLapT;
 import slash.navigation.tcx.binding2.ActivityListT;
@@ -52,6 +53,7 @@ import java.util.Set;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.tcx.TcxUtil.TCX_2_NAMESPACE_URI;
 import static slash.navigation.tcx.TcxUtil.marshal2;
 
 /**
@@ -66,6 +68,10 @@ public class Tcx2Format extends TcxFormat {
         return "Training Center Database 2 (*" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return getPlausibility(header, "TrainingCenterDatabase", TCX_2_NAMESPACE_URI);
+    }
+
 
     private Double convertLongitude(PositionT positionT) {
         return positionT != null ? positionT.getLongitudeDegrees() : null;
@@ -34,8 +34,8 @@ import static slash.navigation.jaxb.JaxbUtils.newMarshaller;
 import static slash.navigation.jaxb.JaxbUtils.newUnmarshaller;
 
 class TcxUtil {
-    private static final String TCX_1_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v1";
-    private static final String TCX_2_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2";
+    public static final String TCX_1_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v1";
+    public static final String TCX_2_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2";
 
     private static Unmarshaller newUnmarshaller1() {
         return newUnmarshaller(newContext(slash.navigation.tcx.binding1.ObjectFactory.class));
@@ -21,16 +21,15 @@
 package slash.navigation.zip;
 
 import slash.common.io.Files;
-import slash.common.io.NotClosingUnderlyingInputStream;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.BaseNavigationFormat;
 import slash.navigation.base.BaseRoute;
 import slash.navigation.base.NavigationFormat;
 import slash.navigation.base.NavigationPosition;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.Plausibility;
 import slash.navigation.base.RouteCharacteristics;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -40,6 +39,8 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import static slash.navigation.base.NavigationFormats.getReadFormatsPreferredByExtension;
+import static slash.navigation.base.Plausibility.Likely;
+import static slash.navigation.base.Plausibility.Unlikely;
 
 /**
  * Reads routes from ZIP Archive (.zip) files.
@@ -61,6 +62,10 @@ public class ZipFormat extends BaseNavigationFormat<BaseRoute> {
         return "ZIP Archive (" + getExtension() + ")";
     }
 
+    public Plausibility getPlausibility(byte[] header) {
+        return startsWith(header, ZIP_SIGNATURE) ? Likely : Unlikely;
+    }
+
     public int getMaximumPositionCount() {
         throw new UnsupportedOperationException();
     }
@@ -86,11 +91,8 @@ public class ZipFormat extends BaseNavigationFormat<BaseRoute> {
         try {
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
-                int size = (int) entry.getSize() + 1;
-                NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(zip, size));
-                buffer.mark(size);
                 List<NavigationFormat> formats = getReadFormatsPreferredByExtension(Files.getExtension(entry.getName()));
-                parserContext.parse(buffer, size, startDate, formats);
+                parserContext.parse(zip, startDate, formats);
                 zip.closeEntry();
             }
         } catch (IOException e) {
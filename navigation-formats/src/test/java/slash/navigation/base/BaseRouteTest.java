@@ -0,0 +1,124 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.simple.GlopusFormat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class BaseRouteTest {
+    private static final int[] INDICES = new int[]{7, 1, 2, 5};
+
+    private Wgs84Route createRoute(boolean columnar) {
+        List<Wgs84Position> positions = columnar ? new ColumnarPositions() : new ArrayList<Wgs84Position>();
+        for (int i = 0; i < 10; i++)
+            positions.add(new Wgs84Position((double) i, 50.0, null, null, null, null));
+        return new Wgs84Route(new GlopusFormat(), Track, positions);
+    }
+
+    private String asString(List<Wgs84Position> positions) {
+        StringBuilder buffer = new StringBuilder();
+        for (Wgs84Position position : positions)
+            buffer.append(position.getLongitude().intValue());
+        return buffer.toString();
+    }
+
+    private String asString(Wgs84Route route) {
+        return asString(route.getPositions());
+    }
+
+    @Test
+    public void testTopAndTopDown() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Wgs84Route route = createRoute(columnar);
+            route.top(INDICES);
+            assertEquals("1257034689", asString(route));
+            route.topDown(INDICES);
+            assertEquals("0123456789", asString(route));
+        }
+    }
+
+    @Test
+    public void testBottomAndBottomUp() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Wgs84Route route = createRoute(columnar);
+            route.bottom(INDICES);
+            assertEquals("0346891257", asString(route));
+            route.bottomUp(INDICES);
+            assertEquals("0123456789", asString(route));
+        }
+    }
+
+    @Test
+    public void testRemoveAllAndAddAll() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Wgs84Route route = createRoute(columnar);
+            BitSet indices = new BitSet();
+            for (int index : INDICES)
+                indices.set(index);
+            List<Wgs84Position> removed = route.removeAll(indices);
+            assertEquals("034689", asString(route));
+            assertEquals("1257", asString(removed));
+
+            route.addAll(new int[]{1, 2, 5, 7}, removed);
+            assertEquals("0123456789", asString(route));
+        }
+    }
+
+    @Test
+    public void testRemoveDuplicates() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Wgs84Route route = createRoute(columnar);
+            route.getPositions().add(3, new Wgs84Position(2.0, 50.0, null, null, null, null));
+            route.getPositions().add(4, new Wgs84Position(2.0, 50.0, null, null, null, null));
+            route.getPositions().add(new Wgs84Position(null, null, null, null, null, null));
+            route.removeDuplicates();
+            assertEquals("0123456789", asString(route));
+        }
+    }
+
+    @Test
+    public void testRevert() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Wgs84Route route = createRoute(columnar);
+            route.setName("Name");
+            route.revert();
+            assertEquals("9876543210", asString(route));
+            assertEquals("Name (rev)", route.getName());
+        }
+    }
+
+    @Test
+    public void testIndexAndSuccessor() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            Wgs84Route route = createRoute(columnar);
+            Wgs84Position position = route.getPosition(4);
+            assertEquals(4, route.getIndex(position));
+            assertEquals(5.0, route.getSuccessor(position).getLongitude(), 0.0);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.simple.GlopusFormat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class ColumnarPositionsTest {
+    private List<Wgs84Position> createPositions() {
+        List<Wgs84Position> positions = new ArrayList<Wgs84Position>();
+        positions.add(new Wgs84Position(10.0, 50.0, 100.0, 5.0, fromMillis(1000), null));
+        positions.add(new Wgs84Position(10.01, 50.01, 120.0, null, fromMillis(61000), null));
+        positions.add(new Wgs84Position(null, null, null, null, null, null));
+        positions.add(new Wgs84Position(10.02, 50.02, 90.0, 7.0, fromMillis(121000), null));
+        positions.add(new Wgs84Position(10.03, 50.03, 110.0, null, fromMillis(100000), null));
+        return positions;
+    }
+
+    @Test
+    public void testStoresValues() {
+        ColumnarPositions columns = new ColumnarPositions(1);
+        Wgs84Position position = new Wgs84Position(10.0, 50.0, 100.0, 5.0, fromMillisAndTimeZone(1000, "Europe/Berlin"), "Comment");
+        position.setHeading(90.0);
+        position.setSatellites(7);
+        columns.add(position);
+        columns.add(new Wgs84Position(null, null, null, null, null, null));
+
+        Wgs84Position first = columns.get(0);
+        assertEquals(10.0, first.getLongitude(), 0.0);
+        assertEquals(50.0, first.getLatitude(), 0.0);
+        assertEquals(100.0, first.getElevation(), 0.0);
+        assertEquals(5.0, first.getSpeed(), 0.0);
+        assertEquals(1000, first.getTime().getTimeInMillis());
+        assertEquals("Europe/Berlin", first.getTime().getTimeZoneId());
+        assertEquals("Comment", first.getComment());
+        assertEquals(90.0, first.getHeading(), 0.0);
+        assertEquals(7, first.getSatellites().intValue());
+
+        Wgs84Position second = columns.get(1);
+        assertNull(second.getLongitude());
+        assertNull(second.getElevation());
+        assertNull(second.getTime());
+        assertNull(second.getComment());
+    }
+
+    @Test
+    public void testViewsWriteThrough() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        columns.get(2).setLongitude(11.0);
+        columns.get(2).setTime(fromMillis(2000));
+        assertEquals(11.0, columns.get(2).getLongitude(), 0.0);
+        assertEquals(2000, columns.get(2).getTime().getTimeInMillis());
+        assertEquals(columns.get(2), columns.get(2));
+        assertEquals(2, columns.indexOf(columns.get(2)));
+    }
+
+    @Test
+    public void testAddAndRemoveShiftRows() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        columns.add(1, new Wgs84Position(20.0, 60.0, null, null, null, "Inserted"));
+        assertEquals(6, columns.size());
+        assertEquals(20.0, columns.get(1).getLongitude(), 0.0);
+        assertEquals(10.01, columns.get(2).getLongitude(), 0.0);
+
+        Wgs84Position removed = columns.remove(1);
+        assertEquals("Inserted", removed.getComment());
+        assertEquals(5, columns.size());
+        assertEquals(10.01, columns.get(1).getLongitude(), 0.0);
+
+        columns.add(0, columns.get(4));
+        assertEquals(10.03, columns.get(0).getLongitude(), 0.0);
+        assertEquals(10.03, columns.get(5).getLongitude(), 0.0);
+
+        columns.subList(1, 3).clear();
+        assertEquals(4, columns.size());
+        assertNull(columns.get(1).getLongitude());
+    }
+
+    @Test
+    public void testViewsFollowTheirRows() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        Wgs84Position first = columns.get(0), fourth = columns.get(3);
+        assertSame(first, columns.get(0));
+
+        columns.add(0, new Wgs84Position(20.0, 60.0, null, null, null, null));
+        assertSame(first, columns.get(1));
+        assertSame(fourth, columns.get(4));
+        assertEquals(4, columns.indexOf(fourth));
+        assertEquals(10.02, fourth.getLongitude(), 0.0);
+
+        columns.remove(2);
+        assertSame(fourth, columns.get(3));
+        assertEquals(3, columns.indexOf(fourth));
+
+        columns.arrange(0, new int[]{3, 2, 1, 0});
+        assertSame(fourth, columns.get(0));
+        assertSame(first, columns.get(2));
+        assertEquals(10.0, first.getLongitude(), 0.0);
+    }
+
+    @Test
+    public void testRemovedViewsAreDetached() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        Wgs84Position second = columns.get(1), third = columns.get(2);
+        assertSame(second, columns.remove(1));
+        assertEquals(-1, columns.indexOf(second));
+        assertSame(third, columns.get(1));
+
+        // a detached view keeps its values and no longer writes through
+        assertEquals(10.01, second.getLongitude(), 0.0);
+        assertEquals(120.0, second.getElevation(), 0.0);
+        second.setLongitude(11.0);
+        assertEquals(10.02, columns.get(2).getLongitude(), 0.0);
+
+        columns.add(1, second);
+        assertSame(second, columns.get(1));
+        assertEquals(11.0, columns.get(1).getLongitude(), 0.0);
+        assertEquals(1, columns.indexOf(second));
+    }
+
+    @Test
+    public void testRemoveAllAndAddAllKeepViews() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        List<Wgs84Position> views = new ArrayList<Wgs84Position>(columns);
+        BitSet indices = new BitSet();
+        indices.set(1);
+        indices.set(3);
+        List<Wgs84Position> removed = columns.removeAll(indices);
+        assertSame(views.get(1), removed.get(0));
+        assertSame(views.get(3), removed.get(1));
+        assertSame(views.get(4), columns.get(2));
+
+        columns.addAll(new int[]{1, 3}, removed);
+        assertEquals(5, columns.size());
+        for (int i = 0; i < views.size(); i++)
+            assertSame(views.get(i), columns.get(i));
+    }
+
+    @Test
+    public void testSetAddsCopyOfAnotherRow() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        Wgs84Position first = columns.get(0), second = columns.get(1);
+        Wgs84Position previous = columns.set(1, first);
+        assertSame(second, previous);
+        assertEquals(10.01, previous.getLongitude(), 0.0);
+        assertNotSame(first, columns.get(1));
+        assertEquals(10.0, columns.get(1).getLongitude(), 0.0);
+        assertSame(first, columns.get(0));
+    }
+
+    @Test
+    public void testParsesCommentsLazily() {
+        ColumnarPositions columns = new ColumnarPositions(createPositions());
+        columns.get(2).setComment("Richtung 316 - 09:14:35 - 244 m - Hamburg");
+        assertEquals(124.0, columns.getElevationAscend(1, 3), 0.0);
+        assertEquals(244.0, columns.get(2).getElevation(), 0.0);
+
+        columns.get(0).setComment("Richtung 316 - 09:14:35 - 300 m - Hamburg");
+        Wgs84Position removed = columns.remove(0);
+        assertEquals(300.0, removed.getElevation(), 0.0);
+    }
+
+    @Test
+    public void testCalculationsMatchObjectPositions() {
+        Wgs84Route objects = new Wgs84Route(new GlopusFormat(), Track, createPositions());
+        Wgs84Route columns = new Wgs84Route(new GlopusFormat(), Track, new ColumnarPositions(createPositions()));
+        assertEquals(objects.getDistance(), columns.getDistance(), 0.000001);
+        assertEquals(objects.getDistance(1, 3), columns.getDistance(1, 3), 0.000001);
+        assertEquals(objects.getElevationAscend(0, 4), columns.getElevationAscend(0, 4), 0.0);
+        assertEquals(objects.getElevationDescend(0, 4), columns.getElevationDescend(0, 4), 0.0);
+        assertEquals(objects.getTime(), columns.getTime());
+    }
+}
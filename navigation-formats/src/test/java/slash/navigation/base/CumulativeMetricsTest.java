@@ -0,0 +1,87 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.simple.GlopusFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class CumulativeMetricsTest {
+    private Wgs84Route createRoute() {
+        List<Wgs84Position> positions = new ArrayList<Wgs84Position>();
+        positions.add(new Wgs84Position(10.0, 50.0, 100.0, null, fromMillis(1000), null));
+        positions.add(new Wgs84Position(10.01, 50.01, 120.0, null, fromMillis(61000), null));
+        positions.add(new Wgs84Position(10.02, 50.02, null, null, null, null));
+        positions.add(new Wgs84Position(10.03, 50.03, 90.0, null, fromMillis(121000), null));
+        positions.add(new Wgs84Position(10.04, 50.04, 110.0, null, fromMillis(181000), null));
+        return new Wgs84Route(new GlopusFormat(), Track, positions);
+    }
+
+    private void assertMetrics(Wgs84Route route, CumulativeMetrics metrics) {
+        double[] distances = route.getDistancesFromStart(0, route.getPositionCount() - 1);
+        for (int i = 0; i < route.getPositionCount(); i++) {
+            assertEquals(distances[i], metrics.getDistance(i), 0.000001);
+            assertEquals(route.getElevationAscend(0, i), metrics.getElevationAscend(i), 0.0);
+            assertEquals(route.getElevationDescend(0, i), metrics.getElevationDescend(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testSums() {
+        Wgs84Route route = createRoute();
+        CumulativeMetrics metrics = new CumulativeMetrics(route);
+        assertMetrics(route, metrics);
+        assertEquals(0.0, metrics.getDistance(0), 0.0);
+        assertEquals(20.0, metrics.getElevationAscend(1), 0.0);
+        assertEquals(40.0, metrics.getElevationAscend(4), 0.0);
+        assertEquals(0.0, metrics.getElevationDescend(3), 0.0);
+        assertEquals(60000, metrics.getTime(1));
+        assertEquals(60000, metrics.getTime(3));
+    }
+
+    @Test
+    public void testInvalidate() {
+        Wgs84Route route = createRoute();
+        CumulativeMetrics metrics = new CumulativeMetrics(route);
+        assertMetrics(route, metrics);
+
+        route.getPosition(2).setElevation(150.0);
+        metrics.invalidate(2);
+        assertMetrics(route, metrics);
+        assertEquals(50.0, metrics.getElevationAscend(2), 0.0);
+        assertEquals(60.0, metrics.getElevationDescend(3), 0.0);
+
+        route.remove(1);
+        metrics.invalidate(1);
+        assertMetrics(route, metrics);
+
+        route.add(0, new Wgs84Position(9.99, 49.99, 0.0, null, null, null));
+        metrics.invalidate(0);
+        assertMetrics(route, metrics);
+        assertEquals(100.0, metrics.getElevationAscend(1), 0.0);
+    }
+}
@@ -4,7 +4,15 @@ import org.junit.Test;
 import slash.navigation.babel.GarminMapSource6Format;
 import slash.navigation.babel.TomTomPoiFormat;
 import slash.navigation.bcr.MTP0809Format;
+import slash.navigation.gpx.BrokenGpx11Format;
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.kml.BrokenKml22Format;
+import slash.navigation.kml.BrokenKmz21LittleEndianFormat;
+import slash.navigation.kml.Kmz22Format;
+import slash.navigation.nmea.BrokenNmeaFormat;
 import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
 import slash.navigation.simple.BrokenHaicomLoggerFormat;
 import slash.navigation.simple.ColumbusV900ProfessionalFormat;
 import slash.navigation.simple.ColumbusV900StandardFormat;
@@ -13,9 +21,15 @@ import slash.navigation.simple.Iblue747Format;
 import slash.navigation.simple.QstarzQ1000Format;
 import slash.navigation.simple.Route66Format;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static slash.navigation.base.NavigationFormats.asFormat;
+import static slash.navigation.base.NavigationFormats.asFormatForPositions;
+import static slash.navigation.base.NavigationFormats.getReadFormats;
+import static slash.navigation.base.NavigationFormats.sortByPlausibility;
 
 public class NavigationFormatsTest {
 
@@ -52,4 +66,50 @@ public class NavigationFormatsTest {
         assertEquals(BrokenHaicomLoggerFormat.class, formats.get(6).getClass());
         assertEquals(NmeaFormat.class, formats.get(7).getClass());
     }
+
+    @Test
+    public void testSortByPlausibilityPrefersXmlNamespace() {
+        byte[] header = "<?xml version=\"1.0\"?>\n<gpx version=\"1.1\" xmlns=\"http://www.topografix.com/GPX/1/1\">".getBytes();
+        List<NavigationFormat> formats = sortByPlausibility(getReadFormats(), header);
+        assertEquals(getReadFormats().size(), formats.size());
+        assertEquals(Gpx11Format.class, formats.get(0).getClass());
+        assertEquals(BrokenGpx11Format.class, formats.get(1).getClass());
+        assertEquals(NmeaFormat.class, formats.get(2).getClass());
+        assertEquals(BrokenKmz21LittleEndianFormat.class, formats.get(formats.size() - 1).getClass());
+    }
+
+    @Test
+    public void testSortByPlausibilityPrefersZipSignature() {
+        byte[] header = "PK\003\004\024\000\000\000\010\000doc.kml".getBytes();
+        List<NavigationFormat> formats = sortByPlausibility(getReadFormats(), header);
+        assertEquals(Kmz22Format.class, formats.get(0).getClass());
+        assertEquals(NmeaFormat.class, formats.get(7).getClass());
+        assertEquals(BrokenKml22Format.class, formats.get(formats.size() - 1).getClass());
+    }
+
+    @Test
+    public void testSortByPlausibilityMovesXmlFormatsBehindForText() {
+        byte[] header = "$GPGGA,130441.89,5239.3154,N,00907.7011,E,1,08,1.25,16.76,M,46.79,M,,*6D".getBytes();
+        List<NavigationFormat> formats = sortByPlausibility(getReadFormats(), header);
+        assertEquals(NmeaFormat.class, formats.get(0).getClass());
+        assertEquals(BrokenNmeaFormat.class, formats.get(1).getClass());
+        assertEquals(MTP0809Format.class, formats.get(2).getClass());
+        assertEquals(BrokenKml22Format.class, formats.get(formats.size() - 1).getClass());
+    }
+
+    @Test
+    public void testAsFormatForPositionsReusesConversion() throws IOException {
+        List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+        for (int i = 0; i < 3; i++)
+            positions.add(new Wgs84Position(10.0 + i, 50.0 + i, null, null, null, "Position " + i));
+
+        List<BaseNavigationPosition> gpxPositions = asFormatForPositions(positions, new Gpx11Format());
+        assertEquals(3, gpxPositions.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(GpxPosition.class, gpxPositions.get(i).getClass());
+            assertEquals(10.0 + i, gpxPositions.get(i).getLongitude(), 0.0);
+        }
+        assertEquals(NmeaPosition.class, asFormat(positions.get(0), new NmeaFormat()).getClass());
+        assertEquals(GpxPosition.class, asFormat(positions.get(1), new BrokenGpx11Format()).getClass());
+    }
 }
@@ -22,10 +22,23 @@ package slash.navigation.base;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.sin;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static slash.navigation.base.Positions.asPosition;
+import static slash.navigation.base.Positions.calculateSignificances;
 import static slash.navigation.base.Positions.contains;
+import static slash.navigation.base.Positions.getSignificantPositions;
+import static slash.navigation.base.Positions.markSignificantPositions;
 
 public class PositionsTest {
     @Test
@@ -44,4 +57,109 @@ public class PositionsTest {
         assertFalse(contains(asPosition(0.0, 0.0), asPosition(-0.1, -0.1), asPosition(0.0, 0.0)));
         assertFalse(contains(asPosition(-0.1, -0.1), asPosition(-0.1, -0.1), asPosition(0.0, 0.0)));
     }
+
+    private static void recursiveDouglasPeucker(List<NavigationPosition> positions, int from, int to, double threshold, BitSet result) {
+        result.set(from);
+        result.set(to);
+        int maximumDistanceIndex = -1;
+        double maximumDistance = 0.0;
+        for (int i = from + 1; i < to; i++) {
+            double distance = abs(positions.get(i).calculateOrthogonalDistance(positions.get(from), positions.get(to)));
+            if (distance > maximumDistance) {
+                maximumDistance = distance;
+                maximumDistanceIndex = i;
+            }
+        }
+        if (maximumDistanceIndex != -1 && maximumDistance > threshold) {
+            recursiveDouglasPeucker(positions, from, maximumDistanceIndex, threshold, result);
+            recursiveDouglasPeucker(positions, maximumDistanceIndex, to, threshold, result);
+        }
+    }
+
+    private static List<NavigationPosition> randomTrack(int count, double step) {
+        Random random = new Random(4711);
+        List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+        double longitude = 10.0, latitude = 53.0;
+        for (int i = 0; i < count; i++) {
+            longitude += random.nextDouble() * step;
+            latitude += (random.nextDouble() - 0.5) * step;
+            positions.add(asPosition(longitude, latitude));
+        }
+        return positions;
+    }
+
+    @Test
+    public void testSignificantPositionsOfNoAndOnePosition() {
+        List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+        assertArrayEquals(new int[0], getSignificantPositions(positions, 10.0));
+        positions.add(asPosition(1.0, 1.0));
+        assertArrayEquals(new int[]{0}, getSignificantPositions(positions, 10.0));
+    }
+
+    @Test
+    public void testSignificantPositionsSkipPositionsWithoutCoordinates() {
+        List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+        positions.add(asPosition(10.0, 53.0));
+        positions.add(new Wgs84Position(null, null, null, null, null, null));
+        positions.add(asPosition(10.001, 53.001));
+        positions.add(asPosition(10.002, 53.0));
+        assertNull(positions.get(1).getLongitude());
+        assertArrayEquals(new int[]{0, 2, 3}, getSignificantPositions(positions, 10.0));
+        assertArrayEquals(new int[]{0, 3}, getSignificantPositions(positions, 1000.0));
+    }
+
+    @Test
+    public void testSignificantPositionsLikeRecursiveAlgorithm() {
+        // covers both the planar segments of a few hundred meters and the spherical segments of several kilometers
+        for (double step : new double[]{0.0001, 0.01}) {
+            List<NavigationPosition> positions = randomTrack(5000, step);
+            for (double threshold : new double[]{1.0, 10.0, 100.0, 1000.0}) {
+                BitSet expected = new BitSet();
+                recursiveDouglasPeucker(positions, 0, positions.size() - 1, threshold, expected);
+                assertEquals("step " + step + " threshold " + threshold,
+                        expected, markSignificantPositions(positions, threshold, false));
+            }
+        }
+    }
+
+    @Test
+    public void testSignificancesLikeSignificantPositions() {
+        List<NavigationPosition> positions = randomTrack(5000, 0.001);
+        double[] significances = calculateSignificances(positions);
+        for (double threshold : new double[]{1.0, 10.0, 100.0, 1000.0}) {
+            BitSet significant = new BitSet();
+            for (int i = 0; i < significances.length; i++)
+                if (significances[i] > threshold)
+                    significant.set(i);
+            assertEquals("threshold " + threshold, markSignificantPositions(positions, threshold, false), significant);
+        }
+    }
+
+    @Test
+    public void testSignificantPositionsInParallelLikeSequential() {
+        List<NavigationPosition> positions = randomTrack(250000, 0.0001);
+        for (double threshold : new double[]{5.0, 50.0}) {
+            assertEquals(markSignificantPositions(positions, threshold, false),
+                    markSignificantPositions(positions, threshold, true));
+        }
+    }
+
+    @Test
+    public void testSignificantPositionsWithoutDeepRecursion() throws InterruptedException {
+        // every zigzag peak has the same distance so the recursive algorithm splits off one position
+        // per level and would need a stack depth of the number of positions
+        final List<NavigationPosition> positions = new ArrayList<NavigationPosition>();
+        for (int i = 0; i < 20001; i++)
+            positions.add(asPosition(10.0 + i * 0.000001, 53.0 + (i % 2) * 0.00001 + sin(i) * 0.0000001));
+
+        final int[][] result = new int[1][];
+        Thread thread = new Thread(null, new Runnable() {
+            public void run() {
+                result[0] = getSignificantPositions(positions, 0.1);
+            }
+        }, "SmallStack", 64 * 1024);
+        thread.start();
+        thread.join();
+        assertEquals(positions.size(), result[0].length);
+    }
 }
@@ -0,0 +1,94 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.common.TestCase.calendar;
+
+public class RouteCommentsTest {
+    private static final String TRIPMASTER = "Richtung 316 - 09:14:35 - 244 m - Hamburg";
+    private static final String ROUTECONVERTER = "Kuehtai : 18:51:59 - 2017.0 m - 29.3 Km/h - 91.0 deg";
+
+    @Test
+    public void testParseTripmasterComment() {
+        Wgs84Position position = new Wgs84Position(null, null, null, null, null, TRIPMASTER);
+        assertEquals(244.0, position.getElevation(), 0.0);
+        assertEquals(calendar(1970, 1, 1, 9, 14, 35), position.getTime());
+        assertEquals(316.0, position.getHeading(), 0.0);
+    }
+
+    @Test
+    public void testParseRouteConverterComment() {
+        Wgs84Position position = new Wgs84Position(null, null, null, null, null, ROUTECONVERTER);
+        assertEquals(2017.0, position.getElevation(), 0.0);
+        assertEquals(29.3, position.getSpeed(), 0.0);
+        assertEquals(calendar(1970, 1, 1, 18, 51, 59), position.getTime());
+    }
+
+    @Test
+    public void testValuesSetAfterCommentWin() {
+        Wgs84Position position = new Wgs84Position(null, null, 1.0, null, null, TRIPMASTER);
+        position.setElevation(2.0);
+        assertEquals(2.0, position.getElevation(), 0.0);
+    }
+
+    @Test
+    public void testCommentOverridesValuesSetBefore() {
+        Wgs84Position position = new Wgs84Position(null, null, 1.0, null, null, null);
+        position.setComment(TRIPMASTER);
+        assertEquals(244.0, position.getElevation(), 0.0);
+    }
+
+    @Test
+    public void testValuesOfPreviousCommentRemain() {
+        Wgs84Position position = new Wgs84Position(null, null, null, null, null, TRIPMASTER);
+        position.setComment("Hamburg");
+        assertEquals("Hamburg", position.getComment());
+        assertEquals(244.0, position.getElevation(), 0.0);
+    }
+
+    @Test
+    public void testUnrecognizedComment() {
+        Wgs84Position position = new Wgs84Position(null, null, null, null, null, "Position 1");
+        assertNull(position.getElevation());
+        assertNull(position.getTime());
+        position.setComment("");
+        assertNull(position.getElevation());
+    }
+
+    @Test
+    public void testAddCommentRecognizer() {
+        RouteComments.addCommentRecognizer(new RouteComments.CommentRecognizer() {
+            protected boolean isCandidate(String comment) {
+                return comment.startsWith("Elevation ");
+            }
+
+            protected void parse(NavigationPosition position, String comment) {
+                position.setElevation(Double.parseDouble(comment.substring(10)));
+            }
+        });
+        Wgs84Position position = new Wgs84Position(null, null, null, null, null, "Elevation 123.5");
+        assertEquals(123.5, position.getElevation(), 0.0);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.simple.GlopusFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.base.Positions.asPosition;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class SpatialIndexTest {
+    private final Random random = new Random(4711);
+
+    private Wgs84Route createRoute(int count) {
+        List<Wgs84Position> positions = new ArrayList<Wgs84Position>();
+        double longitude = 10.0, latitude = 50.0;
+        for (int i = 0; i < count; i++) {
+            longitude += (random.nextDouble() - 0.3) * 0.001;
+            latitude += (random.nextDouble() - 0.5) * 0.001;
+            positions.add(new Wgs84Position(longitude, latitude, null, null, null, null));
+        }
+        positions.add(count / 2, new Wgs84Position(null, null, null, null, null, null));
+        return new Wgs84Route(new GlopusFormat(), Track, positions);
+    }
+
+    private void assertQueries(Wgs84Route route, SpatialIndex index) {
+        for (int i = 0; i < 100; i++) {
+            Wgs84Position position = route.getPosition(random.nextInt(route.getPositionCount()));
+            if (!position.hasCoordinates())
+                continue;
+            double longitude = position.getLongitude() + (random.nextDouble() - 0.5) * 0.001;
+            double latitude = position.getLatitude() + (random.nextDouble() - 0.5) * 0.001;
+            for (double threshold : new double[]{1.0, 10.0, 100.0, 1000.0})
+                assertEquals(route.getClosestPosition(longitude, latitude, threshold),
+                        index.getClosestPosition(longitude, latitude, threshold));
+
+            double size = random.nextDouble() * 0.1;
+            NavigationPosition northEast = asPosition(longitude + size, latitude + size);
+            NavigationPosition southWest = asPosition(longitude - size, latitude - size);
+            assertArrayEquals(route.getContainedPositions(northEast, southWest),
+                    index.getContainedPositions(northEast, southWest));
+        }
+    }
+
+    @Test
+    public void testQueries() {
+        Wgs84Route route = createRoute(10000);
+        SpatialIndex index = new SpatialIndex(route);
+        assertQueries(route, index);
+        assertEquals(-1, index.getClosestPosition(-10.0, -50.0, 100.0));
+        assertArrayEquals(new int[0], index.getContainedPositions(asPosition(1.0, 1.0), asPosition(2.0, 2.0)));
+    }
+
+    @Test
+    public void testLargeThresholdFallsBackToScan() {
+        Wgs84Route route = createRoute(1000);
+        SpatialIndex index = new SpatialIndex(route);
+        assertEquals(route.getClosestPosition(0.0, 0.0, 10000000.0), index.getClosestPosition(0.0, 0.0, 10000000.0));
+    }
+
+    @Test
+    public void testUpdate() {
+        Wgs84Route route = createRoute(10000);
+        SpatialIndex index = new SpatialIndex(route);
+        assertQueries(route, index);
+
+        for (int i = 0; i < 10; i++) {
+            int moved = random.nextInt(route.getPositionCount());
+            Wgs84Position position = route.getPosition(moved);
+            position.setLongitude(10.0 + random.nextDouble());
+            position.setLatitude(50.0 + random.nextDouble());
+            index.update(moved, moved);
+            assertQueries(route, index);
+        }
+
+        // more moved positions than are remembered rebuild the index
+        for (int i = 0; i < route.getPositionCount(); i++) {
+            Wgs84Position position = route.getPosition(i);
+            if (position.hasCoordinates())
+                position.setLongitude(position.getLongitude() + 0.5);
+        }
+        index.update(0, route.getPositionCount() - 1);
+        assertQueries(route, index);
+    }
+
+    @Test
+    public void testInvalidate() {
+        Wgs84Route route = createRoute(10000);
+        SpatialIndex index = new SpatialIndex(route);
+        assertQueries(route, index);
+
+        route.remove(100);
+        route.add(5000, new Wgs84Position(11.0, 51.0, null, null, null, null));
+        index.invalidate();
+        assertQueries(route, index);
+    }
+}
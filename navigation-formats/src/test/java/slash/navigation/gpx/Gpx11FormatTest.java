@@ -0,0 +1,92 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+import slash.navigation.gpx.binding11.GpxType;
+import slash.navigation.gpx.binding11.ObjectFactory;
+import slash.navigation.gpx.binding11.TrkType;
+import slash.navigation.gpx.binding11.TrksegType;
+import slash.navigation.gpx.binding11.WptType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static slash.common.TestCase.assertDoubleEquals;
+
+public class Gpx11FormatTest {
+    private Gpx11Format format = new Gpx11Format() {
+        protected boolean isCompactReadObjects() {
+            return true;
+        }
+    };
+
+    private WptType createWptType(ObjectFactory objectFactory, double longitude, double latitude) {
+        WptType wptType = objectFactory.createWptType();
+        wptType.setLon(BigDecimal.valueOf(longitude));
+        wptType.setLat(BigDecimal.valueOf(latitude));
+        wptType.setEle(BigDecimal.valueOf(100.0));
+        return wptType;
+    }
+
+    @Test
+    public void testCompactReadObjects() {
+        ObjectFactory objectFactory = new ObjectFactory();
+        GpxType gpxType = objectFactory.createGpxType();
+        gpxType.setVersion(Gpx11Format.VERSION);
+        TrkType trkType = objectFactory.createTrkType();
+        TrksegType trksegType = objectFactory.createTrksegType();
+        WptType plain = createWptType(objectFactory, 11.5, 48.1);
+        WptType withSymbol = createWptType(objectFactory, 11.6, 48.2);
+        withSymbol.setSym("Flag");
+        trksegType.getTrkpt().add(plain);
+        trksegType.getTrkpt().add(withSymbol);
+        trkType.getTrkseg().add(trksegType);
+        gpxType.getTrk().add(trkType);
+
+        ParserContext<GpxRoute> context = new ParserContextImpl<GpxRoute>();
+        format.process(gpxType, context);
+        List<GpxRoute> routes = context.getRoutes();
+        assertEquals(1, routes.size());
+        GpxRoute route = routes.get(0);
+        assertEquals(0, gpxType.getTrk().size());
+        assertEquals(0, trkType.getTrkseg().size());
+        assertSame(trkType, route.getOrigin(TrkType.class));
+
+        GpxPosition first = route.getPositions().get(0);
+        assertNull(first.getOrigin());
+        assertDoubleEquals(11.5, first.getLongitude());
+        assertDoubleEquals(100.0, first.getElevation());
+
+        GpxPosition second = route.getPositions().get(1);
+        assertSame(withSymbol, second.getOrigin(WptType.class));
+        assertEquals("Flag", withSymbol.getSym());
+        assertNull(withSymbol.getLon());
+        assertNull(withSymbol.getEle());
+        assertDoubleEquals(11.6, second.getLongitude());
+        assertDoubleEquals(48.2, second.getLatitude());
+    }
+}
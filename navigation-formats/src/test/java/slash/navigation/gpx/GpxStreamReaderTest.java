@@ -0,0 +1,142 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.common.TestCase.assertDoubleEquals;
+import static slash.navigation.base.RouteCharacteristics.Route;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.gpx.GpxUtil.GPX_10_NAMESPACE_URI;
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+
+public class GpxStreamReaderTest {
+
+    private List<GpxRoute> read(GpxFormat format, String namespaceUri, String version, String string) throws Exception {
+        ParserContext<GpxRoute> context = new ParserContextImpl<GpxRoute>();
+        new GpxStreamReader(format, namespaceUri, version).read(new ByteArrayInputStream(string.getBytes("UTF-8")), context);
+        return context.getRoutes();
+    }
+
+    @Test
+    public void testReadGpx10() throws Exception {
+        String string = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<gpx version=\"1.0\" creator=\"test\" xmlns=\"http://www.topografix.com/GPX/1/0\">\n" +
+                "<name>Name</name><desc>Description</desc>\n" +
+                "<wpt lat=\"48.1\" lon=\"11.5\"><ele>520.5</ele><name>Waypoint</name><sym>Flag</sym></wpt>\n" +
+                "<rte><name>Route</name><rtept lat=\"48.2\" lon=\"11.6\"><name>A</name><desc>B</desc></rtept></rte>\n" +
+                "<trk><name>Track</name><trkseg>\n" +
+                "<trkpt lat=\"48.3\" lon=\"11.7\"><time>2010-09-18T03:13:32Z</time><course>123.4</course><speed>10</speed>\n" +
+                "<hdop>1.5</hdop><vdop>2.5</vdop><pdop>3.5</pdop><sat>7</sat></trkpt>\n" +
+                "</trkseg><trkseg><trkpt lat=\"48.4\" lon=\"11.8\"/></trkseg></trk>\n" +
+                "<trk><name>Empty</name></trk>\n" +
+                "</gpx>";
+        List<GpxRoute> routes = read(new Gpx10Format(), GPX_10_NAMESPACE_URI, Gpx10Format.VERSION, string);
+        assertEquals(3, routes.size());
+
+        GpxRoute wayPoints = routes.get(0);
+        assertEquals(Waypoints, wayPoints.getCharacteristics());
+        assertEquals("Name", wayPoints.getName());
+        assertEquals(1, wayPoints.getPositionCount());
+        GpxPosition wayPoint = wayPoints.getPositions().get(0);
+        assertDoubleEquals(11.5, wayPoint.getLongitude());
+        assertDoubleEquals(48.1, wayPoint.getLatitude());
+        assertDoubleEquals(520.5, wayPoint.getElevation());
+        assertEquals("Waypoint", wayPoint.getComment());
+        assertNull(wayPoint.getOrigin());
+
+        GpxRoute route = routes.get(1);
+        assertEquals(Route, route.getCharacteristics());
+        assertEquals("Route", route.getName());
+        assertEquals("A; B", route.getPositions().get(0).getComment());
+
+        GpxRoute track = routes.get(2);
+        assertEquals(Track, track.getCharacteristics());
+        assertEquals(2, track.getPositionCount());
+        GpxPosition trackPoint = track.getPositions().get(0);
+        assertDoubleEquals(36.0, trackPoint.getSpeed());
+        assertDoubleEquals(123.4, trackPoint.getHeading());
+        assertEquals(1284779612000L, trackPoint.getTime().getTimeInMillis());
+        assertDoubleEquals(1.5, trackPoint.getHdop());
+        assertDoubleEquals(2.5, trackPoint.getVdop());
+        assertDoubleEquals(3.5, trackPoint.getPdop());
+        assertEquals(7, trackPoint.getSatellites().intValue());
+    }
+
+    @Test
+    public void testReadGpx11Extensions() throws Exception {
+        String string = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<gpx version=\"1.1\" creator=\"test\" xmlns=\"http://www.topografix.com/GPX/1/1\"\n" +
+                " xmlns:nmea=\"http://trekbuddy.net/2009/01/gpx/nmea\"\n" +
+                " xmlns:gpxx=\"http://www.garmin.com/xmlschemas/GpxExtensions/v3\"\n" +
+                " xmlns:gpxtpx=\"http://www.garmin.com/xmlschemas/TrackPointExtension/v2\">\n" +
+                "<metadata><name>Name</name><desc>Description</desc></metadata>\n" +
+                "<rte><name>Route</name><extensions><gpxx:RouteExtension/></extensions>\n" +
+                "<rtept lat=\"48.2\" lon=\"11.6\"><extensions><gpxx:RoutePointExtension>\n" +
+                "<gpxx:rpt lat=\"48.21\" lon=\"11.61\"/><gpxx:rpt lat=\"48.22\" lon=\"11.62\"/>\n" +
+                "</gpxx:RoutePointExtension></extensions></rtept>\n" +
+                "<rtept lat=\"48.3\" lon=\"11.7\"/></rte>\n" +
+                "<trk><trkseg>\n" +
+                "<trkpt lat=\"48.3\" lon=\"11.7\"><extensions><nmea:speed>10</nmea:speed><nmea:course>45</nmea:course></extensions></trkpt>\n" +
+                "<trkpt lat=\"48.4\" lon=\"11.8\"><extensions><gpxtpx:TrackPointExtension>\n" +
+                "<gpxtpx:hr>120</gpxtpx:hr><gpxtpx:speed>5</gpxtpx:speed><gpxtpx:course>90</gpxtpx:course>\n" +
+                "</gpxtpx:TrackPointExtension></extensions></trkpt>\n" +
+                "<trkpt lat=\"48.5\" lon=\"11.9\"><cmt>Speed 12.5km/h Course 180</cmt></trkpt>\n" +
+                "</trkseg></trk>\n" +
+                "</gpx>";
+        List<GpxRoute> routes = read(new Gpx11Format(), GPX_11_NAMESPACE_URI, Gpx11Format.VERSION, string);
+        assertEquals(3, routes.size());
+
+        GpxRoute route = routes.get(0);
+        assertEquals(Route, route.getCharacteristics());
+        assertEquals(2, route.getPositionCount());
+        GpxRoute autoroute = routes.get(1);
+        assertEquals(Track, autoroute.getCharacteristics());
+        assertEquals(4, autoroute.getPositionCount());
+        assertDoubleEquals(11.61, autoroute.getPositions().get(1).getLongitude());
+        assertDoubleEquals(48.22, autoroute.getPositions().get(2).getLatitude());
+
+        GpxRoute track = routes.get(2);
+        assertEquals(3, track.getPositionCount());
+        assertDoubleEquals(36.0, track.getPositions().get(0).getSpeed());
+        assertDoubleEquals(45.0, track.getPositions().get(0).getHeading());
+        assertDoubleEquals(18.0, track.getPositions().get(1).getSpeed());
+        assertDoubleEquals(90.0, track.getPositions().get(1).getHeading());
+        assertDoubleEquals(12.5, track.getPositions().get(2).getSpeed());
+        assertDoubleEquals(180.0, track.getPositions().get(2).getHeading());
+    }
+
+    @Test
+    public void testIgnoresOtherVersion() throws Exception {
+        String string = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<gpx version=\"1.1\" creator=\"test\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n" +
+                "<wpt lat=\"48.1\" lon=\"11.5\"/></gpx>";
+        assertEquals(0, read(new Gpx10Format(), GPX_10_NAMESPACE_URI, Gpx10Format.VERSION, string).size());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.common.TestCase.assertDoubleEquals;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Route;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+
+public class GpxStreamWriterTest {
+    private Gpx11Format format = new Gpx11Format();
+
+    private List<GpxPosition> createPositions() {
+        List<GpxPosition> positions = new ArrayList<GpxPosition>();
+        positions.add(new GpxPosition(11.5, 48.1, 520.5, null, 90.0, fromMillis(1284779612000L), "A", 1.5, 2.5, 3.5, 7));
+        positions.add(new GpxPosition(11.6, 48.2, null, null, null, null, "B & C", null, null, null, null));
+        return positions;
+    }
+
+    private List<GpxRoute> read(byte[] bytes) throws Exception {
+        ParserContext<GpxRoute> context = new ParserContextImpl<GpxRoute>();
+        new GpxStreamReader(format, GPX_11_NAMESPACE_URI, Gpx11Format.VERSION).read(new ByteArrayInputStream(bytes), context);
+        return context.getRoutes();
+    }
+
+    @Test
+    public void testWriteRoute() throws Exception {
+        GpxRoute route = new GpxRoute(format, Route, "Route", null, createPositions());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.writeStreaming(route, outputStream, 0, 2);
+        String string = outputStream.toString("UTF-8");
+        assertTrue(string.contains("<gpx xmlns=\"http://www.topografix.com/GPX/1/1\""));
+        assertTrue(string.contains("<nmea:course>90.0</nmea:course>"));
+
+        List<GpxRoute> routes = read(outputStream.toByteArray());
+        assertEquals(3, routes.size());
+        assertEquals(Waypoints, routes.get(0).getCharacteristics());
+        assertEquals(Route, routes.get(1).getCharacteristics());
+        assertEquals("Route", routes.get(1).getName());
+        assertEquals(Track, routes.get(2).getCharacteristics());
+        for (GpxRoute read : routes) {
+            assertEquals(2, read.getPositionCount());
+            GpxPosition first = read.getPositions().get(0);
+            assertDoubleEquals(11.5, first.getLongitude());
+            assertDoubleEquals(48.1, first.getLatitude());
+            assertDoubleEquals(520.5, first.getElevation());
+            assertDoubleEquals(90.0, first.getHeading());
+            assertEquals(1284779612000L, first.getTime().getTimeInMillis());
+            assertEquals("A", first.getComment());
+            assertDoubleEquals(1.5, first.getHdop());
+            assertDoubleEquals(2.5, first.getPdop());
+            assertDoubleEquals(3.5, first.getVdop());
+            assertEquals(7, first.getSatellites().intValue());
+            assertEquals("B & C", read.getPositions().get(1).getComment());
+        }
+    }
+
+    @Test
+    public void testWriteRoutes() throws Exception {
+        List<GpxRoute> routes = asList(new GpxRoute(format, Track, "Track", null, createPositions()),
+                new GpxRoute(format, Waypoints, "Waypoints", null, createPositions()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.writeStreaming(routes, outputStream);
+
+        List<GpxRoute> read = read(outputStream.toByteArray());
+        assertEquals(2, read.size());
+        assertEquals(Waypoints, read.get(0).getCharacteristics());
+        assertEquals("Waypoints", read.get(0).getName());
+        assertEquals(Track, read.get(1).getCharacteristics());
+        assertEquals("Track", read.get(1).getName());
+    }
+}
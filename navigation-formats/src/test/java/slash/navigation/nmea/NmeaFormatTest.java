@@ -33,6 +33,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.text.DateFormat;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -134,6 +135,38 @@ public class NmeaFormatTest {
         assertFalse(format.isPosition("$GPRMC,145524.054,V,,,,,,,300807,,*21"));
     }
 
+    private static final Pattern FORMER_RMC_PATTERN = Pattern.compile("^\\$GPRMC,([\\d\\.]*),[AV]," +
+            "([\\s\\d\\.]+),([NS]),([\\s\\d\\.]+),([EW]),([\\d\\.]*),[\\d\\.]*,(\\d*)," +
+            "[\\d\\.]*,[\\d\\.]*,?[AEW]?,?([ADEMNS])?\\*[0-9A-Fa-f][0-9A-Fa-f]$");
+
+    private String withChecksum(String line) {
+        byte checksum = 0;
+        for (int i = 1; i < line.length(); i++)
+            checksum ^= line.charAt(i);
+        return line + "*" + String.format("%02X", checksum);
+    }
+
+    private void checkRMCLikeFormerPattern(String rest) {
+        String line = withChecksum("$GPRMC,172103.38,A,4424.5358,N,06812.3754,W,0.000,0.000,101010" + rest);
+        assertEquals(line, FORMER_RMC_PATTERN.matcher(line).matches(), format.isPosition(line));
+    }
+
+    @Test
+    public void testIsRMCPositionLikeFormerPattern() {
+        checkRMCLikeFormerPattern(",,");
+        checkRMCLikeFormerPattern(",,,A");
+        checkRMCLikeFormerPattern(",0,W,A");
+        checkRMCLikeFormerPattern(",1,2,W");
+        checkRMCLikeFormerPattern(",1.5,2.5,E,D");
+        checkRMCLikeFormerPattern(",,A");
+        checkRMCLikeFormerPattern(",A");
+        checkRMCLikeFormerPattern(",");
+        checkRMCLikeFormerPattern("");
+        checkRMCLikeFormerPattern(",W,A");
+        checkRMCLikeFormerPattern(",,,,A");
+        checkRMCLikeFormerPattern(",1,2,W,A,");
+    }
+
     @Test
     public void testIsPositionRespectingFixQuality() {
         assertTrue(format.isPosition("$GPRMC,061013.64,A,5119.8979,N,01219.1497,E,0,0,160709,0,W,A*34"));
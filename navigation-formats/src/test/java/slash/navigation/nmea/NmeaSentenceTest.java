@@ -0,0 +1,124 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import org.junit.Test;
+import slash.common.type.CompactCalendar;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NmeaSentenceTest {
+    private NmeaFormat format = new NmeaFormat();
+
+    @Test
+    public void testParse() {
+        NmeaSentence sentence = NmeaSentence.parse("$GPWPL,5334.169,N,01001.920,E,STATN1,X*22");
+        assertEquals(7, sentence.getFieldCount());
+        assertTrue(sentence.isAddress("GPWPL"));
+        assertFalse(sentence.isAddress("GPWP"));
+        assertTrue(sentence.isField(2, "N"));
+        assertEquals(5334.169, sentence.getDouble(1), 0.0);
+        assertEquals("STATN1,X", sentence.getString(5, 6));
+        assertEquals("E", sentence.getString(4));
+    }
+
+    @Test
+    public void testParseEmptyFields() {
+        NmeaSentence sentence = NmeaSentence.parse("$GPRMC,,A,,,,,,,,,*7D");
+        assertEquals(12, sentence.getFieldCount());
+        assertNull(sentence.getString(1));
+        assertNull(sentence.getDouble(3));
+        assertNull(sentence.getInteger(11));
+    }
+
+    @Test
+    public void testParseNoSentence() {
+        assertNull(NmeaSentence.parse("@Sonygps/ver1.0/wgs-84"));
+        assertNull(NmeaSentence.parse("$ADVER,3080,2.0"));
+        assertNull(NmeaSentence.parse("$GPRMC,132713,A,5509.7861,N,00140.5854,W,2.1,278.3,010110,,*e"));
+        assertNull(NmeaSentence.parse("$GPZDA,032910,07,08,2004,00,00*4G"));
+    }
+
+    @Test
+    public void testChecksum() {
+        assertTrue(NmeaSentence.parse("$GPGSA,A,3,,,,15,17,18,23,,,,,,4.7,4.4,1.5*3F").hasValidChecksum());
+        assertTrue(NmeaSentence.parse("$GPGGA,132713,5509.7861,N,00140.5854,W,1,07,1.0,98.9,M,,M,,*7d").hasValidChecksum());
+        NmeaSentence invalid = NmeaSentence.parse("$GPGSA,A,3,,,,15,17,18,23,,,,,,4.7,4.4,1.5*3E");
+        assertFalse(invalid.hasValidChecksum());
+        assertEquals(0x3F, invalid.getComputedChecksum());
+        assertEquals("3E", invalid.getTransmittedChecksum());
+    }
+
+    @Test
+    public void testDoubleLikeParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            String value = String.valueOf(random.nextInt(100000)) + "." + String.valueOf(random.nextInt(100000));
+            if (random.nextBoolean())
+                value = "-" + value;
+            NmeaSentence sentence = NmeaSentence.parse("$GPXXX," + value + "*00");
+            assertEquals(value, Double.valueOf(value), sentence.getDouble(1));
+        }
+        assertEquals(951.2163, NmeaSentence.parse("$GPXXX, 951.2163*00").getDouble(1), 0.0);
+        assertEquals(12345678901234567.0, NmeaSentence.parse("$GPXXX,12345678901234567*00").getDouble(1), 0.0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidDouble() {
+        NmeaSentence.parse("$GPXXX,1.2.3*00").getDouble(1);
+    }
+
+    private CompactCalendar parse(String pattern, String string) throws ParseException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+        dateFormat.setTimeZone(CompactCalendar.UTC);
+        return CompactCalendar.fromDate(dateFormat.parse(string));
+    }
+
+    @Test
+    public void testTimeLikeSimpleDateFormat() throws ParseException {
+        assertEquals(parse("HHmmss", "130441"), format.parseTime("130441"));
+        assertEquals(parse("HHmmss.SSS", "130441.89"), format.parseTime("130441.89"));
+        assertEquals(parse("HHmmss.SSS", "130441.5"), format.parseTime("130441.5"));
+        assertEquals(parse("HHmmss.SSS", "130441.8912"), format.parseTime("130441.8912"));
+        assertEquals(parse("HHmmss", "256161"), format.parseTime("256161"));
+        assertNull(format.parseTime("1304"));
+    }
+
+    @Test
+    public void testDateAndTimeLikeSimpleDateFormat() throws ParseException {
+        String[] dates = {"160607", "010170", "311299", "290200", "010145", "010199", "320107", "011307", "000007", "07082004"};
+        for (String date : dates) {
+            assertEquals(date, parse("ddMMyy HHmmss", date + " 180114"), format.parseDateAndTime(date, "180114"));
+            assertEquals(date, parse("ddMMyy HHmmss.SSS", date + " 180114.542"), format.parseDateAndTime(date, "180114.542"));
+        }
+        for (int year = 0; year < 100; year++) {
+            String date = "0101" + (year < 10 ? "0" : "") + year;
+            assertEquals(date, parse("ddMMyy HHmmss", date + " 000000"), format.parseDateAndTime(date, "000000"));
+        }
+    }
+}
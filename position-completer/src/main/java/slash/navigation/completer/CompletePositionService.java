@@ -20,12 +20,18 @@
 
 package slash.navigation.completer;
 
+import slash.common.helpers.RateLimiter;
+import slash.navigation.common.BasicPosition;
 import slash.navigation.earthtools.EarthToolsService;
 import slash.navigation.geonames.GeoNamesService;
 import slash.navigation.googlemaps.GoogleMapsService;
 import slash.navigation.hgt.HgtFiles;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
@@ -44,17 +50,53 @@ public class CompletePositionService {
     private static final String COMPLEMENT_ELEVATION_FROM_GOOGLE_MAPS = "complementElevationFromGoogleMaps";
     private static final String COMPLEMENT_ELEVATION_FROM_GEONAMES = "complementElevationFromGeonames";
     private static final String COMPLEMENT_ELEVATION_FROM_EARTH_TOOLS = "complementElevationFromEarthTools";
+    private static final String COMPLETION_CACHE_DIRECTORY_PREFERENCE = "completionCacheDirectory";
+    private static final String COMPLETION_CACHE_TIME_TO_LIVE_PREFERENCE = "completionCacheTimeToLive";
+    private static final String COMPLETION_CACHE_MAXIMUM_ENTRIES_PREFERENCE = "completionCacheMaximumEntries";
+    private static final String COMPLETION_CACHE_PRECISION_PREFERENCE = "completionCachePrecision";
+    private static final String ELEVATION = "elevation";
+    private static final String COMMENT = "comment";
 
     private EarthToolsService earthToolsService = new EarthToolsService();
     private GeoNamesService geoNamesService = new GeoNamesService();
     private GoogleMapsService googleMapsService = new GoogleMapsService();
     private HgtFiles hgtFiles = new HgtFiles();
+    private CompletionCache cache = createCache();
+
+    private static CompletionCache createCache() {
+        String directoryName = preferences.get(COMPLETION_CACHE_DIRECTORY_PREFERENCE, new File(System.getProperty("user.home"), ".completer").getAbsolutePath());
+        return new CompletionCache(new File(directoryName, "completions.log"),
+                preferences.getLong(COMPLETION_CACHE_TIME_TO_LIVE_PREFERENCE, 90 * 24 * 60 * 60 * 1000L),
+                preferences.getInt(COMPLETION_CACHE_MAXIMUM_ENTRIES_PREFERENCE, 250000),
+                preferences.getDouble(COMPLETION_CACHE_PRECISION_PREFERENCE, 0.0001));
+    }
+
+    /**
+     * Limits the rate of the batched elevation requests to Google Maps.
+     *
+     * @param rateLimiter the rate limiter shared with the other requests to Google Maps
+     */
+    public void setGoogleMapsRateLimiter(RateLimiter rateLimiter) {
+        googleMapsService.setElevationRateLimiter(rateLimiter);
+    }
 
     public void dispose() {
         hgtFiles.dispose();
+        cache.close();
     }
 
     public Double getElevationFor(double longitude, double latitude) throws IOException {
+        Double elevation = (Double) cache.get(ELEVATION, longitude, latitude);
+        if (elevation != null)
+            return elevation;
+
+        elevation = getUncachedElevationFor(longitude, latitude);
+        if (elevation != null)
+            cache.put(ELEVATION, longitude, latitude, elevation);
+        return elevation;
+    }
+
+    private Double getUncachedElevationFor(double longitude, double latitude) throws IOException {
         Double elevation = null;
         Exception exception = null;
 
@@ -98,10 +140,118 @@ public class CompletePositionService {
         return null;
     }
 
+    /**
+     * Complements the elevations for a batch of positions. Elevations that are not cached
+     * are looked up in the HGT files at once, the missing ones are retrieved from Google
+     * Maps with a few batched requests and the remaining ones from the other services
+     * one by one.
+     *
+     * @param positions the positions to complement the elevations for
+     * @return a list with the elevation for each of the positions or null if
+     *         no elevation is available for the position
+     * @throws IOException if no elevation is available at all and a service failed
+     */
+    public List<Double> getElevationsFor(List<BasicPosition> positions) throws IOException {
+        List<Double> elevations = new ArrayList<Double>(positions.size());
+        BitSet cached = new BitSet(positions.size());
+        Exception exception = null;
+
+        for (BasicPosition position : positions) {
+            Double elevation = (Double) cache.get(ELEVATION, position.getLongitude(), position.getLatitude());
+            if (elevation != null)
+                cached.set(elevations.size());
+            elevations.add(elevation);
+        }
+
+        List<Integer> missing = getMissingIndices(elevations);
+        if (missing.size() > 0 && preferences.getBoolean(COMPLEMENT_ELEVATION_FROM_HGT_FILES, true)) {
+            double[] longitudes = new double[missing.size()], latitudes = new double[missing.size()];
+            for (int i = 0; i < missing.size(); i++) {
+                BasicPosition position = positions.get(missing.get(i));
+                longitudes[i] = position.getLongitude();
+                latitudes[i] = position.getLatitude();
+            }
+            try {
+                Double[] hgtElevations = hgtFiles.getElevationsFor(longitudes, latitudes);
+                for (int i = 0; i < missing.size(); i++)
+                    elevations.set(missing.get(i), hgtElevations[i]);
+            } catch (Exception e) {
+                exception = e;
+            }
+            missing = getMissingIndices(elevations);
+        }
+
+        if (missing.size() > 0 && preferences.getBoolean(COMPLEMENT_ELEVATION_FROM_GOOGLE_MAPS, true)) {
+            List<BasicPosition> missingPositions = new ArrayList<BasicPosition>(missing.size());
+            for (Integer index : missing)
+                missingPositions.add(positions.get(index));
+            try {
+                List<Double> googleMapsElevations = googleMapsService.getElevationsFor(missingPositions);
+                for (int i = 0; i < missing.size(); i++)
+                    elevations.set(missing.get(i), googleMapsElevations.get(i));
+                log.info("Service: GoogleMaps Positions: " + missingPositions.size());
+            } catch (Exception e) {
+                exception = e;
+            }
+        }
+
+        for (Integer index : getMissingIndices(elevations)) {
+            BasicPosition position = positions.get(index);
+            Double elevation = null;
+            if (preferences.getBoolean(COMPLEMENT_ELEVATION_FROM_GEONAMES, true)) {
+                try {
+                    elevation = geoNamesService.getElevationFor(position.getLongitude(), position.getLatitude());
+                } catch (Exception e) {
+                    exception = e;
+                }
+            }
+            if (elevation == null && preferences.getBoolean(COMPLEMENT_ELEVATION_FROM_EARTH_TOOLS, true)) {
+                try {
+                    elevation = earthToolsService.getElevationFor(position.getLongitude(), position.getLatitude());
+                } catch (Exception e) {
+                    exception = e;
+                }
+            }
+            elevations.set(index, elevation);
+        }
+
+        boolean found = false;
+        for (int i = 0; i < elevations.size(); i++) {
+            Double elevation = elevations.get(i);
+            if (elevation != null) {
+                found = true;
+                if (cached.get(i))
+                    continue;
+                elevation = formatElevation(elevation).doubleValue();
+                elevations.set(i, elevation);
+                BasicPosition position = positions.get(i);
+                cache.put(ELEVATION, position.getLongitude(), position.getLatitude(), elevation);
+            }
+        }
+        if (!found && exception != null)
+            throw new IOException(exception);
+        return elevations;
+    }
+
+    private List<Integer> getMissingIndices(List<Double> elevations) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (int i = 0; i < elevations.size(); i++) {
+            if (elevations.get(i) == null)
+                result.add(i);
+        }
+        return result;
+    }
+
     public String getCommentFor(double longitude, double latitude) throws IOException {
-        String comment = googleMapsService.getLocationFor(longitude, latitude);
+        String comment = (String) cache.get(COMMENT, longitude, latitude);
+        if (comment != null)
+            return comment;
+
+        comment = googleMapsService.getLocationFor(longitude, latitude);
         if (comment == null)
             comment = geoNamesService.getNearByFor(longitude, latitude);
+        if (comment != null)
+            cache.put(COMMENT, longitude, latitude, comment);
         return comment;
     }
 }
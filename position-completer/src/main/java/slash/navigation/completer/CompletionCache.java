@@ -0,0 +1,290 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.completer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * A persistent cache for the results of the services that complete positions.
+ * <p/>
+ * The results are keyed on the type of the result and the position quantized to a
+ * given precision, so that positions a few meters apart share a result. The cache is
+ * kept in memory and appended to a log file from which it is restored on startup.
+ * Results older than the time to live are ignored, if more results than allowed are
+ * cached, the least recently used results are evicted and the log file is compacted.
+ *
+ * @author Christian Pesch
+ */
+
+public class CompletionCache {
+    private static final Logger log = Logger.getLogger(CompletionCache.class.getName());
+    private static final byte DOUBLE_VALUE = 1;
+    private static final byte STRING_VALUE = 2;
+
+    private final File file;
+    private final long timeToLive;
+    private final int maximumEntryCount;
+    private final double precision;
+    private final Map<String, Entry> entries;
+    private DataOutputStream output;
+    private int recordCount;
+
+    public CompletionCache(File file, long timeToLive, final int maximumEntryCount, double precision) {
+        if (maximumEntryCount < 1)
+            throw new IllegalArgumentException("Maximum entry count " + maximumEntryCount + " is too small");
+        this.file = file;
+        this.timeToLive = timeToLive;
+        this.maximumEntryCount = maximumEntryCount;
+        this.precision = precision;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maximumEntryCount;
+            }
+        };
+        load();
+    }
+
+    String createKey(String type, double longitude, double latitude) {
+        return type + "/" + Math.round(longitude / precision) + "/" + Math.round(latitude / precision);
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.time > timeToLive;
+    }
+
+    private void load() {
+        if (!file.exists())
+            return;
+
+        long now = System.currentTimeMillis();
+        long completeLength = 0;
+        DataInputStream input = null;
+        try {
+            CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+            input = new DataInputStream(counter);
+            while (true) {
+                String key = input.readUTF();
+                long time = input.readLong();
+                byte type = input.readByte();
+                Object value;
+                if (type == DOUBLE_VALUE)
+                    value = input.readDouble();
+                else if (type == STRING_VALUE)
+                    value = input.readUTF();
+                else
+                    throw new IOException("Invalid value type " + type);
+
+                recordCount++;
+                completeLength = counter.getByteCount();
+                Entry entry = new Entry(value, time);
+                if (!isExpired(entry, now))
+                    entries.put(key, entry);
+            }
+        } catch (EOFException e) {
+            // the end of the log or a record that has not been written completely
+        } catch (IOException e) {
+            log.warning("Cannot read completion cache " + file + ": " + e.getMessage());
+        } finally {
+            closeQuietly(input);
+        }
+        log.info("Restored " + entries.size() + " entries from " + recordCount + " records of completion cache " + file);
+
+        // appending after an incomplete record would make all further records unreadable
+        boolean incomplete = completeLength < file.length();
+        if (recordCount > entries.size() || (incomplete && !truncate(completeLength)))
+            compact();
+    }
+
+    private boolean truncate(long length) {
+        log.warning("Truncating incomplete record at " + length + " of completion cache " + file);
+        RandomAccessFile access = null;
+        try {
+            access = new RandomAccessFile(file, "rw");
+            access.setLength(length);
+            return true;
+        } catch (IOException e) {
+            log.warning("Cannot truncate completion cache " + file + ": " + e.getMessage());
+            return false;
+        } finally {
+            closeQuietly(access);
+        }
+    }
+
+    /**
+     * Returns the cached result of the given type for the given position.
+     *
+     * @param type      the type of the result
+     * @param longitude the longitude of the position
+     * @param latitude  the latitude of the position
+     * @return the cached result or <code>null</code> if there is none or it has expired
+     */
+    public synchronized Object get(String type, double longitude, double latitude) {
+        String key = createKey(type, longitude, latitude);
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return null;
+        if (isExpired(entry, System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches the given result of the given type for the given position.
+     *
+     * @param type      the type of the result
+     * @param longitude the longitude of the position
+     * @param latitude  the latitude of the position
+     * @param value     the result, either a {@link Double} or a {@link String}
+     */
+    public synchronized void put(String type, double longitude, double latitude, Object value) {
+        if (!(value instanceof Double || value instanceof String))
+            throw new IllegalArgumentException("Cannot cache " + value);
+
+        String key = createKey(type, longitude, latitude);
+        Entry entry = new Entry(value, System.currentTimeMillis());
+        entries.put(key, entry);
+        append(key, entry);
+
+        if (recordCount > 2 * maximumEntryCount)
+            compact();
+    }
+
+    private void append(String key, Entry entry) {
+        try {
+            if (output == null) {
+                File directory = file.getParentFile();
+                if (directory != null && !directory.exists() && !directory.mkdirs())
+                    throw new IOException("Cannot create directory " + directory);
+                output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            }
+            write(output, key, entry);
+            output.flush();
+            recordCount++;
+        } catch (IOException e) {
+            log.warning("Cannot write completion cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void write(DataOutputStream output, String key, Entry entry) throws IOException {
+        output.writeUTF(key);
+        output.writeLong(entry.time);
+        if (entry.value instanceof Double) {
+            output.writeByte(DOUBLE_VALUE);
+            output.writeDouble((Double) entry.value);
+        } else {
+            output.writeByte(STRING_VALUE);
+            output.writeUTF((String) entry.value);
+        }
+    }
+
+    private void compact() {
+        close();
+
+        File compacted = new File(file.getPath() + ".compact");
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacted)));
+            for (Map.Entry<String, Entry> entry : entries.entrySet())
+                write(output, entry.getKey(), entry.getValue());
+            output.close();
+            output = null;
+
+            if ((file.exists() && !file.delete()) || !compacted.renameTo(file))
+                throw new IOException("Cannot replace " + file + " with " + compacted);
+            recordCount = entries.size();
+        } catch (IOException e) {
+            log.warning("Cannot compact completion cache " + file + ": " + e.getMessage());
+        } finally {
+            closeQuietly(output);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void close() {
+        if (output != null) {
+            closeQuietly(output);
+            output = null;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        public int read() throws IOException {
+            int result = super.read();
+            if (result != -1)
+                count++;
+            return result;
+        }
+
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int result = super.read(bytes, offset, length);
+            if (result > 0)
+                count += result;
+            return result;
+        }
+
+        public long skip(long length) throws IOException {
+            long result = super.skip(length);
+            count += result;
+            return result;
+        }
+
+        public long getByteCount() {
+            return count;
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long time;
+
+        private Entry(Object value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
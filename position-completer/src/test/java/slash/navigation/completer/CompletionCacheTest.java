@@ -0,0 +1,147 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.completer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompletionCacheTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = createTempFile("completions", ".log");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        if (file.exists())
+            assertTrue(file.delete());
+    }
+
+    @Test
+    public void testGetAndPut() {
+        CompletionCache cache = new CompletionCache(file, DAY, 10, 0.0001);
+        assertNull(cache.get("elevation", 10.0, 50.0));
+        cache.put("elevation", 10.0, 50.0, 123.4);
+        cache.put("comment", 10.0, 50.0, "Somewhere");
+        assertEquals(123.4, cache.get("elevation", 10.0, 50.0));
+        assertEquals("Somewhere", cache.get("comment", 10.0, 50.0));
+        assertNull(cache.get("elevation", 10.001, 50.0));
+        cache.close();
+    }
+
+    @Test
+    public void testQuantization() {
+        CompletionCache cache = new CompletionCache(file, DAY, 10, 0.0001);
+        cache.put("elevation", 10.0, 50.0, 123.4);
+        assertEquals(123.4, cache.get("elevation", 10.00002, 49.99998));
+        assertNull(cache.get("elevation", 10.0001, 50.0));
+        cache.close();
+    }
+
+    @Test
+    public void testSurvivesRestart() {
+        CompletionCache cache = new CompletionCache(file, DAY, 10, 0.0001);
+        cache.put("elevation", 10.0, 50.0, 123.4);
+        cache.put("elevation", 10.0, 50.0, 234.5);
+        cache.put("comment", 11.0, 51.0, "Somewhere");
+        cache.close();
+
+        cache = new CompletionCache(file, DAY, 10, 0.0001);
+        assertEquals(2, cache.size());
+        assertEquals(234.5, cache.get("elevation", 10.0, 50.0));
+        assertEquals("Somewhere", cache.get("comment", 11.0, 51.0));
+        cache.close();
+    }
+
+    @Test
+    public void testTruncatesIncompleteRecord() throws IOException {
+        CompletionCache cache = new CompletionCache(file, DAY, 10, 0.0001);
+        cache.put("elevation", 10.0, 50.0, 123.4);
+        cache.close();
+        long length = file.length();
+
+        DataOutputStream output = new DataOutputStream(new FileOutputStream(file, true));
+        output.writeUTF("elevation/100000/500000");
+        output.writeInt(4711);
+        output.close();
+
+        cache = new CompletionCache(file, DAY, 10, 0.0001);
+        assertEquals(1, cache.size());
+        assertEquals(length, file.length());
+        cache.put("comment", 11.0, 51.0, "Somewhere");
+        cache.close();
+
+        cache = new CompletionCache(file, DAY, 10, 0.0001);
+        assertEquals(2, cache.size());
+        assertEquals(123.4, cache.get("elevation", 10.0, 50.0));
+        assertEquals("Somewhere", cache.get("comment", 11.0, 51.0));
+        cache.close();
+    }
+
+    @Test
+    public void testExpiresEntries() throws InterruptedException {
+        CompletionCache cache = new CompletionCache(file, 50, 10, 0.0001);
+        cache.put("elevation", 10.0, 50.0, 123.4);
+        Thread.sleep(100);
+        assertNull(cache.get("elevation", 10.0, 50.0));
+        cache.close();
+
+        cache = new CompletionCache(file, 50, 10, 0.0001);
+        assertEquals(0, cache.size());
+        cache.close();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedAndCompacts() {
+        CompletionCache cache = new CompletionCache(file, DAY, 3, 0.0001);
+        for (int i = 0; i < 10; i++) {
+            cache.put("elevation", i, 0.0, (double) i);
+            assertEquals(0.0, cache.get("elevation", 0.0, 0.0));
+        }
+        assertEquals(3, cache.size());
+        assertEquals(0.0, cache.get("elevation", 0.0, 0.0));
+        assertEquals(9.0, cache.get("elevation", 9.0, 0.0));
+        assertNull(cache.get("elevation", 7.0, 0.0));
+        cache.close();
+
+        long length = file.length();
+        cache = new CompletionCache(file, DAY, 3, 0.0001);
+        assertEquals(3, cache.size());
+        assertEquals(8.0, cache.get("elevation", 8.0, 0.0));
+        assertTrue(file.length() <= length);
+        cache.close();
+    }
+}
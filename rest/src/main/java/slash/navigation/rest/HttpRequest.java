@@ -20,27 +20,49 @@
 package slash.navigation.rest;
 
 import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpMethodBase;
 import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.URI;
 import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.SocketException;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+import java.util.zip.GZIPInputStream;
+
+import static slash.common.io.InputOutput.readBytes;
 
 /**
  * Wrapper for a simple HTTP Request.
  *
+ * All requests share a connection manager which keeps connections alive and
+ * limits the number of connections per host.
+ *
  * @author Christian Pesch
  */
 
 public abstract class HttpRequest {
+    private static final Preferences preferences = Preferences.userNodeForPackage(HttpRequest.class);
+    private static final String MAXIMUM_CONNECTIONS_PER_HOST_PREFERENCE = "maximumConnectionsPerHost";
+    private static final String MAXIMUM_CONNECTIONS_PREFERENCE = "maximumConnections";
+    private static final String CONNECTION_TIMEOUT_PREFERENCE = "connectionTimeout";
+    private static final String SOCKET_TIMEOUT_PREFERENCE = "socketTimeout";
+    private static final String CONNECTION_MANAGER_TIMEOUT_PREFERENCE = "connectionManagerTimeout";
+    private static final String ACCEPT_GZIP_ENCODING_PREFERENCE = "acceptGzipEncoding";
+    private static final long IDLE_CONNECTION_TIMEOUT = 30 * 1000;
+    private static final String GZIP_ENCODING = "gzip";
+    private static final MultiThreadedHttpConnectionManager connectionManager = createConnectionManager();
+
     private final Logger log;
     private final HttpClient client;
     final HttpMethod method;
@@ -48,12 +70,36 @@ public abstract class HttpRequest {
 
     HttpRequest(HttpMethod method) {
         this.log = Logger.getLogger(getClass().getName());
-        this.client = new HttpClient();
-        client.getParams().setIntParameter("http.connection.timeout", 15 * 1000);
-        client.getParams().setIntParameter("http.socket.timeout", 60 * 1000);
+        this.client = new HttpClient(connectionManager);
+        client.getParams().setIntParameter("http.connection.timeout", getConnectionTimeout());
+        client.getParams().setIntParameter("http.socket.timeout", getSocketTimeout());
+        // fail instead of waiting forever if all pooled connections are in use
+        client.getParams().setConnectionManagerTimeout(preferences.getLong(CONNECTION_MANAGER_TIMEOUT_PREFERENCE, getConnectionTimeout()));
         client.getParams().setParameter("http.method.retry-handler", new DefaultHttpMethodRetryHandler(0, false));
         setUserAgent("RouteConverter REST Client/" + System.getProperty("rest", "0.5"));
         this.method = method;
+        if (preferences.getBoolean(ACCEPT_GZIP_ENCODING_PREFERENCE, true))
+            method.setRequestHeader("Accept-Encoding", GZIP_ENCODING);
+    }
+
+    private static int getConnectionTimeout() {
+        return preferences.getInt(CONNECTION_TIMEOUT_PREFERENCE, 15 * 1000);
+    }
+
+    private static int getSocketTimeout() {
+        return preferences.getInt(SOCKET_TIMEOUT_PREFERENCE, 60 * 1000);
+    }
+
+    private static MultiThreadedHttpConnectionManager createConnectionManager() {
+        MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        params.setDefaultMaxConnectionsPerHost(preferences.getInt(MAXIMUM_CONNECTIONS_PER_HOST_PREFERENCE, 4));
+        params.setMaxTotalConnections(preferences.getInt(MAXIMUM_CONNECTIONS_PREFERENCE, 20));
+        params.setConnectionTimeout(getConnectionTimeout());
+        params.setSoTimeout(getSocketTimeout());
+        // a pooled connection might have been closed by the server in the meantime
+        params.setStaleCheckingEnabled(true);
+        return connectionManager;
     }
 
     HttpRequest(HttpMethod method, Credentials credentials) {
@@ -81,6 +127,7 @@ public abstract class HttpRequest {
     }
 
     protected void doExecute() throws IOException {
+        connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT);
         try {
             statusCode = client.executeMethod(method);
         }
@@ -107,7 +154,7 @@ public abstract class HttpRequest {
             // no response body then
             if (isUnAuthorized())
                 return null;
-            String body = method.getResponseBodyAsString();
+            String body = getResponseBodyAsString();
             if (!isSuccessful() && logUnsuccessful)
                 log.warning(body);
             return body;
@@ -117,14 +164,48 @@ public abstract class HttpRequest {
     }
 
     public InputStream executeAsStream(boolean logUnsuccessful) throws IOException {
-        doExecute();
-        // no response body then
-        if (isUnAuthorized())
-            return null;
+        InputStream body = null;
+        try {
+            doExecute();
+            // no response body then
+            if (isUnAuthorized())
+                return null;
+            if (!isSuccessful()) {
+                if (logUnsuccessful)
+                    log.warning("Cannot read response body, status is " + getResult());
+                return null;
+            }
+            body = getResponseBodyAsStream();
+            return body;
+        } finally {
+            // otherwise closing the body releases the connection
+            if (body == null)
+                release();
+        }
+    }
+
+    private boolean isGzipEncoded() {
+        Header header = method.getResponseHeader("Content-Encoding");
+        return header != null && GZIP_ENCODING.equalsIgnoreCase(header.getValue());
+    }
+
+    private InputStream getResponseBodyAsStream() throws IOException {
         InputStream body = method.getResponseBodyAsStream();
-        if (!isSuccessful() && logUnsuccessful)
-            log.warning("Cannot read response body");
-        return body;
+        return body != null && isGzipEncoded() ? new GZIPInputStream(body) : body;
+    }
+
+    private String getResponseBodyAsString() throws IOException {
+        if (!isGzipEncoded())
+            return method.getResponseBodyAsString();
+
+        InputStream body = getResponseBodyAsStream();
+        if (body == null)
+            return null;
+        try {
+            return new String(readBytes(body), ((HttpMethodBase) method).getResponseCharSet());
+        } finally {
+            body.close();
+        }
     }
 
     void release() {
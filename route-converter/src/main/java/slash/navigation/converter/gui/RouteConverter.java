@@ -69,12 +69,14 @@ import slash.navigation.converter.gui.panels.PanelInTab;
 import slash.navigation.converter.gui.profileview.ProfileMode;
 import slash.navigation.converter.gui.profileview.ProfileView;
 import slash.navigation.feedback.domain.RouteFeedback;
+import slash.navigation.gpx.GpxUtil;
 import slash.navigation.gui.Application;
 import slash.navigation.gui.SingleFrameApplication;
 import slash.navigation.gui.actions.ActionManager;
 import slash.navigation.gui.actions.ExitAction;
 import slash.navigation.gui.actions.FrameAction;
 import slash.navigation.gui.actions.HelpTopicsAction;
+import slash.navigation.kml.KmlUtil;
 import slash.navigation.rest.Credentials;
 
 import javax.help.CSH;
@@ -301,6 +303,9 @@ public class RouteConverter extends SingleFrameApplication {
     }
 
     private void show() {
+        GpxUtil.preloadContexts();
+        KmlUtil.preloadContexts();
+
         patchUIManager("OptionPane.yesButtonText");
         patchUIManager("OptionPane.noButtonText");
         patchUIManager("OptionPane.cancelButtonText");
@@ -20,6 +20,7 @@
 
 package slash.navigation.converter.gui.helper;
 
+import slash.common.helpers.RateLimiter;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.NavigationPosition;
 import slash.navigation.common.BasicPosition;
@@ -28,15 +29,32 @@ import slash.navigation.converter.gui.RouteConverter;
 import slash.navigation.converter.gui.models.PositionsModel;
 import slash.navigation.geonames.GeoNamesService;
 import slash.navigation.googlemaps.GoogleMapsService;
-import slash.navigation.gui.events.ContinousRange;
-import slash.navigation.gui.events.RangeOperation;
 import slash.navigation.common.NumberPattern;
+import slash.navigation.rest.exception.ServiceUnavailableException;
 
 import javax.swing.*;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static javax.swing.JOptionPane.ERROR_MESSAGE;
 import static javax.swing.SwingUtilities.invokeLater;
 import static javax.swing.event.TableModelEvent.ALL_COLUMNS;
@@ -57,13 +75,25 @@ import static slash.navigation.base.RouteComments.getNumberedPosition;
  * Helps to augment a batch of positions with geocoded coordinates, elevation,
  * position number for its comment, postal address, populated place and speed
  * information.
+ * <p/>
+ * Operations that query a service run concurrently within the limits of the
+ * service while the results are applied to the positions in the order of the
+ * rows from a single thread.
  *
  * @author Christian Pesch
  */
 
 public class BatchPositionAugmenter {
     private static final Logger log = Logger.getLogger(BatchPositionAugmenter.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(BatchPositionAugmenter.class);
     private static final Object mutex = new Object();
+    private static final int ELEVATION_BATCH_SIZE = 512;
+    private static final int PENDING_REQUESTS_PER_THREAD = 4;
+    private static final int MAXIMUM_RETRIES = 5;
+    private static final long BACK_OFF_MILLIS = 1000;
+    private static final long UPDATE_INTERVAL_MILLIS = 250;
+    private static final ServiceLimit GOOGLE_MAPS_LIMIT = new ServiceLimit("googleMaps", 4, 10.0);
+    private static final ServiceLimit GEONAMES_LIMIT = new ServiceLimit("geoNames", 2, 4.0);
     private JFrame frame;
     private CompletePositionService completePositionService;
     private boolean running = true;
@@ -71,6 +101,7 @@ public class BatchPositionAugmenter {
     public BatchPositionAugmenter(JFrame frame, CompletePositionService completePositionService) {
         this.frame = frame;
         this.completePositionService = completePositionService;
+        completePositionService.setGoogleMapsRateLimiter(GOOGLE_MAPS_LIMIT.rateLimiter);
     }
 
     public void interrupt() {
@@ -97,19 +128,165 @@ public class BatchPositionAugmenter {
     };
 
 
-    private interface Operation {
+    /**
+     * The number of concurrent requests and the rate of requests that a service
+     * accepts. The rate is shared by all operations that query the service.
+     */
+    private static class ServiceLimit {
+        private final String serviceName;
+        private final int concurrency;
+        private final RateLimiter rateLimiter;
+
+        private ServiceLimit(String serviceName, int concurrency, double requestsPerSecond) {
+            this.serviceName = serviceName;
+            this.concurrency = max(1, preferences.getInt(serviceName + "Concurrency", concurrency));
+            this.rateLimiter = new RateLimiter(preferences.getDouble(serviceName + "RequestsPerSecond", requestsPerSecond), this.concurrency);
+        }
+    }
+
+    private interface Operation<T> {
         String getName();
         int getColumnIndex();
-        boolean run(int index, NavigationPosition position) throws Exception;
+        ServiceLimit getServiceLimit();
+        T compute(int index, NavigationPosition position) throws Exception;
+        boolean apply(int index, NavigationPosition position, T value);
         String getErrorMessage();
     }
 
-    private void executeOperation(final JTable positionsTable,
-                                  final PositionsModel positionsModel,
-                                  final int[] rows,
-                                  final boolean slowOperation,
-                                  final OverwritePredicate predicate,
-                                  final Operation operation) {
+    private static class Request<T> {
+        private final int index;
+        private final NavigationPosition position;
+        private final Callable<T> compute;
+        private final Future<T> future;
+
+        private Request(int index, NavigationPosition position, Callable<T> compute, Future<T> future) {
+            this.index = index;
+            this.position = position;
+            this.compute = compute;
+            this.future = future;
+        }
+
+        private T get() throws Exception {
+            if (future == null)
+                return compute.call();
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+    }
+
+    private static <T> Callable<T> createCompute(final Operation<T> operation, final int index, final NavigationPosition position) {
+        final ServiceLimit serviceLimit = operation.getServiceLimit();
+        return new Callable<T>() {
+            public T call() throws Exception {
+                if (serviceLimit == null)
+                    return operation.compute(index, position);
+
+                for (int retry = 0; ; retry++) {
+                    serviceLimit.rateLimiter.acquire();
+                    try {
+                        return operation.compute(index, position);
+                    } catch (ServiceUnavailableException e) {
+                        if (retry >= MAXIMUM_RETRIES)
+                            throw e;
+                        long backOff = BACK_OFF_MILLIS << retry;
+                        log.info(format("Service %s is over its limit, backing off for %d ms", serviceLimit.serviceName, backOff));
+                        serviceLimit.rateLimiter.backOff(backOff);
+                    }
+                }
+            }
+        };
+    }
+
+    private static ExecutorService createExecutor(final String name, int concurrency) {
+        return newFixedThreadPool(concurrency, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Coalesces the progress and the updates of the table into periodic updates of the UI.
+     */
+    private class ProgressUpdater {
+        private final JTable positionsTable;
+        private final PositionsModel positionsModel;
+        private final ProgressMonitor progress;
+        private final int columnIndex;
+        private final int count;
+        private int firstIndex = -1, lastIndex = -1;
+        private long lastUpdate = currentTimeMillis();
+
+        private ProgressUpdater(JTable positionsTable, PositionsModel positionsModel, ProgressMonitor progress,
+                                int columnIndex, int count) {
+            this.positionsTable = positionsTable;
+            this.positionsModel = positionsModel;
+            this.progress = progress;
+            this.columnIndex = columnIndex;
+            this.count = count;
+        }
+
+        public void processed(int index, int processedCount) {
+            if (firstIndex != -1 && index != lastIndex + 1)
+                fireRowsUpdated();
+            if (firstIndex == -1)
+                firstIndex = index;
+            lastIndex = index;
+
+            long now = currentTimeMillis();
+            if (now - lastUpdate >= UPDATE_INTERVAL_MILLIS) {
+                fireRowsUpdated();
+                fireProgress(index, processedCount);
+                lastUpdate = now;
+            }
+        }
+
+        public void finish(int index, int processedCount) {
+            fireRowsUpdated();
+            fireProgress(index, processedCount);
+        }
+
+        private void fireRowsUpdated() {
+            if (firstIndex == -1)
+                return;
+            final int first = firstIndex, last = lastIndex;
+            firstIndex = lastIndex = -1;
+            invokeLater(new Runnable() {
+                public void run() {
+                    positionsModel.fireTableRowsUpdated(first, last, columnIndex);
+                    if (positionsTable != null) {
+                        scrollToPosition(positionsTable, min(last + 1, positionsModel.getRowCount()));
+                    }
+                }
+            });
+        }
+
+        private void fireProgress(final int index, int processedCount) {
+            final int percent = count > 0 ? processedCount * 100 / count : 100;
+            invokeLater(new Runnable() {
+                public void run() {
+                    progress.setNote(MessageFormat.format(
+                            RouteConverter.getBundle().getString("progress-processing-position"),
+                            index, percent));
+                    progress.setProgress(percent);
+                }
+            });
+        }
+    }
+
+    private <T> void executeOperation(final JTable positionsTable,
+                                      final PositionsModel positionsModel,
+                                      final int[] rows,
+                                      final OverwritePredicate predicate,
+                                      final Operation<T> operation) {
         synchronized (mutex) {
             this.running = true;
         }
@@ -118,62 +295,59 @@ public class BatchPositionAugmenter {
         final ProgressMonitor progress = new ProgressMonitor(frame, "", RouteConverter.getBundle().getString("progress-started"), 0, 100);
         new Thread(new Runnable() {
             public void run() {
+                ServiceLimit serviceLimit = operation.getServiceLimit();
+                ExecutorService executor = serviceLimit != null ? createExecutor(operation.getName(), serviceLimit.concurrency) : null;
                 try {
-                    final Exception[] lastException = new Exception[1];
-                    lastException[0] = null;
-                    final int maximumRangeLength = rows.length > 99 ? rows.length / (slowOperation ? 100 : 10) : rows.length;
-
-                    new ContinousRange(rows, new RangeOperation() {
-                        private int count = 1;
-
-                        public void performOnIndex(final int index) {
-                            NavigationPosition position = positionsModel.getPosition(index);
-                            if (predicate.shouldOverwrite(position)) {
-                                try {
-                                    // ignoring the result since the performance boost of the continous
-                                    // range operations outweights the possible optimization
-                                    operation.run(index, position);
-                                } catch (Exception e) {
-                                    e.printStackTrace();
-                                    log.warning(format("Error while running operation %s on position %d: %s", operation, index, e));
-                                    lastException[0] = e;
-                                }
-                            }
-
-                            invokeLater(new Runnable() {
-                                public void run() {
-                                    int percent = count++ * 100 / rows.length;
-                                    progress.setNote(MessageFormat.format(
-                                            RouteConverter.getBundle().getString("progress-processing-position"),
-                                            index, percent));
-                                    progress.setProgress(percent);
-                                }
-                            });
-                        }
-
-                        public void performOnRange(final int firstIndex, final int lastIndex) {
-                            invokeLater(new Runnable() {
-                                public void run() {
-                                    positionsModel.fireTableRowsUpdated(firstIndex, lastIndex, operation.getColumnIndex());
-                                    if (positionsTable != null) {
-                                        scrollToPosition(positionsTable, Math.min(lastIndex + maximumRangeLength, positionsModel.getRowCount()));
-                                    }
-                                }
-                            });
+                    Exception lastException = null;
+                    int[] sortedRows = sortedCopy(rows);
+                    int maximumPendingRequests = executor != null ? serviceLimit.concurrency * PENDING_REQUESTS_PER_THREAD : 1;
+                    ProgressUpdater updater = new ProgressUpdater(positionsTable, positionsModel, progress,
+                            operation.getColumnIndex(), sortedRows.length);
+                    Queue<Request<T>> requests = new ArrayDeque<Request<T>>(maximumPendingRequests);
+                    int submitted = 0, processed = 0, lastIndex = -1;
+
+                    while (processed < sortedRows.length && !isInterrupted()) {
+                        // keep the workers busy while the results are applied in the order of the rows
+                        while (submitted < sortedRows.length && requests.size() < maximumPendingRequests) {
+                            int index = sortedRows[submitted++];
+                            NavigationPosition position = index < positionsModel.getRowCount() ? positionsModel.getPosition(index) : null;
+                            if (position != null && predicate.shouldOverwrite(position)) {
+                                Callable<T> compute = createCompute(operation, index, position);
+                                Future<T> future = executor != null ? executor.submit(compute) : null;
+                                requests.add(new Request<T>(index, position, compute, future));
+                            } else
+                                requests.add(new Request<T>(index, null, null, null));
                         }
 
-                        public boolean isInterrupted() {
-                            synchronized (mutex) {
-                                return progress.isCanceled() || !running;
+                        Request<T> request = requests.remove();
+                        if (request.position != null) {
+                            try {
+                                T value = request.get();
+                                // ignoring the result since the coalesced updates of the table
+                                // outweigh the possible optimization
+                                operation.apply(request.index, request.position, value);
+                            } catch (Exception e) {
+                                log.warning(format("Error while running operation %s on position %d: %s", operation.getName(), request.index, e));
+                                lastException = e;
                             }
                         }
-                    }).performMonotonicallyIncreasing(maximumRangeLength);
+                        lastIndex = request.index;
+                        updater.processed(lastIndex, ++processed);
+                    }
+
+                    for (Request<T> request : requests) {
+                        if (request.future != null)
+                            request.future.cancel(true);
+                    }
+                    updater.finish(lastIndex, processed);
 
-                    if (lastException[0] != null)
+                    if (lastException != null)
                         JOptionPane.showMessageDialog(frame,
-                                MessageFormat.format(operation.getErrorMessage(), lastException[0].getLocalizedMessage()),
+                                MessageFormat.format(operation.getErrorMessage(), lastException.getLocalizedMessage()),
                                 frame.getTitle(), ERROR_MESSAGE);
                 } finally {
+                    if (executor != null)
+                        executor.shutdownNow();
                     invokeLater(new Runnable() {
                         public void run() {
                             stopWaitCursor(frame.getRootPane());
@@ -183,16 +357,29 @@ public class BatchPositionAugmenter {
                     });
                 }
             }
+
+            private boolean isInterrupted() {
+                synchronized (mutex) {
+                    return progress.isCanceled() || !running;
+                }
+            }
         }, operation.getName()).start();
     }
 
+    private static int[] sortedCopy(int[] rows) {
+        int[] result = new int[rows.length];
+        System.arraycopy(rows, 0, result, 0, rows.length);
+        Arrays.sort(result);
+        return result;
+    }
+
 
     private void processCoordinates(final JTable positionsTable,
                                     final PositionsModel positionsModel,
                                     final int[] rows,
                                     final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, true, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<BasicPosition>() {
                     private GoogleMapsService googleMapsService = new GoogleMapsService();
 
                     public String getName() {
@@ -203,8 +390,15 @@ public class BatchPositionAugmenter {
                         return ALL_COLUMNS; // LONGITUDE_COLUMN_INDEX + LATITUDE_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
-                        BasicPosition coordinates = googleMapsService.getPositionFor(position.getComment());
+                    public ServiceLimit getServiceLimit() {
+                        return GOOGLE_MAPS_LIMIT;
+                    }
+
+                    public BasicPosition compute(int index, NavigationPosition position) throws Exception {
+                        return googleMapsService.getPositionFor(position.getComment());
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, BasicPosition coordinates) {
                         if (coordinates != null) {
                             positionsModel.edit(index, LONGITUDE_COLUMN_INDEX, coordinates.getLongitude(),
                                     LATITUDE_COLUMN_INDEX, coordinates.getLatitude(), false, true);
@@ -228,8 +422,11 @@ public class BatchPositionAugmenter {
                                    final PositionsModel positionsModel,
                                    final int[] rows,
                                    final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, true, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<Double>() {
+                    private final int[] sortedRows = sortedCopy(rows);
+                    private final Map<Integer, Double> elevations = new HashMap<Integer, Double>();
+
                     public String getName() {
                         return "ElevationPositionAugmenter";
                     }
@@ -238,9 +435,43 @@ public class BatchPositionAugmenter {
                         return ELEVATION_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public ServiceLimit getServiceLimit() {
+                        // already batched, cached and limited to the rate of Google Maps
+                        // by the complete position service
+                        return null;
+                    }
+
+                    public Double compute(int index, NavigationPosition position) throws Exception {
+                        if (!elevations.containsKey(index))
+                            fetchElevations(index);
+                        return elevations.remove(index);
+                    }
+
+                    private void fetchElevations(int index) throws Exception {
+                        elevations.clear();
+                        List<Integer> indices = new ArrayList<Integer>(ELEVATION_BATCH_SIZE);
+                        List<BasicPosition> positions = new ArrayList<BasicPosition>(ELEVATION_BATCH_SIZE);
+                        int start = Arrays.binarySearch(sortedRows, index);
+                        for (int i = start < 0 ? 0 : start; i < sortedRows.length && indices.size() < ELEVATION_BATCH_SIZE; i++) {
+                            int row = sortedRows[i];
+                            if (row < index || row >= positionsModel.getRowCount())
+                                continue;
+                            NavigationPosition position = positionsModel.getPosition(row);
+                            if (!predicate.shouldOverwrite(position) && row != index)
+                                continue;
+                            indices.add(row);
+                            positions.add(new BasicPosition(position.getLongitude(), position.getLatitude(), null, null));
+                            // positions without elevation are not retried if the batch fails
+                            elevations.put(row, null);
+                        }
+
+                        List<Double> result = completePositionService.getElevationsFor(positions);
+                        for (int i = 0; i < indices.size(); i++)
+                            elevations.put(indices.get(i), result.get(i));
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, Double nextElevation) {
                         Double previousElevation = position.getElevation();
-                        Double nextElevation = completePositionService.getElevationFor(position.getLongitude(), position.getLatitude());
                         boolean changed = nextElevation != null && !nextElevation.equals(previousElevation);
                         if (changed)
                             positionsModel.edit(index, ELEVATION_COLUMN_INDEX, nextElevation, -1, null, false, true);
@@ -263,8 +494,8 @@ public class BatchPositionAugmenter {
                                     final PositionsModel positionsModel,
                                     final int[] rows,
                                     final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, true, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<String>() {
                     private GeoNamesService geonamesService = new GeoNamesService();
 
                     public String getName() {
@@ -275,8 +506,15 @@ public class BatchPositionAugmenter {
                         return DESCRIPTION_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
-                        String comment = geonamesService.getNearByFor(position.getLongitude(), position.getLatitude());
+                    public ServiceLimit getServiceLimit() {
+                        return GEONAMES_LIMIT;
+                    }
+
+                    public String compute(int index, NavigationPosition position) throws Exception {
+                        return geonamesService.getNearByFor(position.getLongitude(), position.getLatitude());
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, String comment) {
                         if (comment != null)
                             positionsModel.edit(index, DESCRIPTION_COLUMN_INDEX, comment, -1, null, false, true);
                         return comment != null;
@@ -298,8 +536,8 @@ public class BatchPositionAugmenter {
                                     final PositionsModel positionsModel,
                                     final int[] rows,
                                     final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, true, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<String>() {
                     private GoogleMapsService googleMapsService = new GoogleMapsService();
 
                     public String getName() {
@@ -310,8 +548,15 @@ public class BatchPositionAugmenter {
                         return DESCRIPTION_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
-                        String comment = googleMapsService.getLocationFor(position.getLongitude(), position.getLatitude());
+                    public ServiceLimit getServiceLimit() {
+                        return GOOGLE_MAPS_LIMIT;
+                    }
+
+                    public String compute(int index, NavigationPosition position) throws Exception {
+                        return googleMapsService.getLocationFor(position.getLongitude(), position.getLatitude());
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, String comment) {
                         if (comment != null)
                             positionsModel.edit(index, DESCRIPTION_COLUMN_INDEX, comment, -1, null, false, true);
                         return comment != null;
@@ -333,8 +578,8 @@ public class BatchPositionAugmenter {
                                final PositionsModel positionsModel,
                                final int[] rows,
                                final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, false, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<Double>() {
                     public String getName() {
                         return "SpeedPositionAugmenter";
                     }
@@ -343,17 +588,21 @@ public class BatchPositionAugmenter {
                         return SPEED_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public ServiceLimit getServiceLimit() {
+                        return null;
+                    }
+
+                    public Double compute(int index, NavigationPosition position) throws Exception {
                         NavigationPosition predecessor = index > 0 && index < positionsModel.getRowCount() ? positionsModel.getPosition(index - 1) : null;
-                        if (predecessor != null) {
-                            Double previousSpeed = position.getSpeed();
-                            Double nextSpeed = position.calculateSpeed(predecessor);
-                            boolean changed = nextSpeed != null && !nextSpeed.equals(previousSpeed);
-                            if (changed)
-                                positionsModel.edit(index, SPEED_COLUMN_INDEX, nextSpeed, -1, null, false, true);
-                            return changed;
-                        }
-                        return false;
+                        return predecessor != null ? position.calculateSpeed(predecessor) : null;
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, Double nextSpeed) {
+                        Double previousSpeed = position.getSpeed();
+                        boolean changed = nextSpeed != null && !nextSpeed.equals(previousSpeed);
+                        if (changed)
+                            positionsModel.edit(index, SPEED_COLUMN_INDEX, nextSpeed, -1, null, false, true);
+                        return changed;
                     }
 
                     public String getErrorMessage() {
@@ -389,8 +638,8 @@ public class BatchPositionAugmenter {
                                final PositionsModel positionsModel,
                                final int[] rows,
                                final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, false, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<CompactCalendar>() {
                     public String getName() {
                         return "TimePositionAugmenter";
                     }
@@ -399,18 +648,23 @@ public class BatchPositionAugmenter {
                         return TIME_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public ServiceLimit getServiceLimit() {
+                        // depends on the times applied to the previous positions
+                        return null;
+                    }
+
+                    public CompactCalendar compute(int index, NavigationPosition position) throws Exception {
                         NavigationPosition predecessor = findPredecessorWithTime(positionsModel, index);
                         NavigationPosition successor = findSuccessorWithTime(positionsModel, index);
-                        if (predecessor != null && successor != null) {
-                            CompactCalendar previousTime = position.getTime();
-                            CompactCalendar nextTime = intrapolateTime(position, predecessor, successor);
-                            boolean changed = nextTime != null && !nextTime.equals(previousTime);
-                            if (changed)
-                                positionsModel.edit(index, TIME_COLUMN_INDEX, nextTime, -1, null, false, true);
-                            return changed;
-                        }
-                        return false;
+                        return predecessor != null && successor != null ? intrapolateTime(position, predecessor, successor) : null;
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, CompactCalendar nextTime) {
+                        CompactCalendar previousTime = position.getTime();
+                        boolean changed = nextTime != null && !nextTime.equals(previousTime);
+                        if (changed)
+                            positionsModel.edit(index, TIME_COLUMN_INDEX, nextTime, -1, null, false, true);
+                        return changed;
                     }
 
                     public String getErrorMessage() {
@@ -431,8 +685,8 @@ public class BatchPositionAugmenter {
                                 final int digitCount,
                                 final NumberPattern numberPattern,
                                 final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, false, predicate,
-                new Operation() {
+        executeOperation(positionsTable, positionsModel, rows, predicate,
+                new Operation<String>() {
                     public String getName() {
                         return "NumberPositionAugmenter";
                     }
@@ -441,9 +695,16 @@ public class BatchPositionAugmenter {
                         return DESCRIPTION_COLUMN_INDEX;
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public ServiceLimit getServiceLimit() {
+                        return null;
+                    }
+
+                    public String compute(int index, NavigationPosition position) throws Exception {
+                        return getNumberedPosition(position, index, digitCount, numberPattern);
+                    }
+
+                    public boolean apply(int index, NavigationPosition position, String nextComment) {
                         String previousComment = position.getComment();
-                        String nextComment = getNumberedPosition(position, index, digitCount, numberPattern);
                         boolean changed = nextComment != null && !nextComment.equals(previousComment);
                         if (changed)
                             positionsModel.edit(index, DESCRIPTION_COLUMN_INDEX, nextComment, -1, null, false, true);
@@ -25,7 +25,9 @@ import slash.common.type.CompactCalendar;
 import slash.navigation.base.BaseNavigationFormat;
 import slash.navigation.base.BaseNavigationPosition;
 import slash.navigation.base.BaseRoute;
+import slash.navigation.base.CumulativeMetrics;
 import slash.navigation.base.NavigationPosition;
+import slash.navigation.base.SpatialIndex;
 import slash.navigation.common.UnitSystem;
 import slash.navigation.converter.gui.RouteConverter;
 import slash.navigation.converter.gui.helper.PositionHelper;
@@ -41,9 +43,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static java.lang.Integer.MAX_VALUE;
 import static java.util.Arrays.asList;
+import static javax.swing.event.TableModelEvent.ALL_COLUMNS;
 import static javax.swing.event.TableModelEvent.UPDATE;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.gui.events.Range.asBitSet;
 import static slash.navigation.base.NavigationFormats.asFormatForPositions;
 import static slash.navigation.converter.gui.helper.PositionHelper.extractComment;
 import static slash.navigation.converter.gui.helper.PositionHelper.extractElevation;
@@ -69,6 +74,8 @@ import static slash.navigation.converter.gui.models.PositionColumns.TIME_COLUMN_
 
 public class PositionsModelImpl extends AbstractTableModel implements PositionsModel {
     private BaseRoute route;
+    private CumulativeMetrics metrics;
+    private SpatialIndex spatialIndex;
 
     public BaseRoute getRoute() {
         return route;
@@ -76,6 +83,8 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
 
     public void setRoute(BaseRoute route) {
         this.route = route;
+        this.metrics = route != null ? new CumulativeMetrics(route) : null;
+        this.spatialIndex = route != null ? new SpatialIndex(route) : null;
         fireTableDataChanged();
     }
 
@@ -106,18 +115,14 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
         throw new IllegalArgumentException("Row " + rowIndex + ", column " + columnIndex + " does not exist");
     }
 
-    private double[] distanceCache = null;
-
     public Object getValueAt(int rowIndex, int columnIndex) {
         switch (columnIndex) {
             case DISTANCE_COLUMN_INDEX:
-                if (distanceCache == null)
-                    distanceCache = getRoute().getDistancesFromStart(0, getRowCount() - 1);
-                return distanceCache[rowIndex];
+                return metrics.getDistance(rowIndex);
             case ELEVATION_ASCEND_COLUMN_INDEX:
-                return getRoute().getElevationAscend(0, rowIndex);
+                return metrics.getElevationAscend(rowIndex);
             case ELEVATION_DESCEND_COLUMN_INDEX:
-                return getRoute().getElevationDescend(0, rowIndex);
+                return metrics.getElevationDescend(rowIndex);
         }
         return getPosition(rowIndex);
     }
@@ -146,7 +151,7 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     }
 
     public int[] getContainedPositions(NavigationPosition northEastCorner, NavigationPosition southWestCorner) {
-        return getRoute().getContainedPositions(northEastCorner, southWestCorner);
+        return spatialIndex.getContainedPositions(northEastCorner, southWestCorner);
     }
 
     public int[] getPositionsWithinDistanceToPredecessor(double distance) {
@@ -158,7 +163,7 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     }
 
     public int getClosestPosition(double longitude, double latitude, double threshold) {
-        return getRoute().getClosestPosition(longitude, latitude, threshold);
+        return spatialIndex.getClosestPosition(longitude, latitude, threshold);
     }
 
     public boolean isCellEditable(int rowIndex, int columnIndex) {
@@ -186,6 +191,10 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
         editCell(rowIndex, firstColumnIndex, firstValue);
         if (secondColumnIndex != -1)
             editCell(rowIndex, secondColumnIndex, secondValue);
+        // the sums change from this row on even if no event is fired
+        invalidateMetrics(rowIndex);
+        if (isCoordinateColumn(firstColumnIndex) || isCoordinateColumn(secondColumnIndex))
+            updateSpatialIndex(rowIndex, rowIndex);
 
         if (fireEvent) {
             if (secondColumnIndex != -1)
@@ -307,12 +316,14 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     }
 
     public void remove(int[] rows, final boolean fireEvent) {
+        getRoute().removeAll(asBitSet(rows));
         new ContinousRange(rows, new RangeOperation() {
             public void performOnIndex(int index) {
-                getRoute().remove(index);
             }
 
             public void performOnRange(int firstIndex, int lastIndex) {
+                invalidateMetrics(firstIndex);
+                invalidateSpatialIndex();
                 if (fireEvent)
                     fireTableRowsDeleted(firstIndex, lastIndex);
             }
@@ -332,18 +343,14 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     public void top(int[] rowIndices) {
         Arrays.sort(rowIndices);
 
-        for (int i = 0; i < rowIndices.length; i++) {
-            getRoute().top(rowIndices[i], i);
-        }
+        getRoute().top(rowIndices);
         fireTableRowsUpdated(0, rowIndices[rowIndices.length - 1]);
     }
 
     public void topDown(int[] rows) {
         int[] reverted = Range.revert(rows);
 
-        for (int i = 0; i < reverted.length; i++) {
-            getRoute().down(reverted.length - i - 1, reverted[i]);
-        }
+        getRoute().topDown(rows);
         fireTableRowsUpdated(0, reverted[0]);
     }
 
@@ -366,25 +373,46 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     }
 
     public void bottom(int[] rowIndices) {
-        int[] reverted = Range.revert(rowIndices);
+        Arrays.sort(rowIndices);
 
-        for (int i = 0; i < reverted.length; i++) {
-            getRoute().bottom(reverted[i], i);
-            fireTableRowsUpdated(reverted[i], getRowCount() - 1 - i);
-        }
+        getRoute().bottom(rowIndices);
+        fireTableRowsUpdated(rowIndices[0], getRowCount() - 1);
     }
 
     public void bottomUp(int[] rows) {
         Arrays.sort(rows);
 
-        for (int i = 0; i < rows.length; i++) {
-            getRoute().up(getRowCount() - rows.length + i, rows[i]);
-        }
+        getRoute().bottomUp(rows);
         fireTableRowsUpdated(rows[0], getRowCount() - 1);
     }
 
+    private void invalidateMetrics(int firstIndex) {
+        if (metrics != null)
+            metrics.invalidate(firstIndex);
+    }
+
+    private boolean isCoordinateColumn(int columnIndex) {
+        return columnIndex == LONGITUDE_COLUMN_INDEX || columnIndex == LATITUDE_COLUMN_INDEX;
+    }
+
+    private void invalidateSpatialIndex() {
+        if (spatialIndex != null)
+            spatialIndex.invalidate();
+    }
+
+    private void updateSpatialIndex(int firstIndex, int lastIndex) {
+        if (spatialIndex != null)
+            spatialIndex.update(firstIndex, lastIndex);
+    }
+
     public void fireTableChanged(TableModelEvent e) {
-        distanceCache = null;
+        // header events and updates of all rows (-1, -1) invalidate all sums
+        invalidateMetrics(e.getFirstRow() >= 0 ? e.getFirstRow() : 0);
+        // inserts and deletes shift the indices of the positions, updates may move positions
+        if (e.getType() != UPDATE || e.getFirstRow() < 0 || e.getLastRow() == MAX_VALUE)
+            invalidateSpatialIndex();
+        else if (e.getColumn() == ALL_COLUMNS || isCoordinateColumn(e.getColumn()))
+            updateSpatialIndex(e.getFirstRow(), e.getLastRow());
         super.fireTableChanged(e);
     }
 
@@ -27,7 +27,6 @@ import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoableEdit;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,16 +37,13 @@ import java.util.List;
 
 class RemovePositions extends AbstractUndoableEdit {
     private UndoPositionsModel positionsModel;
-    private List<Integer> rowList = new ArrayList<Integer>();
-    private List<List<NavigationPosition>> positionsList = new ArrayList<List<NavigationPosition>>();
+    private int[] rows;
+    private List<NavigationPosition> positions;
 
-    public RemovePositions(UndoPositionsModel positionsModel) {
+    public RemovePositions(UndoPositionsModel positionsModel, int[] rows, List<NavigationPosition> positions) {
         this.positionsModel = positionsModel;
-    }
-
-    public void add(int row, List<NavigationPosition> positions) {
-        rowList.add(0, row);
-        positionsList.add(0, positions);
+        this.rows = rows;
+        this.positions = positions;
     }
 
     public String getUndoPresentationName() {
@@ -60,19 +56,11 @@ class RemovePositions extends AbstractUndoableEdit {
 
     public void undo() throws CannotUndoException {
         super.undo();
-        for (int i = 0; i < rowList.size(); i++) {
-            int row = rowList.get(i);
-            List<NavigationPosition> positions = positionsList.get(i);
-            positionsModel.add(row, positions, true, false);
-        }
+        positionsModel.add(rows, positions, true);
     }
 
     public void redo() throws CannotRedoException {
         super.redo();
-        for (int i = rowList.size() - 1; i >= 0; i--) {
-            int row = rowList.get(i);
-            List<NavigationPosition> positions = positionsList.get(i);
-            positionsModel.remove(row, row + positions.size(), true, false);
-        }
+        positionsModel.remove(rows, true, false);
     }
 }
\ No newline at end of file
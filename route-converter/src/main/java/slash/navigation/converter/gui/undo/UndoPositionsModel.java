@@ -35,10 +35,12 @@ import slash.navigation.gui.undo.UndoManager;
 import javax.swing.event.TableModelListener;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.gui.events.Range.asBitSet;
 
 /**
  * Implements a undo/redo-supporting {@link PositionsModel} for the positions of a {@link BaseRoute}.
@@ -195,21 +197,35 @@ public class UndoPositionsModel implements PositionsModel {
         remove(rows, fireEvent, trackUndo);
     }
 
-    void remove(int[] rows, final boolean fireEvent, final boolean trackUndo) {
-        final RemovePositions edit = new RemovePositions(this);
+    @SuppressWarnings("unchecked")
+    void add(int[] rows, List<NavigationPosition> positions, final boolean fireEvent) {
+        getRoute().addAll(rows, positions);
 
         new ContinousRange(rows, new RangeOperation() {
-            private List<NavigationPosition> removed = new ArrayList<NavigationPosition>();
+            public void performOnIndex(int index) {
+            }
+            public void performOnRange(int firstIndex, int lastIndex) {
+                if (fireEvent)
+                    delegate.fireTableRowsInserted(firstIndex, lastIndex);
+            }
+            public boolean isInterrupted() {
+                return false;
+            }
+        }).performMonotonicallyIncreasing();
+    }
 
+    @SuppressWarnings("unchecked")
+    void remove(int[] rows, final boolean fireEvent, final boolean trackUndo) {
+        rows = Arrays.copyOf(rows, rows.length);
+        Arrays.sort(rows);
+        List<NavigationPosition> removed = new ArrayList<NavigationPosition>(getRoute().removeAll(asBitSet(rows)));
+
+        new ContinousRange(rows, new RangeOperation() {
             public void performOnIndex(int index) {
-                removed.add(0, getRoute().remove(index));
             }
             public void performOnRange(int firstIndex, int lastIndex) {
                 if (fireEvent)
                     delegate.fireTableRowsDeleted(firstIndex, lastIndex);
-                if (trackUndo)
-                    edit.add(firstIndex, removed);
-                removed.clear();
             }
             public boolean isInterrupted() {
                 return false;
@@ -217,7 +233,7 @@ public class UndoPositionsModel implements PositionsModel {
         }).performMonotonicallyDecreasing();
 
         if (trackUndo)
-            undoManager.addEdit(edit);
+            undoManager.addEdit(new RemovePositions(this, rows, removed));
     }
 
     public void revert() {